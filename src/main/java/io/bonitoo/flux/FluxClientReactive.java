@@ -22,17 +22,23 @@
  */
 package io.bonitoo.flux;
 
+import java.time.Duration;
 import java.util.Map;
 import javax.annotation.Nonnull;
 
 import io.bonitoo.core.event.AbstractInfluxEvent;
+import io.bonitoo.flux.dto.FluxLazyRecord;
 import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.dto.FluxRecordBatch;
+import io.bonitoo.flux.dto.FluxTableKey;
 import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
 
 import io.reactivex.Flowable;
 import io.reactivex.Maybe;
 import io.reactivex.Observable;
 import io.reactivex.annotations.Experimental;
+import io.reactivex.flowables.GroupedFlowable;
 import okhttp3.ResponseBody;
 import okhttp3.logging.HttpLoggingInterceptor;
 import org.reactivestreams.Publisher;
@@ -159,6 +165,313 @@ public interface FluxClientReactive {
                              @Nonnull final Map<String, Object> properties,
                              @Nonnull final FluxOptions options);
 
+    /**
+     * Execute a Flux against the Flux service.
+     *
+     * @param query           the flux query to execute
+     * @param options         the options for the query
+     * @param reactiveOptions the options for the delivering of query results
+     * @return {@link Flowable} emitting {@link FluxRecord}s which are matched the query or
+     * {@link Flowable#empty()} if none found.
+     */
+    @Nonnull
+    Flowable<FluxRecord> flux(@Nonnull final String query,
+                             @Nonnull final FluxOptions options,
+                             @Nonnull final FluxReactiveOptions reactiveOptions);
+
+    /**
+     * Execute a Flux against the Flux service.
+     *
+     * @param query           the flux query to execute
+     * @param properties      named properties
+     * @param options         the options for the query
+     * @param reactiveOptions the options for the delivering of query results
+     * @return {@link Flowable} emitting {@link FluxRecord}s which are matched the query or
+     * {@link Flowable#empty()} if none found.
+     */
+    @Nonnull
+    Flowable<FluxRecord> flux(@Nonnull final Flux query,
+                             @Nonnull final Map<String, Object> properties,
+                             @Nonnull final FluxOptions options,
+                             @Nonnull final FluxReactiveOptions reactiveOptions);
+
+    /**
+     * Execute a Flux against the Flux service.
+     *
+     * @param queryStream     the flux query to execute
+     * @param properties      named properties
+     * @param options         the options for the query
+     * @param reactiveOptions the options for the delivering of query results
+     * @return {@link Flowable} emitting {@link FluxRecord}s which are matched the query or
+     * {@link Flowable#empty()} if none found.
+     */
+    @Nonnull
+    Flowable<FluxRecord> flux(@Nonnull final Publisher<Flux> queryStream,
+                             @Nonnull final Map<String, Object> properties,
+                             @Nonnull final FluxOptions options,
+                             @Nonnull final FluxReactiveOptions reactiveOptions);
+
+    /**
+     * Execute a Flux against the Flux service and emit the results as batches of records stored by columns.
+     *
+     * @param query the flux query to execute
+     * @return {@link Flowable} emitting {@link FluxRecordBatch}es which are matched the query or
+     * {@link Flowable#empty()} if none found.
+     * @see FluxReactiveOptions#getBatchSize()
+     */
+    @Nonnull
+    Flowable<FluxRecordBatch> fluxBatches(@Nonnull final String query);
+
+    /**
+     * Execute a Flux against the Flux service and emit the results as batches of records stored by columns.
+     *
+     * @param query the flux query to execute
+     * @return {@link Flowable} emitting {@link FluxRecordBatch}es which are matched the query or
+     * {@link Flowable#empty()} if none found.
+     * @see FluxReactiveOptions#getBatchSize()
+     */
+    @Nonnull
+    Flowable<FluxRecordBatch> fluxBatches(@Nonnull final Flux query);
+
+    /**
+     * Execute a Flux against the Flux service and emit the results as batches of records stored by columns.
+     *
+     * @param query           the flux query to execute
+     * @param properties      named properties
+     * @param options         the options for the query
+     * @param reactiveOptions the options for the delivering of query results
+     * @return {@link Flowable} emitting {@link FluxRecordBatch}es which are matched the query or
+     * {@link Flowable#empty()} if none found.
+     */
+    @Nonnull
+    Flowable<FluxRecordBatch> fluxBatches(@Nonnull final Flux query,
+                                          @Nonnull final Map<String, Object> properties,
+                                          @Nonnull final FluxOptions options,
+                                          @Nonnull final FluxReactiveOptions reactiveOptions);
+
+    /**
+     * Execute a Flux against the Flux service and emit the results as batches of records stored by columns.
+     *
+     * @param queryStream     the flux query to execute
+     * @param properties      named properties
+     * @param options         the options for the query
+     * @param reactiveOptions the options for the delivering of query results
+     * @return {@link Flowable} emitting {@link FluxRecordBatch}es which are matched the query or
+     * {@link Flowable#empty()} if none found.
+     */
+    @Nonnull
+    Flowable<FluxRecordBatch> fluxBatches(@Nonnull final Publisher<Flux> queryStream,
+                                          @Nonnull final Map<String, Object> properties,
+                                          @Nonnull final FluxOptions options,
+                                          @Nonnull final FluxReactiveOptions reactiveOptions);
+
+    /**
+     * Execute a Flux against the Flux service and emit the records which decode their values only on access.
+     *
+     * @param query the flux query to execute
+     * @return {@link Flowable} emitting {@link FluxLazyRecord}s which are matched the query or
+     * {@link Flowable#empty()} if none found.
+     */
+    @Nonnull
+    Flowable<FluxLazyRecord> fluxLazy(@Nonnull final String query);
+
+    /**
+     * Execute a Flux against the Flux service and emit the records which decode their values only on access.
+     *
+     * @param query the flux query to execute
+     * @return {@link Flowable} emitting {@link FluxLazyRecord}s which are matched the query or
+     * {@link Flowable#empty()} if none found.
+     */
+    @Nonnull
+    Flowable<FluxLazyRecord> fluxLazy(@Nonnull final Flux query);
+
+    /**
+     * Execute a Flux against the Flux service and emit the records which decode their values only on access.
+     *
+     * @param query           the flux query to execute
+     * @param properties      named properties
+     * @param options         the options for the query
+     * @param reactiveOptions the options for the delivering of query results
+     * @return {@link Flowable} emitting {@link FluxLazyRecord}s which are matched the query or
+     * {@link Flowable#empty()} if none found.
+     */
+    @Nonnull
+    Flowable<FluxLazyRecord> fluxLazy(@Nonnull final Flux query,
+                                      @Nonnull final Map<String, Object> properties,
+                                      @Nonnull final FluxOptions options,
+                                      @Nonnull final FluxReactiveOptions reactiveOptions);
+
+    /**
+     * Execute a Flux against the Flux service and emit the records which decode their values only on access.
+     *
+     * @param queryStream     the flux query to execute
+     * @param properties      named properties
+     * @param options         the options for the query
+     * @param reactiveOptions the options for the delivering of query results
+     * @return {@link Flowable} emitting {@link FluxLazyRecord}s which are matched the query or
+     * {@link Flowable#empty()} if none found.
+     */
+    @Nonnull
+    Flowable<FluxLazyRecord> fluxLazy(@Nonnull final Publisher<Flux> queryStream,
+                                      @Nonnull final Map<String, Object> properties,
+                                      @Nonnull final FluxOptions options,
+                                      @Nonnull final FluxReactiveOptions reactiveOptions);
+
+    /**
+     * Execute a Flux against the Flux service and map the results into the POJOs.
+     * <p>
+     * The columns are bound to the fields by the {@code org.influxdb.annotation.Column} annotation or by the name
+     * of field. The columns with the {@code _} prefix are bound also to the fields without the prefix
+     * ({@code _time} to {@code time}).
+     *
+     * @param query           the flux query to execute
+     * @param measurementType the type of POJO, requires the no-arg constructor
+     * @param <M>             the type of POJO
+     * @return {@link Flowable} emitting POJOs which are matched the query or {@link Flowable#empty()} if none found.
+     */
+    @Nonnull
+    <M> Flowable<M> flux(@Nonnull final String query, @Nonnull final Class<M> measurementType);
+
+    /**
+     * Execute a Flux against the Flux service and map the results into the POJOs.
+     *
+     * @param query           the flux query to execute
+     * @param measurementType the type of POJO, requires the no-arg constructor
+     * @param <M>             the type of POJO
+     * @return {@link Flowable} emitting POJOs which are matched the query or {@link Flowable#empty()} if none found.
+     * @see #flux(String, Class)
+     */
+    @Nonnull
+    <M> Flowable<M> flux(@Nonnull final Flux query, @Nonnull final Class<M> measurementType);
+
+    /**
+     * Execute a Flux against the Flux service and map the results into the POJOs.
+     *
+     * @param query           the flux query to execute
+     * @param measurementType the type of POJO, requires the no-arg constructor
+     * @param properties      named properties
+     * @param options         the options for the query
+     * @param reactiveOptions the options for the delivering of query results
+     * @param <M>             the type of POJO
+     * @return {@link Flowable} emitting POJOs which are matched the query or {@link Flowable#empty()} if none found.
+     * @see #flux(String, Class)
+     */
+    @Nonnull
+    <M> Flowable<M> flux(@Nonnull final Flux query,
+                         @Nonnull final Class<M> measurementType,
+                         @Nonnull final Map<String, Object> properties,
+                         @Nonnull final FluxOptions options,
+                         @Nonnull final FluxReactiveOptions reactiveOptions);
+
+    /**
+     * Execute a Flux against the Flux service and map the results into the POJOs.
+     *
+     * @param queryStream     the flux query to execute
+     * @param measurementType the type of POJO, requires the no-arg constructor
+     * @param properties      named properties
+     * @param options         the options for the query
+     * @param reactiveOptions the options for the delivering of query results
+     * @param <M>             the type of POJO
+     * @return {@link Flowable} emitting POJOs which are matched the query or {@link Flowable#empty()} if none found.
+     * @see #flux(String, Class)
+     */
+    @Nonnull
+    <M> Flowable<M> flux(@Nonnull final Publisher<Flux> queryStream,
+                         @Nonnull final Class<M> measurementType,
+                         @Nonnull final Map<String, Object> properties,
+                         @Nonnull final FluxOptions options,
+                         @Nonnull final FluxReactiveOptions reactiveOptions);
+
+    /**
+     * Execute a Flux against the Flux service and emit the records grouped by the Flux tables.
+     * <p>
+     * The inner {@link Flowable} of table is emitted as soon as the table starts and completes at the end of table.
+     * The tables are emitted in the order of response, the inner {@link Flowable}s have to be consumed
+     * like the groups of {@link Flowable#groupBy(io.reactivex.functions.Function)}.
+     *
+     * @param query the flux query to execute
+     * @return {@link Flowable} emitting the tables of query or {@link Flowable#empty()} if none found.
+     */
+    @Nonnull
+    Flowable<GroupedFlowable<FluxTableKey, FluxRecord>> fluxTables(@Nonnull final String query);
+
+    /**
+     * Execute a Flux against the Flux service and emit the records grouped by the Flux tables.
+     *
+     * @param query the flux query to execute
+     * @return {@link Flowable} emitting the tables of query or {@link Flowable#empty()} if none found.
+     * @see #fluxTables(String)
+     */
+    @Nonnull
+    Flowable<GroupedFlowable<FluxTableKey, FluxRecord>> fluxTables(@Nonnull final Flux query);
+
+    /**
+     * Execute a Flux against the Flux service and emit the records grouped by the Flux tables.
+     *
+     * @param query           the flux query to execute
+     * @param properties      named properties
+     * @param options         the options for the query
+     * @param reactiveOptions the options for the delivering of query results, the dropping overflow strategies
+     *                        are not supported
+     * @return {@link Flowable} emitting the tables of query or {@link Flowable#empty()} if none found.
+     * @see #fluxTables(String)
+     */
+    @Nonnull
+    Flowable<GroupedFlowable<FluxTableKey, FluxRecord>> fluxTables(@Nonnull final Flux query,
+                                                                   @Nonnull final Map<String, Object> properties,
+                                                                   @Nonnull final FluxOptions options,
+                                                                   @Nonnull final FluxReactiveOptions reactiveOptions);
+
+    /**
+     * Execute a Flux against the Flux service and emit the records grouped by the Flux tables.
+     *
+     * @param queryStream     the flux query to execute
+     * @param properties      named properties
+     * @param options         the options for the query
+     * @param reactiveOptions the options for the delivering of query results, the dropping overflow strategies
+     *                        are not supported
+     * @return {@link Flowable} emitting the tables of query or {@link Flowable#empty()} if none found.
+     * @see #fluxTables(String)
+     */
+    @Nonnull
+    Flowable<GroupedFlowable<FluxTableKey, FluxRecord>> fluxTables(@Nonnull final Publisher<Flux> queryStream,
+                                                                   @Nonnull final Map<String, Object> properties,
+                                                                   @Nonnull final FluxOptions options,
+                                                                   @Nonnull final FluxReactiveOptions reactiveOptions);
+
+    /**
+     * Tail the Flux query. The query is re-executed every {@code interval} with the {@code range(start:)} advanced
+     * to the last observed {@code _time} and only the new records are emitted.
+     * <p>
+     * The query has to contain one {@code range()}, the first execution uses the range of query, the stop of range
+     * is kept by the polls. The records which arrive late, up to the {@link FluxReactiveOptions#getTailGrace()},
+     * are emitted too. The poll is skipped if the subscriber did not consume the records of previous poll.
+     *
+     * @param query    the flux query to tail
+     * @param interval the interval between the polls
+     * @return infinite {@link Flowable} emitting the new records of query
+     */
+    @Nonnull
+    Flowable<FluxRecord> fluxTail(@Nonnull final Flux query, @Nonnull final Duration interval);
+
+    /**
+     * Tail the Flux query.
+     *
+     * @param query           the flux query to tail
+     * @param interval        the interval between the polls
+     * @param properties      named properties
+     * @param options         the options for the query
+     * @param reactiveOptions the options for the delivering of query results
+     * @return infinite {@link Flowable} emitting the new records of query
+     * @see #fluxTail(Flux, Duration)
+     */
+    @Nonnull
+    Flowable<FluxRecord> fluxTail(@Nonnull final Flux query,
+                                  @Nonnull final Duration interval,
+                                  @Nonnull final Map<String, Object> properties,
+                                  @Nonnull final FluxOptions options,
+                                  @Nonnull final FluxReactiveOptions reactiveOptions);
+
     /**
      * Execute a Flux against the Flux service.
      *
@@ -225,6 +538,22 @@ public interface FluxClientReactive {
                                              @Nonnull final Map<String, Object> properties,
                                              @Nonnull final FluxOptions options);
 
+    /**
+     * Execute a Flux against the Flux service.
+     *
+     * @param queryStream     the flux query to execute
+     * @param properties      named properties
+     * @param options         the options for the query
+     * @param reactiveOptions the options for the delivering of query results
+     * @return {@link Flowable} emitting a raw {@code Response<ResponseBody>} which are matched the query
+     * @see FluxReactiveOptions#getMaxConcurrency()
+     */
+    @Nonnull
+    Flowable<Response<ResponseBody>> fluxRaw(@Nonnull final Publisher<Flux> queryStream,
+                                             @Nonnull final Map<String, Object> properties,
+                                             @Nonnull final FluxOptions options,
+                                             @Nonnull final FluxReactiveOptions reactiveOptions);
+
     /**
      * Listen the events produced by {@link FluxClientReactive}.
      *
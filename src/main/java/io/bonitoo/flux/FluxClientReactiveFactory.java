@@ -22,11 +22,14 @@
  */
 package io.bonitoo.flux;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 
 import io.bonitoo.flux.impl.FluxClientReactiveImpl;
 import io.bonitoo.flux.option.FluxConnectionOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
 
 /**
  * The Factory that create a reactive instance of a Flux client.
@@ -36,6 +39,8 @@ import io.bonitoo.flux.option.FluxConnectionOptions;
  */
 public final class FluxClientReactiveFactory {
 
+    private static final Duration DEFAULT_HEALTH_CHECK_INTERVAL = Duration.ofSeconds(10);
+
     private FluxClientReactiveFactory() {
     }
 
@@ -52,4 +57,71 @@ public final class FluxClientReactiveFactory {
 
         return new FluxClientReactiveImpl(options);
     }
+
+    /**
+     * Create a instance of the Flux reactive client.
+     *
+     * @param options         the connection configuration
+     * @param reactiveOptions the default options for the delivering of query results
+     * @return the reactive client
+     */
+    @Nonnull
+    public static FluxClientReactive connect(@Nonnull final FluxConnectionOptions options,
+                                             @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Objects.requireNonNull(options, "FluxConnectionOptions are required");
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+
+        return new FluxClientReactiveImpl(options, reactiveOptions);
+    }
+
+    /**
+     * Create a instance of the Flux reactive client which balances the queries between the endpoints.
+     * The endpoints are checked by the ping every 10 seconds.
+     *
+     * @param endpoints       the connection configurations of endpoints, the organization of first endpoint is used
+     * @param reactiveOptions the default options for the delivering of query results
+     * @return the reactive client
+     * @see #connect(List, FluxReactiveOptions, Duration)
+     */
+    @Nonnull
+    public static FluxClientReactive connect(@Nonnull final List<FluxConnectionOptions> endpoints,
+                                             @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        return connect(endpoints, reactiveOptions, DEFAULT_HEALTH_CHECK_INTERVAL);
+    }
+
+    /**
+     * Create a instance of the Flux reactive client which balances the queries between the endpoints.
+     * <p>
+     * Each query is routed to the better of two random endpoints by the count of outstanding queries
+     * and the average time to first byte. The endpoint which fails to connect or doesn't respond
+     * to the ping is skipped until the next successful ping.
+     *
+     * @param endpoints           the connection configurations of endpoints,
+     *                            the organization of first endpoint is used
+     * @param reactiveOptions     the default options for the delivering of query results
+     * @param healthCheckInterval the interval of the ping of endpoints
+     * @return the reactive client
+     */
+    @Nonnull
+    public static FluxClientReactive connect(@Nonnull final List<FluxConnectionOptions> endpoints,
+                                             @Nonnull final FluxReactiveOptions reactiveOptions,
+                                             @Nonnull final Duration healthCheckInterval) {
+
+        Objects.requireNonNull(endpoints, "FluxConnectionOptions of endpoints are required");
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+        Objects.requireNonNull(healthCheckInterval, "Health check interval is required");
+
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("Expecting at least one endpoint");
+        }
+        endpoints.forEach(endpoint -> Objects.requireNonNull(endpoint, "FluxConnectionOptions are required"));
+
+        if (healthCheckInterval.isNegative() || healthCheckInterval.isZero()) {
+            throw new IllegalArgumentException("Expecting a positive duration for healthCheckInterval");
+        }
+
+        return new FluxClientReactiveImpl(endpoints, reactiveOptions, healthCheckInterval);
+    }
 }
@@ -0,0 +1,297 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.dto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The values of one column of the {@link FluxRecordBatch} stored in the primitive array.
+ * <p>
+ * The storage is selected by the data type of column:
+ * <ul>
+ * <li>{@code long}, {@code unsignedLong}, {@code duration} and {@code dateTime} - {@link #getLongs()},
+ * the time is stored as nanoseconds since epoch and duration as nanoseconds</li>
+ * <li>{@code double} - {@link #getDoubles()}</li>
+ * <li>{@code boolean} - {@link #getBooleans()}</li>
+ * <li>{@code string} - {@link #getDictionaryIndexes()} into {@link #getDictionary()}</li>
+ * <li>{@code base64Binary} - {@link #getObjects()}</li>
+ * </ul>
+ *
+ * @author Jakub Bednar (bednar@github) (22/08/2018 10:15)
+ * @since 1.0.0
+ */
+public final class FluxColumnVector {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final String label;
+    private final String dataType;
+    private final BitSet nulls;
+
+    private final long[] longs;
+    private final double[] doubles;
+    private final boolean[] booleans;
+    private final int[] dictionaryIndexes;
+    private final String[] dictionary;
+    private final Object[] objects;
+
+    private FluxColumnVector(@Nonnull final String label,
+                             @Nullable final String dataType,
+                             @Nonnull final BitSet nulls,
+                             @Nullable final long[] longs,
+                             @Nullable final double[] doubles,
+                             @Nullable final boolean[] booleans,
+                             @Nullable final int[] dictionaryIndexes,
+                             @Nullable final String[] dictionary,
+                             @Nullable final Object[] objects) {
+
+        Objects.requireNonNull(label, "Label is required");
+        Objects.requireNonNull(nulls, "Nulls are required");
+
+        this.label = label;
+        this.dataType = dataType;
+        this.nulls = nulls;
+        this.longs = longs;
+        this.doubles = doubles;
+        this.booleans = booleans;
+        this.dictionaryIndexes = dictionaryIndexes;
+        this.dictionary = dictionary;
+        this.objects = objects;
+    }
+
+    @Nonnull
+    public static FluxColumnVector ofLongs(@Nonnull final String label,
+                                           @Nullable final String dataType,
+                                           @Nonnull final long[] values,
+                                           @Nonnull final BitSet nulls) {
+        return new FluxColumnVector(label, dataType, nulls, values, null, null, null, null, null);
+    }
+
+    @Nonnull
+    public static FluxColumnVector ofDoubles(@Nonnull final String label,
+                                             @Nullable final String dataType,
+                                             @Nonnull final double[] values,
+                                             @Nonnull final BitSet nulls) {
+        return new FluxColumnVector(label, dataType, nulls, null, values, null, null, null, null);
+    }
+
+    @Nonnull
+    public static FluxColumnVector ofBooleans(@Nonnull final String label,
+                                              @Nullable final String dataType,
+                                              @Nonnull final boolean[] values,
+                                              @Nonnull final BitSet nulls) {
+        return new FluxColumnVector(label, dataType, nulls, null, null, values, null, null, null);
+    }
+
+    @Nonnull
+    public static FluxColumnVector ofDictionary(@Nonnull final String label,
+                                                @Nullable final String dataType,
+                                                @Nonnull final int[] indexes,
+                                                @Nonnull final String[] dictionary,
+                                                @Nonnull final BitSet nulls) {
+        return new FluxColumnVector(label, dataType, nulls, null, null, null, indexes, dictionary, null);
+    }
+
+    @Nonnull
+    public static FluxColumnVector ofObjects(@Nonnull final String label,
+                                             @Nullable final String dataType,
+                                             @Nonnull final Object[] values,
+                                             @Nonnull final BitSet nulls) {
+        return new FluxColumnVector(label, dataType, nulls, null, null, null, null, null, values);
+    }
+
+    /**
+     * @return the label of column
+     */
+    @Nonnull
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return the data type of column, {@code null} if the response does not contains {@code #datatype} annotation
+     */
+    @Nullable
+    public String getDataType() {
+        return dataType;
+    }
+
+    /**
+     * @param row the index of row in batch
+     * @return {@code true} if the value is not present
+     */
+    public boolean isNull(final int row) {
+        return nulls.get(row);
+    }
+
+    public long getLong(final int row) {
+        return requireStorage(longs, "long")[row];
+    }
+
+    public double getDouble(final int row) {
+        return requireStorage(doubles, "double")[row];
+    }
+
+    public boolean getBoolean(final int row) {
+        return requireStorage(booleans, "boolean")[row];
+    }
+
+    /**
+     * The {@link Instant} view of the {@code dateTime} column. The values are stored as nanoseconds since epoch,
+     * use the {@link #getLong(int)} to avoid the allocation.
+     *
+     * @param row the index of row in batch
+     * @return the time or {@code null} if the value is not present
+     */
+    @Nullable
+    public Instant getInstant(final int row) {
+
+        if (dataType == null || !dataType.startsWith("dateTime")) {
+            throw new IllegalStateException("The column '" + label + "' is not a dateTime column: " + dataType);
+        }
+
+        if (isNull(row)) {
+            return null;
+        }
+
+        long value = longs[row];
+
+        return Instant.ofEpochSecond(Math.floorDiv(value, NANOS_PER_SECOND), Math.floorMod(value, NANOS_PER_SECOND));
+    }
+
+    @Nullable
+    public String getString(final int row) {
+
+        if (isNull(row)) {
+            return null;
+        }
+
+        if (dictionary != null) {
+            return dictionary[dictionaryIndexes[row]];
+        }
+
+        return String.valueOf(getValue(row));
+    }
+
+    /**
+     * @param row the index of row in batch
+     * @return the boxed value of cell with the same type as {@link FluxRecord#getValueByKey(String)}
+     */
+    @Nullable
+    public Object getValue(final int row) {
+
+        if (isNull(row)) {
+            return null;
+        }
+
+        if (longs != null) {
+            long value = longs[row];
+            if (dataType != null && dataType.startsWith("dateTime")) {
+                return getInstant(row);
+            }
+            if ("duration".equals(dataType)) {
+                return Duration.ofNanos(value);
+            }
+            return value;
+        }
+
+        if (doubles != null) {
+            return doubles[row];
+        }
+
+        if (booleans != null) {
+            return booleans[row];
+        }
+
+        if (dictionary != null) {
+            return dictionary[dictionaryIndexes[row]];
+        }
+
+        return objects[row];
+    }
+
+    /**
+     * @return the values of {@code long}, {@code unsignedLong}, {@code duration} or {@code dateTime} column,
+     * otherwise {@code null}
+     */
+    @Nullable
+    public long[] getLongs() {
+        return longs;
+    }
+
+    /**
+     * @return the values of {@code double} column, otherwise {@code null}
+     */
+    @Nullable
+    public double[] getDoubles() {
+        return doubles;
+    }
+
+    /**
+     * @return the values of {@code boolean} column, otherwise {@code null}
+     */
+    @Nullable
+    public boolean[] getBooleans() {
+        return booleans;
+    }
+
+    /**
+     * @return the indexes into {@link #getDictionary()} for {@code string} column, otherwise {@code null}
+     */
+    @Nullable
+    public int[] getDictionaryIndexes() {
+        return dictionaryIndexes;
+    }
+
+    /**
+     * @return the distinct values of {@code string} column, otherwise {@code null}
+     */
+    @Nullable
+    public String[] getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return the values of column with other data types, otherwise {@code null}
+     */
+    @Nullable
+    public Object[] getObjects() {
+        return objects;
+    }
+
+    @Nonnull
+    private <A> A requireStorage(@Nullable final A storage, @Nonnull final String type) {
+
+        if (storage == null) {
+            String message = String.format("The column '%s' with type '%s' is not a %s column", label, dataType, type);
+            throw new IllegalStateException(message);
+        }
+
+        return storage;
+    }
+}
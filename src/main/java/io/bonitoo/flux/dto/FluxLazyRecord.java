@@ -0,0 +1,198 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.dto;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The record which decodes its values only on access. The record keeps the raw cells of the response row
+ * and the value of column is decoded the first time it is requested by {@link #getValueByKey(String)}
+ * or by the other getters.
+ * <p>
+ * The accessors have the same semantic as the {@link FluxRecord}. The record is suitable for a wide tables
+ * where the subscriber reads only a few columns.
+ *
+ * @author Jakub Bednar (bednar@github) (25/08/2018 09:40)
+ * @since 1.0.0
+ */
+public final class FluxLazyRecord {
+
+    private static final Object NOT_DECODED = new Object();
+
+    private final Integer table;
+    private final Map<String, Integer> columns;
+    private final IntFunction<Object> decoder;
+    private final Object[] values;
+
+    /**
+     * @param table   the index of table that the record belongs
+     * @param columns the labels of columns mapped to the indexes of cells
+     * @param decoder the decoder of the cell by its index
+     */
+    public FluxLazyRecord(@Nonnull final Integer table,
+                          @Nonnull final Map<String, Integer> columns,
+                          @Nonnull final IntFunction<Object> decoder) {
+
+        Objects.requireNonNull(table, "Table is required");
+        Objects.requireNonNull(columns, "Columns are required");
+        Objects.requireNonNull(decoder, "Decoder is required");
+
+        this.table = table;
+        this.columns = columns;
+        this.decoder = decoder;
+
+        int size = 0;
+        for (Integer cell : columns.values()) {
+            size = Math.max(size, cell + 1);
+        }
+        this.values = new Object[size];
+        Arrays.fill(values, NOT_DECODED);
+    }
+
+    /**
+     * @return the index of table that the record belongs
+     */
+    @Nonnull
+    public Integer getTable() {
+        return table;
+    }
+
+    /**
+     * @return the inclusive lower time bound of all records
+     */
+    @Nullable
+    public Instant getStart() {
+        return (Instant) getValueByKey("_start");
+    }
+
+    /**
+     * @return the exclusive upper time bound of all records
+     */
+    @Nullable
+    public Instant getStop() {
+        return (Instant) getValueByKey("_stop");
+    }
+
+    /**
+     * @return the time of the record
+     */
+    @Nullable
+    public Instant getTime() {
+        return (Instant) getValueByKey("_time");
+    }
+
+    /**
+     * @return the value of the record
+     */
+    @Nullable
+    public Object getValue() {
+        return getValueByKey("_value");
+    }
+
+    /**
+     * @return the field name
+     */
+    @Nullable
+    public String getField() {
+        return (String) getValueByKey("_field");
+    }
+
+    /**
+     * @return the measurement name of the record
+     */
+    @Nullable
+    public String getMeasurement() {
+        return (String) getValueByKey("_measurement");
+    }
+
+    /**
+     * Get value by the label of column. The value is decoded by the first access.
+     *
+     * @param key the label of column
+     * @return the value of column or {@code null} if the record has not the column or the value is empty
+     */
+    @Nullable
+    public Object getValueByKey(@Nonnull final String key) {
+
+        Objects.requireNonNull(key, "Key is required");
+
+        Integer cell = columns.get(key);
+        if (cell == null) {
+            return null;
+        }
+
+        Object value = values[cell];
+        if (value == NOT_DECODED) {
+            value = decoder.apply(cell);
+            values[cell] = value;
+        }
+
+        return value;
+    }
+
+    /**
+     * Decode all values of the record.
+     *
+     * @return the values of record by the labels of columns
+     */
+    @Nonnull
+    public Map<String, Object> getValues() {
+
+        Map<String, Object> decoded = new LinkedHashMap<>();
+        for (String label : columns.keySet()) {
+            decoded.put(label, getValueByKey(label));
+        }
+
+        return Collections.unmodifiableMap(decoded);
+    }
+
+    /**
+     * Materialize the {@link FluxRecord} with all decoded values.
+     *
+     * @return the eager {@link FluxRecord}
+     */
+    @Nonnull
+    public FluxRecord toRecord() {
+
+        FluxRecord record = new FluxRecord(table);
+        record.getValues().putAll(getValues());
+
+        return record;
+    }
+
+    @Override
+    public String toString() {
+        return "FluxLazyRecord{"
+                + "table=" + table
+                + ", values=" + getValues()
+                + '}';
+    }
+}
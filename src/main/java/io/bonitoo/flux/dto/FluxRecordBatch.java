@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.dto;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The batch of records stored by columns. All records in the batch have the same table layout.
+ *
+ * @author Jakub Bednar (bednar@github) (22/08/2018 10:02)
+ * @since 1.0.0
+ */
+public final class FluxRecordBatch {
+
+    private final int size;
+    private final int[] tables;
+    private final List<FluxColumnVector> columns;
+
+    // the time column is resolved once per batch
+    private final FluxColumnVector time;
+
+    public FluxRecordBatch(final int size,
+                           @Nonnull final int[] tables,
+                           @Nonnull final List<FluxColumnVector> columns) {
+
+        Objects.requireNonNull(tables, "Tables are required");
+        Objects.requireNonNull(columns, "Columns are required");
+
+        this.size = size;
+        this.tables = tables;
+        this.columns = Collections.unmodifiableList(columns);
+        this.time = getColumn("_time");
+    }
+
+    /**
+     * @return the count of records in batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param row the index of row in batch
+     * @return the index of table that the record belongs
+     */
+    public int getTable(final int row) {
+        return tables[row];
+    }
+
+    /**
+     * @return the columns of batch without the annotation column
+     */
+    @Nonnull
+    public List<FluxColumnVector> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @param label the label of column
+     * @return the column with the {@code label} or {@code null} if the batch has not the column
+     */
+    @Nullable
+    public FluxColumnVector getColumn(@Nonnull final String label) {
+
+        Objects.requireNonNull(label, "Label is required");
+
+        for (FluxColumnVector column : columns) {
+            if (label.equals(column.getLabel())) {
+                return column;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the nanoseconds since epoch of the {@code _time} column or {@code null} if the batch has not
+     * the time column
+     */
+    @Nullable
+    public long[] getTimes() {
+
+        if (time == null) {
+            return null;
+        }
+
+        return time.getLongs();
+    }
+
+    /**
+     * @param row the index of row in batch
+     * @return the nanoseconds since epoch of the {@code _time} column
+     * @throws IllegalStateException if the batch has not the time column
+     */
+    public long getTimeNanos(final int row) {
+        return requireTime().getLong(row);
+    }
+
+    /**
+     * @param row the index of row in batch
+     * @return the {@link Instant} view of the {@code _time} column
+     * @throws IllegalStateException if the batch has not the time column
+     */
+    @Nullable
+    public Instant getTime(final int row) {
+        return requireTime().getInstant(row);
+    }
+
+    /**
+     * Materialize the record of batch.
+     *
+     * @param row the index of row in batch
+     * @return the {@link FluxRecord} with boxed values
+     */
+    @Nonnull
+    public FluxRecord toRecord(final int row) {
+
+        FluxRecord record = new FluxRecord(tables[row]);
+        for (FluxColumnVector column : columns) {
+            record.getValues().put(column.getLabel(), column.getValue(row));
+        }
+
+        return record;
+    }
+
+    @Nonnull
+    private FluxColumnVector requireTime() {
+
+        if (time == null) {
+            throw new IllegalStateException("The batch has not the _time column");
+        }
+
+        return time;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.dto;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The key of the Flux table - the index of table and the values of columns which are the part of group key
+ * (the columns marked by the {@code #group} annotation).
+ *
+ * @author Jakub Bednar (bednar@github) (27/08/2018 14:35)
+ * @since 1.0.0
+ */
+public final class FluxTableKey {
+
+    private final int table;
+    private final Map<String, Object> groupKey;
+
+    public FluxTableKey(final int table, @Nonnull final Map<String, Object> groupKey) {
+
+        Objects.requireNonNull(groupKey, "Group key is required");
+
+        this.table = table;
+        this.groupKey = Collections.unmodifiableMap(groupKey);
+    }
+
+    /**
+     * @return the index of table
+     */
+    public int getTable() {
+        return table;
+    }
+
+    /**
+     * @return the values of group key columns by the labels of columns
+     */
+    @Nonnull
+    public Map<String, Object> getGroupKey() {
+        return groupKey;
+    }
+
+    /**
+     * @param key the label of column
+     * @return the value of group key column or {@code null} if the column is not part of group key
+     */
+    @Nullable
+    public Object getValueByKey(@Nonnull final String key) {
+
+        Objects.requireNonNull(key, "Key is required");
+
+        return groupKey.get(key);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FluxTableKey)) {
+            return false;
+        }
+        FluxTableKey that = (FluxTableKey) o;
+        return table == that.table && Objects.equals(groupKey, that.groupKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(table, groupKey);
+    }
+
+    @Override
+    public String toString() {
+        return "FluxTableKey{"
+                + "table=" + table
+                + ", groupKey=" + groupKey
+                + '}';
+    }
+}
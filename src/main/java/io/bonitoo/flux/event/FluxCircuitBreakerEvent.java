@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.event;
+
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.core.event.AbstractInfluxEvent;
+import io.bonitoo.flux.option.FluxCircuitBreaker;
+import io.bonitoo.flux.option.FluxConnectionOptions;
+
+/**
+ * The event is published when the {@link FluxCircuitBreaker} changes its state.
+ *
+ * @author Jakub Bednar (bednar@github) (02/09/2018 10:20)
+ * @since 1.0.0
+ */
+public class FluxCircuitBreakerEvent extends AbstractInfluxEvent {
+
+    private static final Logger LOG = Logger.getLogger(FluxCircuitBreakerEvent.class.getName());
+
+    private final FluxConnectionOptions options;
+    private final FluxCircuitBreaker.State previousState;
+    private final FluxCircuitBreaker.State state;
+
+    public FluxCircuitBreakerEvent(@Nonnull final FluxConnectionOptions options,
+                                   @Nonnull final FluxCircuitBreaker.State previousState,
+                                   @Nonnull final FluxCircuitBreaker.State state) {
+
+        Objects.requireNonNull(options, "FluxConnectionOptions are required");
+        Objects.requireNonNull(previousState, "Previous state is required");
+        Objects.requireNonNull(state, "State is required");
+
+        this.options = options;
+        this.previousState = previousState;
+        this.state = state;
+    }
+
+    /**
+     * @return {@link FluxConnectionOptions} of the client which observed the change
+     */
+    @Nonnull
+    public FluxConnectionOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @return the state before the change
+     */
+    @Nonnull
+    public FluxCircuitBreaker.State getPreviousState() {
+        return previousState;
+    }
+
+    /**
+     * @return the new state of circuit breaker
+     */
+    @Nonnull
+    public FluxCircuitBreaker.State getState() {
+        return state;
+    }
+
+    @Override
+    public void logEvent() {
+        LOG.log(Level.WARNING, "The circuit breaker changed the state from {0} to {1}.",
+                new Object[]{previousState, state});
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.event;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.core.event.AbstractInfluxEvent;
+import io.bonitoo.flux.option.FluxConnectionOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+/**
+ * The event is published when the query was canceled because it was not completed
+ * within the {@link FluxReactiveOptions#getDeadline()}.
+ *
+ * @author Jakub Bednar (bednar@github) (04/09/2018 09:35)
+ * @since 1.0.0
+ */
+public class FluxDeadlineExceededEvent extends AbstractInfluxEvent {
+
+    private static final Logger LOG = Logger.getLogger(FluxDeadlineExceededEvent.class.getName());
+
+    private final FluxConnectionOptions options;
+    private final String fluxQuery;
+    private final Duration deadline;
+
+    public FluxDeadlineExceededEvent(@Nonnull final FluxConnectionOptions options,
+                                     @Nonnull final String fluxQuery,
+                                     @Nonnull final Duration deadline) {
+
+        Objects.requireNonNull(options, "FluxConnectionOptions are required");
+        Objects.requireNonNull(fluxQuery, "Flux query is required");
+        Objects.requireNonNull(deadline, "Deadline is required");
+
+        this.options = options;
+        this.fluxQuery = fluxQuery;
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return {@link FluxConnectionOptions} that was used in query
+     */
+    @Nonnull
+    public FluxConnectionOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @return Flux query sent to Flux server
+     */
+    @Nonnull
+    public String getFluxQuery() {
+        return fluxQuery;
+    }
+
+    /**
+     * @return the deadline which the query exceeded
+     */
+    @Nonnull
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    @Override
+    public void logEvent() {
+        LOG.log(Level.WARNING, "The query exceeded the deadline {0}: {1}", new Object[]{deadline, fluxQuery});
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.event;
+
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.core.event.AbstractInfluxEvent;
+import io.bonitoo.flux.option.FluxConnectionOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+/**
+ * The event is published when the records of the query were dropped because the subscriber
+ * did not keep up with the response.
+ *
+ * @author Jakub Bednar (bednar@github) (21/08/2018 10:41)
+ * @since 1.0.0
+ */
+public class FluxRecordsDroppedEvent extends AbstractInfluxEvent {
+
+    private static final Logger LOG = Logger.getLogger(FluxRecordsDroppedEvent.class.getName());
+
+    private final FluxConnectionOptions options;
+    private final String fluxQuery;
+    private final FluxReactiveOptions.OverflowStrategy overflowStrategy;
+    private final long droppedRecords;
+
+    public FluxRecordsDroppedEvent(@Nonnull final FluxConnectionOptions options,
+                                   @Nonnull final String fluxQuery,
+                                   @Nonnull final FluxReactiveOptions.OverflowStrategy overflowStrategy,
+                                   final long droppedRecords) {
+
+        Objects.requireNonNull(options, "FluxConnectionOptions are required");
+        Objects.requireNonNull(fluxQuery, "Flux query is required");
+        Objects.requireNonNull(overflowStrategy, "OverflowStrategy is required");
+
+        this.options = options;
+        this.fluxQuery = fluxQuery;
+        this.overflowStrategy = overflowStrategy;
+        this.droppedRecords = droppedRecords;
+    }
+
+    /**
+     * @return {@link FluxConnectionOptions} that was used in query
+     */
+    @Nonnull
+    public FluxConnectionOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @return Flux query sent to Flux server
+     */
+    @Nonnull
+    public String getFluxQuery() {
+        return fluxQuery;
+    }
+
+    /**
+     * @return the strategy which dropped the records
+     */
+    @Nonnull
+    public FluxReactiveOptions.OverflowStrategy getOverflowStrategy() {
+        return overflowStrategy;
+    }
+
+    /**
+     * @return the count of dropped records, or dropped batches for the
+     * {@link io.bonitoo.flux.FluxClientReactive#fluxBatches(String)} queries
+     */
+    public long getDroppedRecords() {
+        return droppedRecords;
+    }
+
+    @Override
+    public void logEvent() {
+        LOG.log(Level.WARNING, "Dropped {0} records by {1} strategy for query: {2}",
+                new Object[]{droppedRecords, overflowStrategy, fluxQuery});
+    }
+}
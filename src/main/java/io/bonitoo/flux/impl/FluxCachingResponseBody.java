@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.io.IOException;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.bonitoo.flux.option.FluxResultCache;
+
+import io.reactivex.Flowable;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * The {@link ResponseBody} that captures the read bytes and stores them to the {@link FluxResultCache}
+ * when the response is fully read.
+ *
+ * @author Jakub Bednar (bednar@github) (29/08/2018 14:20)
+ * @since 1.0.0
+ */
+final class FluxCachingResponseBody extends ResponseBody {
+
+    private static final MediaType CSV = MediaType.parse("text/csv; charset=utf-8");
+
+    private final ResponseBody delegate;
+    private final FluxResultCache cache;
+    private final String key;
+
+    private BufferedSource source;
+
+    private FluxCachingResponseBody(@Nonnull final ResponseBody delegate,
+                                    @Nonnull final FluxResultCache cache,
+                                    @Nonnull final String key) {
+
+        this.delegate = delegate;
+        this.cache = cache;
+        this.key = key;
+    }
+
+    /**
+     * @param cache   the cache of results
+     * @param key     the key of query
+     * @param request the request of query
+     * @return the cached response or the response that is cached when it is fully read
+     */
+    @Nonnull
+    static Flowable<ResponseBody> cached(@Nonnull final FluxResultCache cache,
+                                         @Nonnull final String key,
+                                         @Nonnull final Flowable<ResponseBody> request) {
+
+        Objects.requireNonNull(cache, "FluxResultCache is required");
+        Objects.requireNonNull(key, "Key is required");
+        Objects.requireNonNull(request, "Request is required");
+
+        return Flowable.defer(() -> {
+
+            byte[] response = cache.get(key);
+            if (response != null) {
+                return Flowable.just(ResponseBody.create(CSV, response));
+            }
+
+            return request.map(body -> new FluxCachingResponseBody(body, cache, key));
+        });
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() {
+        return delegate.contentLength();
+    }
+
+    @Nonnull
+    @Override
+    public BufferedSource source() {
+
+        if (source == null) {
+            source = Okio.buffer(new CapturingSource(delegate.source()));
+        }
+
+        return source;
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private final class CapturingSource extends ForwardingSource {
+
+        private final long maxEntrySize = cache.getMaxEntrySize();
+        private Buffer captured = new Buffer();
+
+        private CapturingSource(@Nonnull final Source delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public long read(@Nonnull final Buffer sink, final long byteCount) throws IOException {
+
+            long read = super.read(sink, byteCount);
+            if (captured == null) {
+                return read;
+            }
+
+            if (read == -1) {
+                // fully read response
+                cache.put(key, captured.readByteArray());
+                captured = null;
+            } else if (captured.size() + read > maxEntrySize) {
+                // too large response
+                captured.clear();
+                captured = null;
+            } else {
+                sink.copyTo(captured, sink.size() - read, read);
+            }
+
+            return read;
+        }
+    }
+}
@@ -25,34 +25,72 @@ package io.bonitoo.flux.impl;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import io.bonitoo.core.InfluxException;
 import io.bonitoo.core.Preconditions;
 import io.bonitoo.core.event.AbstractInfluxEvent;
 import io.bonitoo.flux.Flux;
 import io.bonitoo.flux.FluxClientReactive;
+import io.bonitoo.flux.dto.FluxLazyRecord;
 import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.dto.FluxRecordBatch;
+import io.bonitoo.flux.dto.FluxTableKey;
+import io.bonitoo.flux.event.FluxCircuitBreakerEvent;
+import io.bonitoo.flux.event.FluxDeadlineExceededEvent;
 import io.bonitoo.flux.event.FluxErrorEvent;
+import io.bonitoo.flux.event.FluxRecordsDroppedEvent;
 import io.bonitoo.flux.event.FluxSuccessEvent;
+import io.bonitoo.flux.option.FluxCircuitBreaker;
+import io.bonitoo.flux.option.FluxCircuitOpenException;
+import io.bonitoo.flux.option.FluxConcurrencyLimiter;
 import io.bonitoo.flux.option.FluxConnectionOptions;
+import io.bonitoo.flux.option.FluxDeadlineExceededException;
 import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+import io.bonitoo.flux.option.FluxRequestHedging;
+import io.bonitoo.flux.option.FluxResultCache;
+import io.bonitoo.flux.option.FluxStringPool;
 
+import io.reactivex.BackpressureOverflowStrategy;
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
 import io.reactivex.Maybe;
 import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.flowables.GroupedFlowable;
+import io.reactivex.functions.Consumer;
 import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.PublishSubject;
+import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 import okhttp3.logging.HttpLoggingInterceptor;
+import okio.Buffer;
 import okio.BufferedSource;
 import org.reactivestreams.Publisher;
+import retrofit2.HttpException;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
@@ -64,13 +102,86 @@ public class FluxClientReactiveImpl extends AbstractFluxClient<FluxServiceReacti
 
     private static final Logger LOG = Logger.getLogger(FluxClientReactiveImpl.class.getName());
 
+    private static final int HTTP_SERVER_ERROR = 500;
+
     private final PublishSubject<Object> eventPublisher;
+    private final FluxReactiveOptions reactiveOptions;
+
+    private final ExecutorService ioExecutor;
+    private final Scheduler ioScheduler;
+
+    private final FluxQueryCoalescer coalescer = new FluxQueryCoalescer();
+
+    /**
+     * The service which executes the queries, the balancer of endpoints for the pooled client.
+     */
+    private final FluxServiceReactive queryService;
+    private final FluxEndpointBalancer balancer;
+    private final List<FluxClientReactiveImpl> endpointClients = new ArrayList<>();
 
     public FluxClientReactiveImpl(@Nonnull final FluxConnectionOptions fluxConnectionOptions) {
 
+        this(fluxConnectionOptions, FluxReactiveOptions.DEFAULTS);
+    }
+
+    public FluxClientReactiveImpl(@Nonnull final FluxConnectionOptions fluxConnectionOptions,
+                                  @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        this(fluxConnectionOptions, reactiveOptions, new ArrayList<>(), null);
+    }
+
+    public FluxClientReactiveImpl(@Nonnull final List<FluxConnectionOptions> endpoints,
+                                  @Nonnull final FluxReactiveOptions reactiveOptions,
+                                  @Nonnull final Duration healthCheckInterval) {
+
+        this(endpoints.get(0), reactiveOptions, endpoints.subList(1, endpoints.size()), healthCheckInterval);
+    }
+
+    private FluxClientReactiveImpl(@Nonnull final FluxConnectionOptions fluxConnectionOptions,
+                                   @Nonnull final FluxReactiveOptions reactiveOptions,
+                                   @Nonnull final List<FluxConnectionOptions> otherEndpoints,
+                                   @Nullable final Duration healthCheckInterval) {
+
         super(fluxConnectionOptions, FluxServiceReactive.class);
 
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+
         this.eventPublisher = PublishSubject.create();
+        this.reactiveOptions = reactiveOptions;
+
+        ExecutorService executor = null;
+        if (reactiveOptions.getIoScheduler() == null) {
+            if (reactiveOptions.isIoVirtualThreads()) {
+                executor = FluxVirtualThreads.newExecutor();
+            }
+            if (executor == null && reactiveOptions.getIoThreads() > 0) {
+                executor = Executors.newFixedThreadPool(reactiveOptions.getIoThreads(), new IoThreadFactory());
+            }
+        }
+
+        this.ioExecutor = executor;
+        this.ioScheduler = executor != null ? Schedulers.from(executor) : reactiveOptions.getIoScheduler();
+
+        if (healthCheckInterval == null) {
+            this.balancer = null;
+            this.queryService = fluxService;
+            return;
+        }
+
+        List<String> urls = new ArrayList<>();
+        List<FluxServiceReactive> services = new ArrayList<>();
+        urls.add(fluxConnectionOptions.getUrl());
+        services.add(fluxService);
+
+        for (FluxConnectionOptions endpoint : otherEndpoints) {
+            FluxClientReactiveImpl endpointClient = new FluxClientReactiveImpl(endpoint, FluxReactiveOptions.DEFAULTS);
+            endpointClients.add(endpointClient);
+            urls.add(endpoint.getUrl());
+            services.add(endpointClient.fluxService);
+        }
+
+        this.balancer = new FluxEndpointBalancer(urls, services, healthCheckInterval);
+        this.queryService = balancer;
     }
 
     @Override
@@ -97,6 +208,77 @@ public class FluxClientReactiveImpl extends AbstractFluxClient<FluxServiceReacti
         return flux(new StringFlux(query), options);
     }
 
+    @Nonnull
+    @Override
+    public Flowable<FluxRecord> flux(@Nonnull final String query,
+                                     @Nonnull final FluxOptions options,
+                                     @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Preconditions.checkNonEmptyString(query, "Flux query");
+        Objects.requireNonNull(options, "FluxOptions are required");
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+
+        return flux(new StringFlux(query), new HashMap<>(), options, reactiveOptions);
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<FluxRecord> fluxTail(@Nonnull final Flux query, @Nonnull final Duration interval) {
+
+        Objects.requireNonNull(query, "Flux query is required");
+        Objects.requireNonNull(interval, "Interval is required");
+
+        return fluxTail(query, interval, new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions);
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<FluxRecord> fluxTail(@Nonnull final Flux query,
+                                         @Nonnull final Duration interval,
+                                         @Nonnull final Map<String, Object> properties,
+                                         @Nonnull final FluxOptions options,
+                                         @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Objects.requireNonNull(query, "Flux query is required");
+        Objects.requireNonNull(interval, "Interval is required");
+        Objects.requireNonNull(properties, "Parameters are required");
+        Objects.requireNonNull(options, "FluxOptions are required");
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Expecting a positive duration for interval");
+        }
+
+        // the options are applied by the polls
+        String rendered = toFluxString(query, properties, FluxOptions.DEFAULTS);
+        if (FluxRangeBuckets.narrowStart(rendered, Instant.EPOCH) == null) {
+            throw new IllegalArgumentException("Expecting the query with one range(): " + rendered);
+        }
+
+        Scheduler scheduler = ioScheduler(reactiveOptions);
+        Scheduler io = scheduler != null ? scheduler : Schedulers.io();
+
+        return Flowable.defer(() -> {
+
+            FluxTailState state = new FluxTailState(rendered, reactiveOptions.getTailGrace().toNanos());
+
+            Function<Long, Publisher<FluxRecord>> poll = tick -> {
+
+                Flux next = new StringFlux(state.nextQuery());
+
+                return flux(next, new HashMap<>(), options, reactiveOptions)
+                        .subscribeOn(io)
+                        .filter(state::isNew);
+            };
+
+            return Flowable
+                    .interval(0, interval.toNanos(), TimeUnit.NANOSECONDS)
+                    // skip the polls if the subscriber is behind
+                    .onBackpressureDrop()
+                    .concatMap(poll, 1);
+        });
+    }
+
     @Nonnull
     @Override
     public Maybe<Response<ResponseBody>> fluxRaw(@Nonnull final String query) {
@@ -178,32 +360,301 @@ public class FluxClientReactiveImpl extends AbstractFluxClient<FluxServiceReacti
         Objects.requireNonNull(properties, "Parameters are required");
         Objects.requireNonNull(options, "FluxOptions are required");
 
-        return Flowable.fromPublisher(queryStream).concatMap((Function<Flux, Publisher<FluxRecord>>) flux -> {
+        return flux(queryStream, properties, options, reactiveOptions);
+    }
 
-            //
-            // Parameters
-            //
-            String orgID = this.fluxConnectionOptions.getOrgID();
-            String query = toFluxString(flux, properties, options);
+    @Nonnull
+    @Override
+    public Flowable<FluxRecord> flux(@Nonnull final Flux query,
+                                     @Nonnull final Map<String, Object> properties,
+                                     @Nonnull final FluxOptions options,
+                                     @Nonnull final FluxReactiveOptions reactiveOptions) {
 
-            return fluxService
-                    .query(orgID, createBody(query, options))
-                    .flatMap(
-                            // success response
-                            body -> chunkReader(query, this.fluxConnectionOptions, body),
-                            // error response
-                            throwable -> (observer -> {
-
-                                InfluxException fluxException = InfluxException.fromCause(throwable);
-
-                                // publish event
-                                publishEvent(new FluxErrorEvent(fluxConnectionOptions, query, fluxException));
-                                observer.onError(fluxException);
-                            }),
-                            // end of response
-                            Observable::empty)
-                    .toFlowable(BackpressureStrategy.BUFFER);
-        });
+        Objects.requireNonNull(query, "Flux query is required");
+        Objects.requireNonNull(properties, "Parameters are required");
+        Objects.requireNonNull(options, "FluxOptions are required");
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+
+        return flux(Flowable.just(query), properties, options, reactiveOptions);
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<FluxRecord> flux(@Nonnull final Publisher<Flux> queryStream,
+                                     @Nonnull final Map<String, Object> properties,
+                                     @Nonnull final FluxOptions options,
+                                     @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Objects.requireNonNull(queryStream, "Flux stream is required");
+        Objects.requireNonNull(properties, "Parameters are required");
+        Objects.requireNonNull(options, "FluxOptions are required");
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+
+        FluxStringPool stringPool = reactiveOptions.getStringPool();
+
+        if (reactiveOptions.getRangeShards() > 1) {
+            return mapQueries(queryStream, reactiveOptions, flux -> {
+
+                String query = toFluxString(flux, properties, options);
+
+                return deadline(query, reactiveOptions, deadline -> {
+
+                    Flowable<FluxRecord> results = shard(query, options, reactiveOptions, deadline);
+
+                    return onBackpressure(results, query, reactiveOptions);
+                });
+            });
+        }
+
+        if (reactiveOptions.getResumeAttempts() > 0) {
+            return mapQueries(queryStream, reactiveOptions, flux -> {
+
+                String query = toFluxString(flux, properties, options);
+
+                return deadline(query, reactiveOptions, deadline -> {
+
+                    Flowable<FluxRecord> results = resume(query, options, reactiveOptions, deadline);
+
+                    return onBackpressure(results, query, reactiveOptions);
+                });
+            });
+        }
+
+        if (reactiveOptions.getRangeBucket() != null) {
+            return mapQueries(queryStream, reactiveOptions, flux -> {
+
+                String query = toFluxString(flux, properties, options);
+
+                return deadline(query, reactiveOptions, deadline -> {
+
+                    Flowable<FluxRecord> results = buckets(query, options, reactiveOptions, deadline);
+
+                    return onBackpressure(results, query, reactiveOptions);
+                });
+            });
+        }
+
+        return query(queryStream, properties, options, reactiveOptions,
+                FluxRecord.class, (source, offset) -> new FluxRecordReader(source, offset, stringPool));
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<FluxRecordBatch> fluxBatches(@Nonnull final String query) {
+
+        Preconditions.checkNonEmptyString(query, "Flux query");
+
+        return fluxBatches(new StringFlux(query));
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<FluxRecordBatch> fluxBatches(@Nonnull final Flux query) {
+
+        Objects.requireNonNull(query, "Flux query is required");
+
+        return fluxBatches(query, new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions);
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<FluxRecordBatch> fluxBatches(@Nonnull final Flux query,
+                                                 @Nonnull final Map<String, Object> properties,
+                                                 @Nonnull final FluxOptions options,
+                                                 @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Objects.requireNonNull(query, "Flux query is required");
+        Objects.requireNonNull(properties, "Parameters are required");
+        Objects.requireNonNull(options, "FluxOptions are required");
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+
+        return fluxBatches(Flowable.just(query), properties, options, reactiveOptions);
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<FluxRecordBatch> fluxBatches(@Nonnull final Publisher<Flux> queryStream,
+                                                 @Nonnull final Map<String, Object> properties,
+                                                 @Nonnull final FluxOptions options,
+                                                 @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Objects.requireNonNull(queryStream, "Flux stream is required");
+        Objects.requireNonNull(properties, "Parameters are required");
+        Objects.requireNonNull(options, "FluxOptions are required");
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+
+        int batchSize = reactiveOptions.getBatchSize();
+        FluxStringPool stringPool = reactiveOptions.getStringPool();
+
+        return query(queryStream, properties, options, reactiveOptions,
+                Arrays.asList(FluxRecordBatch.class, batchSize),
+                (source, offset) -> new FluxRecordBatchReader(new FluxRecordReader(source, offset, stringPool),
+                        batchSize));
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<FluxLazyRecord> fluxLazy(@Nonnull final String query) {
+
+        Preconditions.checkNonEmptyString(query, "Flux query");
+
+        return fluxLazy(new StringFlux(query));
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<FluxLazyRecord> fluxLazy(@Nonnull final Flux query) {
+
+        Objects.requireNonNull(query, "Flux query is required");
+
+        return fluxLazy(query, new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions);
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<FluxLazyRecord> fluxLazy(@Nonnull final Flux query,
+                                             @Nonnull final Map<String, Object> properties,
+                                             @Nonnull final FluxOptions options,
+                                             @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Objects.requireNonNull(query, "Flux query is required");
+        Objects.requireNonNull(properties, "Parameters are required");
+        Objects.requireNonNull(options, "FluxOptions are required");
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+
+        return fluxLazy(Flowable.just(query), properties, options, reactiveOptions);
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<FluxLazyRecord> fluxLazy(@Nonnull final Publisher<Flux> queryStream,
+                                             @Nonnull final Map<String, Object> properties,
+                                             @Nonnull final FluxOptions options,
+                                             @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Objects.requireNonNull(queryStream, "Flux stream is required");
+        Objects.requireNonNull(properties, "Parameters are required");
+        Objects.requireNonNull(options, "FluxOptions are required");
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+
+        FluxStringPool stringPool = reactiveOptions.getStringPool();
+
+        return query(queryStream, properties, options, reactiveOptions,
+                FluxLazyRecord.class,
+                (source, offset) -> new FluxLazyRecordReader(new FluxRecordReader(source, offset, stringPool)));
+    }
+
+    @Nonnull
+    @Override
+    public <M> Flowable<M> flux(@Nonnull final String query, @Nonnull final Class<M> measurementType) {
+
+        Preconditions.checkNonEmptyString(query, "Flux query");
+
+        return flux(new StringFlux(query), measurementType);
+    }
+
+    @Nonnull
+    @Override
+    public <M> Flowable<M> flux(@Nonnull final Flux query, @Nonnull final Class<M> measurementType) {
+
+        Objects.requireNonNull(query, "Flux query is required");
+
+        return flux(query, measurementType, new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions);
+    }
+
+    @Nonnull
+    @Override
+    public <M> Flowable<M> flux(@Nonnull final Flux query,
+                                @Nonnull final Class<M> measurementType,
+                                @Nonnull final Map<String, Object> properties,
+                                @Nonnull final FluxOptions options,
+                                @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Objects.requireNonNull(query, "Flux query is required");
+
+        return flux(Flowable.just(query), measurementType, properties, options, reactiveOptions);
+    }
+
+    @Nonnull
+    @Override
+    public <M> Flowable<M> flux(@Nonnull final Publisher<Flux> queryStream,
+                                @Nonnull final Class<M> measurementType,
+                                @Nonnull final Map<String, Object> properties,
+                                @Nonnull final FluxOptions options,
+                                @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Objects.requireNonNull(queryStream, "Flux stream is required");
+        Objects.requireNonNull(measurementType, "Measurement type is required");
+        Objects.requireNonNull(properties, "Parameters are required");
+        Objects.requireNonNull(options, "FluxOptions are required");
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+
+        FluxPojoMapper<M> mapper = FluxPojoMapper.of(measurementType);
+        FluxStringPool stringPool = reactiveOptions.getStringPool();
+
+        return query(queryStream, properties, options, reactiveOptions,
+                measurementType,
+                (source, offset) -> new FluxPojoReader<>(new FluxRecordReader(source, offset, stringPool), mapper));
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<GroupedFlowable<FluxTableKey, FluxRecord>> fluxTables(@Nonnull final String query) {
+
+        Preconditions.checkNonEmptyString(query, "Flux query");
+
+        return fluxTables(new StringFlux(query));
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<GroupedFlowable<FluxTableKey, FluxRecord>> fluxTables(@Nonnull final Flux query) {
+
+        Objects.requireNonNull(query, "Flux query is required");
+
+        return fluxTables(query, new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions);
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<GroupedFlowable<FluxTableKey, FluxRecord>> fluxTables(
+            @Nonnull final Flux query,
+            @Nonnull final Map<String, Object> properties,
+            @Nonnull final FluxOptions options,
+            @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Objects.requireNonNull(query, "Flux query is required");
+
+        return fluxTables(Flowable.just(query), properties, options, reactiveOptions);
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<GroupedFlowable<FluxTableKey, FluxRecord>> fluxTables(
+            @Nonnull final Publisher<Flux> queryStream,
+            @Nonnull final Map<String, Object> properties,
+            @Nonnull final FluxOptions options,
+            @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Objects.requireNonNull(queryStream, "Flux stream is required");
+        Objects.requireNonNull(properties, "Parameters are required");
+        Objects.requireNonNull(options, "FluxOptions are required");
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+
+        // the dropped end of table marker would never complete the table
+        FluxReactiveOptions.OverflowStrategy strategy = reactiveOptions.getOverflowStrategy();
+        if (strategy == FluxReactiveOptions.OverflowStrategy.DROP_OLDEST
+                || strategy == FluxReactiveOptions.OverflowStrategy.DROP_LATEST) {
+            throw new IllegalArgumentException("The " + strategy + " overflow strategy is not supported for tables");
+        }
+
+        FluxStringPool stringPool = reactiveOptions.getStringPool();
+
+        Flowable<FluxTableRowReader.Row> rows = query(queryStream, properties, options, reactiveOptions,
+                FluxTableKey.class,
+                (source, offset) -> new FluxTableRowReader(new FluxRecordReader(source, offset, stringPool)));
+
+        return new FluxTableFlowable(rows, reactiveOptions.getBufferSize());
     }
 
     @Nonnull
@@ -269,20 +720,50 @@ public class FluxClientReactiveImpl extends AbstractFluxClient<FluxServiceReacti
         Objects.requireNonNull(properties, "Parameters are required");
         Objects.requireNonNull(options, "FluxOptions are required");
 
-        return Flowable
-                .fromPublisher(queryStream)
-                .concatMap((Function<Flux, Publisher<Response<ResponseBody>>>) flux -> {
-
-                    //
-                    // Parameters
-                    //
-                    String orgID = this.fluxConnectionOptions.getOrgID();
-                    String query = toFluxString(flux, properties, options);
-
-                    return fluxService
-                            .queryRaw(orgID, createBody(query, options))
-                            .toFlowable(BackpressureStrategy.BUFFER);
-                });
+        return fluxRaw(queryStream, properties, options, reactiveOptions);
+    }
+
+    @Nonnull
+    @Override
+    public Flowable<Response<ResponseBody>> fluxRaw(@Nonnull final Publisher<Flux> queryStream,
+                                                    @Nonnull final Map<String, Object> properties,
+                                                    @Nonnull final FluxOptions options,
+                                                    @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Objects.requireNonNull(queryStream, "Flux stream is required");
+        Objects.requireNonNull(properties, "Parameters are required");
+        Objects.requireNonNull(options, "FluxOptions are required");
+        Objects.requireNonNull(reactiveOptions, "FluxReactiveOptions are required");
+
+        return mapQueries(queryStream, reactiveOptions, flux -> {
+
+            //
+            // Parameters
+            //
+            String orgID = this.fluxConnectionOptions.getOrgID();
+            String query = toFluxString(flux, properties, options);
+
+            Flowable<Response<ResponseBody>> request = protect(reactiveOptions.getCircuitBreaker(), queryService
+                    .queryRaw(orgID, createBody(query, options))
+                    .toFlowable(BackpressureStrategy.BUFFER), response -> response.code() >= HTTP_SERVER_ERROR);
+
+            // the raw response is released to the subscriber => the permit is held until the response arrives
+            return deadline(query, reactiveOptions, deadline -> limit(reactiveOptions.getConcurrencyLimiter(), request,
+                    response -> !response.isSuccessful(), limited -> {
+
+                        if (deadline == null) {
+                            return limited;
+                        }
+
+                        // the reading of body after the deadline is interrupted by closing the socket
+                        return limited.doOnNext(response -> {
+                            ResponseBody body = response.body();
+                            if (body != null) {
+                                body.source().timeout().deadlineNanoTime(deadline.getDeadlineAt());
+                            }
+                        });
+                    }));
+        });
     }
 
     @Nonnull
@@ -298,6 +779,7 @@ public class FluxClientReactiveImpl extends AbstractFluxClient<FluxServiceReacti
     @Override
     public FluxClientReactive enableGzip() {
         this.gzipRequestInterceptor.enable();
+        this.endpointClients.forEach(FluxClientReactiveImpl::enableGzip);
         return this;
     }
 
@@ -305,6 +787,7 @@ public class FluxClientReactiveImpl extends AbstractFluxClient<FluxServiceReacti
     @Override
     public FluxClientReactive disableGzip() {
         this.gzipRequestInterceptor.disable();
+        this.endpointClients.forEach(FluxClientReactiveImpl::disableGzip);
         return this;
     }
 
@@ -317,7 +800,7 @@ public class FluxClientReactiveImpl extends AbstractFluxClient<FluxServiceReacti
     @Nonnull
     public Maybe<Boolean> ping() {
 
-        return fluxService
+        return queryService
                 .ping()
                 .map(Response::isSuccessful);
     }
@@ -335,6 +818,7 @@ public class FluxClientReactiveImpl extends AbstractFluxClient<FluxServiceReacti
         Objects.requireNonNull(logLevel, "Log level is required");
 
         this.loggingInterceptor.setLevel(logLevel);
+        this.endpointClients.forEach(endpointClient -> endpointClient.setLogLevel(logLevel));
 
         return this;
     }
@@ -347,6 +831,15 @@ public class FluxClientReactiveImpl extends AbstractFluxClient<FluxServiceReacti
 
         eventPublisher.onComplete();
 
+        if (ioExecutor != null) {
+            ioExecutor.shutdownNow();
+        }
+
+        if (balancer != null) {
+            balancer.dispose();
+        }
+        endpointClients.forEach(FluxClientReactiveImpl::close);
+
         return this;
     }
 
@@ -356,49 +849,629 @@ public class FluxClientReactiveImpl extends AbstractFluxClient<FluxServiceReacti
     }
 
     @Nonnull
-    private Observable<FluxRecord> chunkReader(@Nonnull final String query,
-                                               @Nonnull final FluxConnectionOptions options,
-                                               @Nonnull final ResponseBody body) {
+    private <T> Flowable<T> query(@Nonnull final Publisher<Flux> queryStream,
+                                  @Nonnull final Map<String, Object> properties,
+                                  @Nonnull final FluxOptions options,
+                                  @Nonnull final FluxReactiveOptions reactiveOptions,
+                                  @Nonnull final Object resultType,
+                                  @Nonnull final FluxResponseReader.Factory<T> reader) {
+
+        return mapQueries(queryStream, reactiveOptions, flux -> {
+
+            String query = toFluxString(flux, properties, options);
+
+            return deadline(query, reactiveOptions, deadline -> {
+
+                Flowable<T> results = query(query, options, reactiveOptions, deadline, true, resultType, reader);
+
+                return onBackpressure(results, query, reactiveOptions);
+            });
+        });
+    }
+
+    /**
+     * Split the range of query into the time buckets which are fetched concurrently. The closed buckets are cached,
+     * the open tail is requested.
+     */
+    @Nonnull
+    private Flowable<FluxRecord> buckets(@Nonnull final String query,
+                                         @Nonnull final FluxOptions options,
+                                         @Nonnull final FluxReactiveOptions reactiveOptions,
+                                         @Nullable final FluxQueryDeadline deadline) {
+
+        FluxStringPool stringPool = reactiveOptions.getStringPool();
+
+        Duration rangeBucket = Objects.requireNonNull(reactiveOptions.getRangeBucket(), "RangeBucket is required");
+        FluxRangeBuckets.Buckets buckets = FluxRangeBuckets.split(query, rangeBucket.toNanos(), Instant.now());
+
+        if (buckets == null) {
+            return query(query, options, reactiveOptions, deadline, true,
+                    FluxRecord.class, (source, offset) -> new FluxRecordReader(source, offset, stringPool));
+        }
+
+        Scheduler scheduler = ioScheduler(reactiveOptions);
+        Scheduler io = scheduler != null ? scheduler : Schedulers.io();
+
+        Function<FluxRangeBuckets.Bucket, Publisher<FluxTableRowReader.Row>> fetch = bucket -> query(
+                bucket.getQuery(), options, reactiveOptions, deadline, bucket.isClosed(), FluxTableKey.class,
+                (source, offset) -> new FluxTableRowReader(new FluxRecordReader(source, offset, stringPool)))
+                .subscribeOn(io);
+
+        FluxShardRecords records = new FluxShardRecords(buckets.getStart(), buckets.getStop());
+
+        // the cold cache is filled by the concurrent requests of buckets
+        return Flowable.fromIterable(buckets.getBuckets())
+                .concatMapEager(fetch, reactiveOptions.getRangeBucketConcurrency(), reactiveOptions.getBufferSize())
+                .filter(row -> !row.isEndOfTable())
+                .map(records::toRecord);
+    }
+
+    /**
+     * Split the range of query into the shards which are fetched concurrently.
+     */
+    @Nonnull
+    private Flowable<FluxRecord> shard(@Nonnull final String query,
+                                       @Nonnull final FluxOptions options,
+                                       @Nonnull final FluxReactiveOptions reactiveOptions,
+                                       @Nullable final FluxQueryDeadline deadline) {
+
+        FluxStringPool stringPool = reactiveOptions.getStringPool();
+
+        Duration minWidth = reactiveOptions.getRangeShardMinWidth();
+        FluxRangeBuckets.Shards shards = FluxRangeBuckets.shard(query,
+                reactiveOptions.getRangeShards(), minWidth != null ? minWidth.toNanos() : 0, Instant.now());
+
+        if (shards == null) {
+            return query(query, options, reactiveOptions, deadline, true,
+                    FluxRecord.class, (source, offset) -> new FluxRecordReader(source, offset, stringPool));
+        }
+
+        Scheduler scheduler = ioScheduler(reactiveOptions);
+        Scheduler io = scheduler != null ? scheduler : Schedulers.io();
+
+        Function<String, Publisher<FluxTableRowReader.Row>> fetch = shard -> query(shard, options, reactiveOptions,
+                deadline, true, FluxTableKey.class,
+                (source, offset) -> new FluxTableRowReader(new FluxRecordReader(source, offset, stringPool)))
+                .subscribeOn(io);
+
+        FluxShardRecords records = new FluxShardRecords(shards.getStart(), shards.getStop());
+
+        // the later shards are read ahead up to the buffer size
+        return Flowable.fromIterable(shards.getQueries())
+                .concatMapEager(fetch, shards.getQueries().size(), reactiveOptions.getBufferSize())
+                .filter(row -> !row.isEndOfTable())
+                .map(records::toRecord);
+    }
+
+    /**
+     * Resume the broken response of query from the last emitted {@code _time}.
+     */
+    @Nonnull
+    private Flowable<FluxRecord> resume(@Nonnull final String query,
+                                        @Nonnull final FluxOptions options,
+                                        @Nonnull final FluxReactiveOptions reactiveOptions,
+                                        @Nullable final FluxQueryDeadline deadline) {
+
+        FluxStringPool stringPool = reactiveOptions.getStringPool();
+        FluxResumeState state = new FluxResumeState(query);
+
+        return Flowable
+                .defer(() -> query(state.nextQuery(), options, reactiveOptions, deadline, true,
+                        FluxTableKey.class,
+                        (source, offset) -> new FluxTableRowReader(new FluxRecordReader(source, offset, stringPool))))
+                .retry(reactiveOptions.getResumeAttempts(), FluxClientReactiveImpl::isIOError)
+                .filter(state::accept)
+                .map(state::toRecord);
+    }
+
+    @Nonnull
+    private <T> Flowable<T> query(@Nonnull final String query,
+                                  @Nonnull final FluxOptions options,
+                                  @Nonnull final FluxReactiveOptions reactiveOptions,
+                                  @Nullable final FluxQueryDeadline deadline,
+                                  final boolean cacheable,
+                                  @Nonnull final Object resultType,
+                                  @Nonnull final FluxResponseReader.Factory<T> reader) {
+
+        //
+        // Parameters
+        //
+        String orgID = this.fluxConnectionOptions.getOrgID();
+        RequestBody body = createBody(query, options);
+
+        Flowable<ResponseBody> request = protect(reactiveOptions.getCircuitBreaker(), queryService
+                .query(orgID, body)
+                .toFlowable(BackpressureStrategy.BUFFER), responseBody -> false);
+
+        request = hedge(reactiveOptions.getRequestHedging(), request, ResponseBody::close, reactiveOptions);
+
+        FluxConcurrencyLimiter limiter = reactiveOptions.getConcurrencyLimiter();
+        Flowable<T> results = limit(limiter, request, responseBody -> false, limited -> {
+
+            Flowable<ResponseBody> response = limited;
+
+            FluxResultCache resultCache = reactiveOptions.getResultCache();
+            if (resultCache != null && cacheable) {
+                response = FluxCachingResponseBody.cached(resultCache, orgID + "\n" + toString(body), response);
+            }
+
+            return response
+                    // error response
+                    .onErrorResumeNext((Function<Throwable, Publisher<ResponseBody>>) throwable -> {
+
+                        InfluxException fluxException = InfluxException.fromCause(throwable);
+
+                        // publish event
+                        publishEvent(new FluxErrorEvent(fluxConnectionOptions, query, fluxException));
+
+                        return Flowable.error(fluxException);
+                    })
+                    // success response
+                    .concatMap(responseBody -> {
+
+                        if (deadline == null) {
+                            return read(query, responseBody, reactiveOptions, null, reader);
+                        }
+
+                        // the blocked read of expired query is interrupted by closing the socket
+                        responseBody.source().timeout().deadlineNanoTime(deadline.getDeadlineAt());
+
+                        // the expired query is terminated by the deadline of results, not by the closed socket
+                        return read(query, responseBody, reactiveOptions, deadline, reader)
+                                .onErrorResumeNext((Function<Throwable, Publisher<T>>) throwable ->
+                                        deadline.isReached() ? Flowable.never() : Flowable.error(throwable));
+                    });
+        });
+
+        // the request of query with deadline is interrupted at its own deadline => it is not shared
+        if (reactiveOptions.isCoalesce() && deadline == null) {
+
+            // the shared request is read by its own I/O thread => it is not interrupted by the subscribers
+            Scheduler scheduler = ioScheduler(reactiveOptions);
+            if (scheduler != null) {
+                results = results.subscribeOn(scheduler);
+            }
+
+            List<Object> key = Arrays.asList(orgID, toString(body), resultType);
+            results = coalescer.coalesce(key, results, reactiveOptions.getBufferSize());
+        }
+
+        return results;
+    }
+
+    /**
+     * Send the request only if the circuit breaker permits it and record the outcome of request. The failed
+     * connection and the server error are the failures, the rejected query is the success of server.
+     *
+     * @param circuitBreaker the circuit breaker, {@code null} for always sent request
+     * @param request        the request to the server
+     * @param failure        the predicate of the failed response
+     */
+    @Nonnull
+    private <R> Flowable<R> protect(@Nullable final FluxCircuitBreaker circuitBreaker,
+                                    @Nonnull final Flowable<R> request,
+                                    @Nonnull final Predicate<R> failure) {
+
+        if (circuitBreaker == null) {
+            return request;
+        }
+
+        return Flowable.defer(() -> {
+
+            FluxCircuitBreaker.Call call = circuitBreaker.acquire((previousState, state) ->
+                    publishEvent(new FluxCircuitBreakerEvent(fluxConnectionOptions, previousState, state)));
+
+            return request
+                    .doOnNext(response -> {
+                        if (failure.test(response)) {
+                            call.onFailure();
+                        } else {
+                            call.onSuccess();
+                        }
+                    })
+                    .doOnError(throwable -> {
+                        boolean serverError = throwable instanceof HttpException
+                                && ((HttpException) throwable).code() >= HTTP_SERVER_ERROR;
+                        if (serverError || throwable instanceof IOException) {
+                            call.onFailure();
+                        } else {
+                            call.onSuccess();
+                        }
+                    })
+                    .doOnCancel(call::onCancel);
+        });
+    }
+
+    /**
+     * Send the duplicate request if the response does not arrive within the delay of hedging. The first response
+     * is used, the other request is canceled and its response is released. The failure of duplicate request
+     * is ignored.
+     *
+     * @param hedging         the hedging of queries, {@code null} for the request which is not hedged
+     * @param request         the request to the server
+     * @param release         the release of response which lost the race
+     * @param reactiveOptions the options which specify the I/O scheduler
+     */
+    @Nonnull
+    private <R> Flowable<R> hedge(@Nullable final FluxRequestHedging hedging,
+                                  @Nonnull final Flowable<R> request,
+                                  @Nonnull final Consumer<R> release,
+                                  @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        if (hedging == null) {
+            return request;
+        }
+
+        // the canceled request is at least as slow as its elapsed time
+        Flowable<R> measured = Flowable.defer(() -> {
+
+            long started = System.nanoTime();
+            AtomicBoolean sampled = new AtomicBoolean();
+
+            return request
+                    .doOnNext(response -> {
+                        if (sampled.compareAndSet(false, true)) {
+                            hedging.onResponse(System.nanoTime() - started);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (sampled.compareAndSet(false, true)) {
+                            hedging.onResponse(System.nanoTime() - started);
+                        }
+                    });
+        });
+
+        return Flowable.defer(() -> {
+
+            long delay = hedging.onRequest();
+            if (delay < 0) {
+                return measured;
+            }
+
+            // the requests are blocking => both are sent from the I/O threads
+            Scheduler scheduler = ioScheduler(reactiveOptions);
+            Scheduler io = scheduler != null ? scheduler : Schedulers.io();
+
+            // the response which arrives after the winner is released
+            AtomicBoolean claimed = new AtomicBoolean();
+            Predicate<R> winner = response -> {
+                if (claimed.compareAndSet(false, true)) {
+                    return true;
+                }
+                release.accept(response);
+                return false;
+            };
+
+            Flowable<R> primary = measured.subscribeOn(io).filter(winner);
+
+            Flowable<R> hedged = Flowable
+                    .timer(delay, TimeUnit.NANOSECONDS, io)
+                    .flatMap(tick -> hedging.tryHedge()
+                            ? measured.subscribeOn(io).onErrorResumeNext(Flowable.<R>never())
+                            : Flowable.<R>never())
+                    .filter(winner);
+
+            return primary.mergeWith(hedged).take(1);
+        });
+    }
+
+    /**
+     * Wait for the permit of limiter before the request is sent and hold it until the results are processed.
+     * The time to first byte and the failure of request adjust the limit.
+     *
+     * @param limiter the limiter of concurrent queries, {@code null} for unlimited query
+     * @param request the request to the server
+     * @param failure the predicate of the failed response
+     * @param process the processing of the response
+     */
+    @Nonnull
+    private <R, T> Flowable<T> limit(@Nullable final FluxConcurrencyLimiter limiter,
+                                     @Nonnull final Flowable<R> request,
+                                     @Nonnull final Predicate<R> failure,
+                                     @Nonnull final Function<Flowable<R>, Flowable<T>> process) {
+
+        if (limiter == null) {
+            return Flowable.defer(() -> process.apply(request));
+        }
+
+        return Flowable.defer(() -> {
+
+            AtomicReference<FluxConcurrencyLimiter.Permit> acquired = new AtomicReference<>();
+
+            Flowable<R> limited = limiter.acquire()
+                    .doOnSuccess(acquired::set)
+                    .flatMapPublisher(permit -> request
+                            .doOnNext(response -> {
+                                permit.onResponse();
+                                if (failure.test(response)) {
+                                    permit.onError();
+                                }
+                            })
+                            .doOnError(throwable -> {
+                                // the query was not sent
+                                if (!(throwable instanceof FluxCircuitOpenException)) {
+                                    permit.onError();
+                                }
+                            }));
+
+            return process.apply(limited).doFinally(() -> {
+                FluxConcurrencyLimiter.Permit permit = acquired.getAndSet(null);
+                if (permit != null) {
+                    permit.release();
+                }
+            });
+        });
+    }
+
+    /**
+     * Cancel the query which is not completed within the deadline and signal {@link FluxDeadlineExceededException}.
+     * The cancel of pending request cancels its HTTP call, the response body of canceled query is closed.
+     *
+     * @param query           the Flux query
+     * @param reactiveOptions the options which specify the deadline
+     * @param results         the results of query which are created for each subscription, the deadline of query
+     *                        is {@code null} if it is not specified
+     */
+    @Nonnull
+    private <T> Flowable<T> deadline(@Nonnull final String query,
+                                     @Nonnull final FluxReactiveOptions reactiveOptions,
+                                     @Nonnull final Function<FluxQueryDeadline, Flowable<T>> results) {
+
+        Duration deadline = reactiveOptions.getDeadline();
+        if (deadline == null) {
+            return Flowable.defer(() -> results.apply(null));
+        }
+
+        return Flowable.defer(() -> {
+
+            // the completion and the expiration are exclusive => the first one wins
+            FluxQueryDeadline queryDeadline = new FluxQueryDeadline(deadline.toNanos());
+
+            Flowable<Long> timer = Flowable
+                    .timer(deadline.toNanos(), TimeUnit.NANOSECONDS)
+                    .filter(tick -> queryDeadline.expire());
+
+            return results.apply(queryDeadline)
+                    .doOnComplete(queryDeadline::complete)
+                    .takeUntil(timer)
+                    .concatWith(Flowable.defer(() -> {
+
+                        if (!queryDeadline.isExpired()) {
+                            return Flowable.empty();
+                        }
+
+                        publishEvent(new FluxDeadlineExceededEvent(fluxConnectionOptions, query, deadline));
+
+                        return Flowable.error(new FluxDeadlineExceededException("The query exceeded the deadline "
+                                + deadline));
+                    }));
+        });
+    }
+
+    /**
+     * @return the scheduler which executes and reads the queries, {@code null} for the subscribing thread
+     */
+    @Nullable
+    private Scheduler ioScheduler(@Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        if (reactiveOptions.getIoScheduler() != null) {
+            return reactiveOptions.getIoScheduler();
+        }
+
+        if (ioScheduler == null && reactiveOptions.getMaxConcurrency() > 1) {
+            return Schedulers.io();
+        }
+
+        return ioScheduler;
+    }
+
+    @Nonnull
+    private String toString(@Nonnull final RequestBody body) {
+
+        Buffer buffer = new Buffer();
+        try {
+            body.writeTo(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return buffer.readUtf8();
+    }
+
+    /**
+     * Execute the queries of stream one by one or concurrently by {@link FluxReactiveOptions#getMaxConcurrency()}.
+     * The queries are read by the I/O scheduler and the results are emitted by the observe scheduler.
+     */
+    @Nonnull
+    private <T> Flowable<T> mapQueries(@Nonnull final Publisher<Flux> queryStream,
+                                       @Nonnull final FluxReactiveOptions reactiveOptions,
+                                       @Nonnull final Function<Flux, Publisher<T>> mapper) {
+
+        Flowable<Flux> queries = Flowable.fromPublisher(queryStream);
+
+        int maxConcurrency = reactiveOptions.getMaxConcurrency();
+
+        // the call is executed and read by the subscribing thread => subscribe the query on the I/O thread
+        Scheduler scheduler = ioScheduler(reactiveOptions);
+
+        Function<Flux, Publisher<T>> subscribed = mapper;
+        if (scheduler != null) {
+            Scheduler io = scheduler;
+            subscribed = flux -> Flowable.fromPublisher(mapper.apply(flux)).subscribeOn(io);
+        }
+
+        Flowable<T> results;
+        if (maxConcurrency == 1) {
+            results = queries.concatMap(subscribed);
+        } else if (reactiveOptions.isConcurrencyOrdered()) {
+            results = queries.concatMapEager(subscribed, maxConcurrency, reactiveOptions.getBufferSize());
+        } else {
+            results = queries.flatMap(subscribed, maxConcurrency);
+        }
+
+        Scheduler observeScheduler = reactiveOptions.getObserveScheduler();
+        if (observeScheduler != null) {
+            results = results.observeOn(observeScheduler, false, reactiveOptions.getBufferSize());
+        }
+
+        return results;
+    }
+
+    /**
+     * Read the response sequentially or split it into chunks which are parsed in parallel.
+     */
+    @Nonnull
+    private <T> Flowable<T> read(@Nonnull final String query,
+                                 @Nonnull final ResponseBody body,
+                                 @Nonnull final FluxReactiveOptions reactiveOptions,
+                                 @Nullable final FluxQueryDeadline deadline,
+                                 @Nonnull final FluxResponseReader.Factory<T> reader) {
+
+        // the truncated response of resumable query is the error
+        boolean resumable = reactiveOptions.getResumeAttempts() > 0;
+
+        int parallelism = reactiveOptions.getParallelism();
+        if (parallelism == 1) {
+            return chunkReader(query, this.fluxConnectionOptions, body, resumable, deadline, reader);
+        }
+
+        int chunkSize = reactiveOptions.getParallelChunkSize();
+        Scheduler scheduler = reactiveOptions.getParallelScheduler();
+
+        Flowable<FluxResponseSplitter.Chunk> chunks = chunkReader(query, this.fluxConnectionOptions, body, resumable,
+                deadline, (source, offset) -> new FluxResponseSplitter(source, chunkSize));
+
+        Function<FluxResponseSplitter.Chunk, Publisher<List<T>>> parser = chunk -> Flowable
+                .fromCallable(() -> readAll(reader.create(chunk.getBuffer(), chunk.getTableOffset())))
+                .subscribeOn(scheduler);
+
+        Flowable<List<T>> parsed = reactiveOptions.isParallelOrdered()
+                ? chunks.concatMapEager(parser, parallelism, 1)
+                : chunks.flatMap(parser, parallelism);
+
+        return parsed.concatMapIterable(records -> records);
+    }
+
+    /**
+     * @return {@code true} if the error is caused by the I/O error
+     */
+    private static boolean isIOError(@Nonnull final Throwable throwable) {
+
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Nonnull
+    private static <T> List<T> readAll(@Nonnull final FluxResponseReader<T> reader) throws IOException {
+
+        List<T> records = new ArrayList<>();
+        for (T record = reader.next(); record != null; record = reader.next()) {
+            records.add(record);
+        }
+
+        return records;
+    }
+
+    /**
+     * Read the records from the response body on demand. The {@link BufferedSource} is read only when the downstream
+     * requests next record, so a slow subscriber stalls the socket instead of buffering whole response in memory.
+     */
+    @Nonnull
+    private <T> Flowable<T> chunkReader(@Nonnull final String query,
+                                        @Nonnull final FluxConnectionOptions options,
+                                        @Nonnull final ResponseBody body,
+                                        final boolean resumable,
+                                        @Nullable final FluxQueryDeadline deadline,
+                                        @Nonnull final FluxResponseReader.Factory<T> reader) {
 
         Objects.requireNonNull(options, "FluxConnectionOptions are required");
         Preconditions.checkNonEmptyString(query, "Flux query");
         Objects.requireNonNull(body, "ResponseBody is required");
 
-        return Observable.create(subscriber -> {
+        Callable<FluxResponseReader<T>> initialState = () -> reader.create(body.source(), 0);
+
+        return Flowable.<T, FluxResponseReader<T>>generate(initialState, (state, emitter) -> {
 
-            boolean isCompleted = false;
             try {
-                BufferedSource source = body.source();
+                T next = state.next();
 
                 //
-                // Subscriber is not disposed && source has data => parse
+                // Emit one item per request
                 //
-                while (!subscriber.isDisposed() && !source.exhausted()) {
-
-                    mapper.toFluxRecords(source, subscriber::onNext, () -> !subscriber.isDisposed());
+                if (next != null) {
+                    emitter.onNext(next);
+                    return;
                 }
 
                 publishEvent(new FluxSuccessEvent(options, query));
+                emitter.onComplete();
+
             } catch (IOException e) {
 
                 //
-                // Socket close by remote server or end of data
+                // Socket close by remote server or end of data, the truncated response of resumable query is resumed
                 //
-                if (e.getMessage().equals("Socket closed") || e instanceof EOFException) {
-                    isCompleted = true;
-                    subscriber.onComplete();
+                if (!resumable && ("Socket closed".equals(e.getMessage()) || e instanceof EOFException)) {
+                    emitter.onComplete();
                 } else {
                     throw new UncheckedIOException(e);
                 }
             }
+        }, state -> body.close())
+                // the subscriber has all records which it needs, the expired query is not the success
+                .doOnCancel(() -> {
+                    if (deadline == null || !deadline.isExpired() && !deadline.isReached()) {
+                        publishEvent(new FluxSuccessEvent(options, query));
+                    }
+                });
+    }
 
-            //if response end we get here
-            if (!isCompleted) {
-                subscriber.onComplete();
-            }
-
-            body.close();
-        });
+    /**
+     * Apply the overflow strategy between the reader of response and the subscriber.
+     */
+    @Nonnull
+    private <T> Flowable<T> onBackpressure(@Nonnull final Flowable<T> records,
+                                           @Nonnull final String query,
+                                           @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        FluxReactiveOptions.OverflowStrategy strategy = reactiveOptions.getOverflowStrategy();
+        int bufferSize = reactiveOptions.getBufferSize();
+
+        switch (strategy) {
+            case BLOCK:
+                // read ahead at most bufferSize records
+                return records.rebatchRequests(bufferSize);
+
+            case ERROR:
+                // signal MissingBackpressureException if the buffer is full
+                return records.onBackpressureBuffer(bufferSize);
+
+            case DROP_OLDEST:
+            case DROP_LATEST:
+
+                AtomicLong dropped = new AtomicLong();
+                BackpressureOverflowStrategy overflow = strategy == FluxReactiveOptions.OverflowStrategy.DROP_OLDEST
+                        ? BackpressureOverflowStrategy.DROP_OLDEST : BackpressureOverflowStrategy.DROP_LATEST;
+
+                return records
+                        .onBackpressureBuffer(bufferSize, dropped::incrementAndGet, overflow)
+                        .doFinally(() -> {
+
+                            long count = dropped.get();
+                            if (count > 0) {
+                                FluxConnectionOptions options = this.fluxConnectionOptions;
+                                publishEvent(new FluxRecordsDroppedEvent(options, query, strategy, count));
+                            }
+                        });
+
+            default:
+                throw new IllegalStateException("Unsupported OverflowStrategy: " + strategy);
+        }
     }
 
     private <T extends AbstractInfluxEvent> void publishEvent(@Nonnull final T event) {
@@ -408,4 +1481,18 @@ public class FluxClientReactiveImpl extends AbstractFluxClient<FluxServiceReacti
         event.logEvent();
         eventPublisher.onNext(event);
     }
+
+    private static final class IoThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@Nonnull final Runnable runnable) {
+
+            Thread thread = new Thread(runnable, "flux-io-" + count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
 }
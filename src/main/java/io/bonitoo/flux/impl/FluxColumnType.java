@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.time.Duration;
+import java.util.Base64;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The type of column by the {@code #datatype} annotation and its conversion of cell into the value.
+ *
+ * @author Jakub Bednar (bednar@github) (24/08/2018 13:15)
+ * @since 1.0.0
+ */
+enum FluxColumnType {
+
+    STRING {
+        @Nonnull
+        @Override
+        Object parse(@Nonnull final String value) {
+            return value;
+        }
+
+        @Nonnull
+        @Override
+        Object read(@Nonnull final FluxCsvTokenizer row, final int cell) {
+            return row.getPooledString(cell);
+        }
+    },
+
+    LONG {
+        @Nonnull
+        @Override
+        Object parse(@Nonnull final String value) {
+            return Long.parseLong(value);
+        }
+
+        @Nonnull
+        @Override
+        Object read(@Nonnull final FluxCsvTokenizer row, final int cell) {
+            return row.getLong(cell);
+        }
+    },
+
+    UNSIGNED_LONG {
+        @Nonnull
+        @Override
+        Object parse(@Nonnull final String value) {
+            return Long.parseUnsignedLong(value);
+        }
+    },
+
+    DOUBLE {
+        @Nonnull
+        @Override
+        Object parse(@Nonnull final String value) {
+            return Double.parseDouble(value);
+        }
+    },
+
+    BOOLEAN {
+        @Nonnull
+        @Override
+        Object parse(@Nonnull final String value) {
+            return Boolean.valueOf(value);
+        }
+
+        @Nonnull
+        @Override
+        Object read(@Nonnull final FluxCsvTokenizer row, final int cell) {
+            return row.getBoolean(cell);
+        }
+    },
+
+    BASE64_BINARY {
+        @Nonnull
+        @Override
+        Object parse(@Nonnull final String value) {
+            return Base64.getDecoder().decode(value);
+        }
+    },
+
+    DATE_TIME {
+        @Nonnull
+        @Override
+        Object parse(@Nonnull final String value) {
+            return FluxTimeParser.toInstant(FluxTimeParser.parseEpochNanos(value));
+        }
+
+        @Nonnull
+        @Override
+        Object read(@Nonnull final FluxCsvTokenizer row, final int cell) {
+            return FluxTimeParser.toInstant(row.getEpochNanos(cell));
+        }
+    },
+
+    DURATION {
+        @Nonnull
+        @Override
+        Object parse(@Nonnull final String value) {
+            return Duration.ofNanos(Long.parseUnsignedLong(value));
+        }
+    };
+
+    /**
+     * Convert the decoded cell into the value.
+     */
+    @Nonnull
+    abstract Object parse(@Nonnull String value);
+
+    /**
+     * Convert the not empty cell of current row into the value.
+     */
+    @Nonnull
+    Object read(@Nonnull final FluxCsvTokenizer row, final int cell) {
+        return parse(row.getString(cell));
+    }
+
+    @Nonnull
+    static FluxColumnType of(@Nullable final String dataType) {
+
+        if (dataType == null) {
+            return STRING;
+        }
+
+        switch (dataType) {
+            case "boolean":
+                return BOOLEAN;
+            case "unsignedLong":
+                return UNSIGNED_LONG;
+            case "long":
+                return LONG;
+            case "double":
+                return DOUBLE;
+            case "base64Binary":
+                return BASE64_BINARY;
+            case "dateTime:RFC3339":
+            case "dateTime:RFC3339Nano":
+                return DATE_TIME;
+            case "duration":
+                return DURATION;
+            case "string":
+            default:
+                return STRING;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.bonitoo.flux.option.FluxStringPool;
+
+import okio.Buffer;
+import okio.BufferedSource;
+
+/**
+ * The tokenizer of the CSV rows that works with the raw bytes of the response.
+ * <p>
+ * The end of row is located by {@link BufferedSource#indexOf(byte)} directly in the buffered segments
+ * and the row is copied once into the reused array. The delimiters and quotes are found on the bytes,
+ * the cells are decoded into {@link String} only when they are accessed.
+ *
+ * @author Jakub Bednar (bednar@github) (23/08/2018 08:44)
+ * @since 1.0.0
+ */
+final class FluxCsvTokenizer {
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final byte QUOTE = '"';
+    private static final byte DELIMITER = ',';
+    private static final byte MINUS = '-';
+    private static final byte ZERO = '0';
+    private static final byte NINE = '9';
+    private static final int RADIX = 10;
+
+    private static final int INITIAL_ROW_SIZE = 1024;
+    private static final int INITIAL_CELLS = 16;
+
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+
+    private final BufferedSource source;
+    private final FluxStringPool stringPool;
+
+    private byte[] bytes = new byte[INITIAL_ROW_SIZE];
+    private int[] starts = new int[INITIAL_CELLS];
+    private int[] ends = new int[INITIAL_CELLS];
+    private int size;
+
+    FluxCsvTokenizer(@Nonnull final BufferedSource source, @Nullable final FluxStringPool stringPool) {
+
+        Objects.requireNonNull(source, "BufferedSource is required");
+
+        this.source = source;
+        this.stringPool = stringPool;
+    }
+
+    private FluxCsvTokenizer(@Nonnull final FluxCsvTokenizer row) {
+
+        this.source = null;
+        this.stringPool = row.stringPool;
+        this.size = row.size;
+        this.bytes = Arrays.copyOf(row.bytes, size == 0 ? 0 : row.ends[size - 1]);
+        this.starts = Arrays.copyOf(row.starts, size);
+        this.ends = Arrays.copyOf(row.ends, size);
+    }
+
+    /**
+     * Read the next row. The quoted cells can contains delimiters and line breaks.
+     *
+     * @return {@code false} if there is no more data
+     * @throws IOException if the underlying source fails
+     */
+    boolean nextRow() throws IOException {
+
+        size = 0;
+        if (source.exhausted()) {
+            return false;
+        }
+
+        int length = 0;
+        int position = 0;
+        int cellStart = 0;
+        boolean quoted = false;
+
+        for (;;) {
+
+            long newLine = source.indexOf(LF);
+            long count = newLine == -1 ? source.buffer().size() : newLine + 1;
+
+            ensureCapacity(length + count);
+            readFully(source.buffer(), length, (int) count);
+            length += (int) count;
+
+            for (; position < length; position++) {
+                byte character = bytes[position];
+                if (character == QUOTE) {
+                    quoted = !quoted;
+                } else if (character == DELIMITER && !quoted) {
+                    addCell(cellStart, position);
+                    cellStart = position + 1;
+                }
+            }
+
+            //
+            // The line break inside quoted cell => continue to the next line
+            //
+            if (!quoted || newLine == -1) {
+                break;
+            }
+        }
+
+        int end = length;
+        if (end > cellStart && bytes[end - 1] == LF) {
+            end--;
+        }
+        if (end > cellStart && bytes[end - 1] == CR) {
+            end--;
+        }
+        addCell(cellStart, end);
+
+        return true;
+    }
+
+    /**
+     * Copy the current row into the detached tokenizer. The cells of the copy stay accessible
+     * after the tokenizer reads the next row, the copy cannot read rows.
+     *
+     * @return the detached copy of the current row
+     */
+    @Nonnull
+    FluxCsvTokenizer snapshot() {
+        return new FluxCsvTokenizer(this);
+    }
+
+    /**
+     * @return the count of cells in the current row
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if the row is an empty line
+     */
+    boolean isEmptyRow() {
+        return size == 1 && isEmpty(0);
+    }
+
+    /**
+     * @return the copy of raw bytes of the current row without the line break
+     */
+    @Nonnull
+    byte[] toBytes() {
+
+        if (size == 0) {
+            return new byte[0];
+        }
+
+        return Arrays.copyOfRange(bytes, starts[0], ends[size - 1]);
+    }
+
+    /**
+     * Write the raw bytes of the current row terminated by the line break into the {@code sink}.
+     */
+    void writeRow(@Nonnull final Buffer sink) {
+
+        if (size > 0) {
+            sink.write(bytes, starts[0], ends[size - 1] - starts[0]);
+        }
+        sink.writeByte(LF);
+    }
+
+    /**
+     * @return {@code true} if the raw bytes of the current row are same as {@code value}
+     */
+    boolean rowEquals(@Nullable final byte[] value) {
+
+        if (value == null || size == 0) {
+            return false;
+        }
+
+        int start = starts[0];
+        if (ends[size - 1] - start != value.length) {
+            return false;
+        }
+
+        for (int i = 0; i < value.length; i++) {
+            if (bytes[start + i] != value[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the cell is not present or is empty
+     */
+    boolean isEmpty(final int cell) {
+        return cell >= size || starts[cell] == ends[cell];
+    }
+
+    /**
+     * @return {@code true} if the cell starts with the {@code prefix} character
+     */
+    boolean startsWith(final int cell, final char prefix) {
+        return !isEmpty(cell) && bytes[starts[cell]] == prefix;
+    }
+
+    /**
+     * @return {@code true} if the cell has same bytes as {@code value}
+     */
+    boolean contentEquals(final int cell, @Nonnull final byte[] value) {
+
+        if (cell >= size || ends[cell] - starts[cell] != value.length) {
+            return false;
+        }
+
+        for (int i = 0; i < value.length; i++) {
+            if (bytes[starts[cell] + i] != value[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Decode the cell into {@link String}.
+     *
+     * @return the value of cell or {@code null} if the row does not have the cell
+     */
+    @Nullable
+    String getString(final int cell) {
+
+        if (cell >= size) {
+            return null;
+        }
+
+        int start = starts[cell];
+        int end = ends[cell];
+
+        if (end - start >= 2 && bytes[start] == QUOTE && bytes[end - 1] == QUOTE) {
+            String value = new String(bytes, start + 1, end - start - 2, StandardCharsets.UTF_8);
+            return value.replace("\"\"", "\"");
+        }
+
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decode the cell into {@link String} through the {@link FluxStringPool}. The cell is decoded only if
+     * the pool does not contain the same value.
+     *
+     * @return the value of cell or {@code null} if the row does not have the cell
+     */
+    @Nullable
+    String getPooledString(final int cell) {
+
+        if (stringPool == null || cell >= size || bytes[starts[cell]] == QUOTE) {
+            return getString(cell);
+        }
+
+        return stringPool.intern(bytes, starts[cell], ends[cell] - starts[cell]);
+    }
+
+    /**
+     * Parse the RFC3339 cell as nanoseconds since epoch without decoding the cell into {@link String}.
+     */
+    long getEpochNanos(final int cell) {
+
+        int start = starts[cell];
+        int end = ends[cell];
+
+        if (bytes[start] == QUOTE) {
+            return FluxTimeParser.parseEpochNanos(getString(cell));
+        }
+
+        return FluxTimeParser.parseEpochNanos(bytes, start, end);
+    }
+
+    /**
+     * Parse the cell as {@code long} without decoding the cell into {@link String}.
+     */
+    long getLong(final int cell) {
+
+        int start = starts[cell];
+        int end = ends[cell];
+
+        boolean negative = bytes[start] == MINUS;
+        int position = negative ? start + 1 : start;
+        if (position == end) {
+            throw new NumberFormatException("For input string: \"" + getString(cell) + "\"");
+        }
+
+        // accumulate negatively to support Long.MIN_VALUE
+        long result = 0;
+        for (; position < end; position++) {
+            byte digit = bytes[position];
+            if (digit < ZERO || digit > NINE || result < Long.MIN_VALUE / RADIX) {
+                return Long.parseLong(getString(cell));
+            }
+            long next = result * RADIX - (digit - ZERO);
+            if (next > result) {
+                return Long.parseLong(getString(cell));
+            }
+            result = next;
+        }
+
+        if (negative) {
+            return result;
+        }
+
+        if (result == Long.MIN_VALUE) {
+            return Long.parseLong(getString(cell));
+        }
+
+        return -result;
+    }
+
+    /**
+     * Parse the cell as {@code boolean} without decoding the cell into {@link String}.
+     */
+    boolean getBoolean(final int cell) {
+
+        if (cell >= size || ends[cell] - starts[cell] != TRUE.length) {
+            return false;
+        }
+
+        for (int i = 0; i < TRUE.length; i++) {
+            if (Character.toLowerCase(bytes[starts[cell] + i]) != TRUE[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return decoded values of all cells
+     */
+    @Nonnull
+    List<String> toList() {
+
+        List<String> cells = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cells.add(getString(i));
+        }
+
+        return cells;
+    }
+
+    private void addCell(final int start, final int end) {
+
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    private void ensureCapacity(final long capacity) {
+
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The CSV row is too large: " + capacity);
+        }
+
+        if (capacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, (int) Math.max(capacity, bytes.length * 2L));
+        }
+    }
+
+    private void readFully(@Nonnull final Buffer buffer, final int offset, final int count) throws EOFException {
+
+        int read = 0;
+        while (read < count) {
+            int segment = buffer.read(bytes, offset + read, count - read);
+            if (segment == -1) {
+                throw new EOFException();
+            }
+            read += segment;
+        }
+    }
+}
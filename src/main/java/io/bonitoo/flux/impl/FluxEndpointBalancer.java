@@ -0,0 +1,310 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.ForwardingSource;
+import okio.Okio;
+import retrofit2.Response;
+
+/**
+ * The {@link FluxServiceReactive} which routes the requests to the least loaded of Flux endpoints.
+ * <p>
+ * The endpoint is selected by the power of two choices - the better of two random healthy endpoints is used.
+ * The endpoints are compared by the count of outstanding requests weighted by the exponentially weighted moving
+ * average of time to first byte. The request is outstanding until its response body is closed.
+ * <p>
+ * The endpoint which fails to connect or doesn't respond to the background ping is ejected from routing
+ * until the next successful ping.
+ *
+ * @author Jakub Bednar (bednar@github) (01/09/2018 14:30)
+ * @since 1.0.0
+ */
+@ThreadSafe
+final class FluxEndpointBalancer implements FluxServiceReactive {
+
+    private static final Logger LOG = Logger.getLogger(FluxEndpointBalancer.class.getName());
+
+    /**
+     * The weight of the latest time to first byte in the moving average.
+     */
+    private static final double EWMA_WEIGHT = 0.3;
+
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final Disposable healthCheck;
+
+    FluxEndpointBalancer(@Nonnull final List<String> urls,
+                         @Nonnull final List<FluxServiceReactive> services,
+                         @Nonnull final Duration healthCheckInterval) {
+
+        Objects.requireNonNull(urls, "URLs of endpoints are required");
+        Objects.requireNonNull(services, "Services of endpoints are required");
+        Objects.requireNonNull(healthCheckInterval, "Health check interval is required");
+
+        for (int i = 0; i < services.size(); i++) {
+            endpoints.add(new Endpoint(urls.get(i), services.get(i)));
+        }
+
+        long interval = healthCheckInterval.toNanos();
+        this.healthCheck = Flowable.interval(interval, interval, TimeUnit.NANOSECONDS)
+                .onBackpressureDrop()
+                .subscribe(tick -> endpoints.forEach(endpoint -> endpoint.checkHealth(interval)));
+    }
+
+    @Nonnull
+    @Override
+    public Observable<ResponseBody> query(final String orgID, @Nonnull final RequestBody batchPoints) {
+
+        return Observable.defer(() -> {
+
+            Request request = select().start();
+
+            return request.endpoint.service
+                    .query(orgID, batchPoints)
+                    .map(request::onResponse)
+                    .doOnError(request::onError)
+                    .doOnDispose(request::onDispose);
+        });
+    }
+
+    @Nonnull
+    @Override
+    public Observable<Response<ResponseBody>> queryRaw(final String orgID, @Nonnull final RequestBody batchPoints) {
+
+        return Observable.defer(() -> {
+
+            Request request = select().start();
+
+            return request.endpoint.service
+                    .queryRaw(orgID, batchPoints)
+                    .map(response -> {
+                        if (!response.isSuccessful() || response.body() == null) {
+                            request.release();
+                            return response;
+                        }
+                        return Response.success(request.onResponse(response.body()), response.raw());
+                    })
+                    .doOnError(request::onError)
+                    .doOnDispose(request::onDispose);
+        });
+    }
+
+    @Override
+    public Maybe<Response<ResponseBody>> ping() {
+        return Maybe.defer(() -> select().service.ping());
+    }
+
+    /**
+     * Stop the background health check.
+     */
+    void dispose() {
+        healthCheck.dispose();
+    }
+
+    @Nonnull
+    private Endpoint select() {
+
+        List<Endpoint> candidates = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.healthy) {
+                candidates.add(endpoint);
+            }
+        }
+
+        // all endpoints are unhealthy => try any of them
+        if (candidates.isEmpty()) {
+            candidates = endpoints;
+        }
+
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        Endpoint a = candidates.get(first);
+        Endpoint b = candidates.get(second);
+
+        return a.load() <= b.load() ? a : b;
+    }
+
+    private static final class Endpoint {
+
+        private final String url;
+        private final FluxServiceReactive service;
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        // guarded by this
+        private double timeToFirstByte;
+        private volatile boolean healthy = true;
+
+        private Endpoint(@Nonnull final String url, @Nonnull final FluxServiceReactive service) {
+            this.url = url;
+            this.service = service;
+        }
+
+        @Nonnull
+        private Request start() {
+            outstanding.incrementAndGet();
+            return new Request(this);
+        }
+
+        /**
+         * @return the load of endpoint, the endpoint without measured latency is preferred
+         */
+        private double load() {
+            synchronized (this) {
+                return (outstanding.get() + 1) * (timeToFirstByte + 1);
+            }
+        }
+
+        private void observe(final long timeToFirstByte) {
+            synchronized (this) {
+                if (this.timeToFirstByte == 0) {
+                    this.timeToFirstByte = timeToFirstByte;
+                } else {
+                    this.timeToFirstByte += EWMA_WEIGHT * (timeToFirstByte - this.timeToFirstByte);
+                }
+            }
+        }
+
+        private void checkHealth(final long timeout) {
+
+            service.ping()
+                    .timeout(timeout, TimeUnit.NANOSECONDS)
+                    .subscribeOn(Schedulers.io())
+                    .subscribe(
+                            response -> setHealthy(response.isSuccessful()),
+                            throwable -> setHealthy(false),
+                            () -> setHealthy(false));
+        }
+
+        private void setHealthy(final boolean healthy) {
+
+            boolean previous = this.healthy;
+            this.healthy = healthy;
+
+            if (previous != healthy) {
+                LOG.log(Level.WARNING, "The Flux endpoint {0} is {1}.",
+                        new Object[]{url, healthy ? "healthy" : "unhealthy"});
+            }
+        }
+    }
+
+    private static final class Request {
+
+        private final Endpoint endpoint;
+        private final long started = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean streaming;
+
+        private Request(@Nonnull final Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @Nonnull
+        private ResponseBody onResponse(@Nonnull final ResponseBody body) {
+
+            endpoint.observe(System.nanoTime() - started);
+            streaming = true;
+
+            // the request is outstanding until the body is read
+            ForwardingSource source = new ForwardingSource(body.source()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release();
+                    }
+                }
+            };
+
+            return ResponseBody.create(body.contentType(), body.contentLength(), Okio.buffer(source));
+        }
+
+        private void onError(@Nonnull final Throwable throwable) {
+
+            // the endpoint is not reachable, the failed read of response is the failure of query
+            if (isConnectFailure(throwable)) {
+                endpoint.setHealthy(false);
+            }
+
+            release();
+        }
+
+        private void onDispose() {
+
+            // the emitted body is outstanding until it is closed, the hedged request disposes the call
+            // right after the body is emitted
+            if (!streaming) {
+                release();
+            }
+        }
+
+        private static boolean isConnectFailure(@Nonnull final Throwable throwable) {
+
+            return throwable instanceof ConnectException
+                    || throwable instanceof NoRouteToHostException
+                    || throwable instanceof UnknownHostException
+                    || throwable instanceof SocketTimeoutException
+                    && "connect timed out".equals(throwable.getMessage());
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                endpoint.outstanding.decrementAndGet();
+            }
+        }
+    }
+}
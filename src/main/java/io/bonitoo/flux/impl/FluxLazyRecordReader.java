@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.io.IOException;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.bonitoo.flux.dto.FluxLazyRecord;
+
+/**
+ * Reads the response into {@link FluxLazyRecord}s. The reader only tokenizes the rows, the cells are decoded
+ * when the subscriber accesses them.
+ *
+ * @author Jakub Bednar (bednar@github) (25/08/2018 10:25)
+ * @since 1.0.0
+ */
+final class FluxLazyRecordReader implements FluxResponseReader<FluxLazyRecord> {
+
+    private final FluxRecordReader reader;
+
+    FluxLazyRecordReader(@Nonnull final FluxRecordReader reader) {
+
+        Objects.requireNonNull(reader, "FluxRecordReader is required");
+
+        this.reader = reader;
+    }
+
+    @Nullable
+    @Override
+    public FluxLazyRecord next() throws IOException {
+
+        if (!reader.nextRow()) {
+            return null;
+        }
+
+        FluxTableSchema schema = reader.getSchema();
+        FluxCsvTokenizer row = reader.getRow().snapshot();
+
+        return new FluxLazyRecord(reader.getTable(), schema.getColumns(), cell -> schema.toValue(row, cell));
+    }
+}
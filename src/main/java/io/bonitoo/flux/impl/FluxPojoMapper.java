@@ -0,0 +1,465 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.bonitoo.core.InfluxException;
+
+/**
+ * Maps the rows of response into the POJOs.
+ * <p>
+ * The column is bound to the field by the name of {@code org.influxdb.annotation.Column} annotation or by the name
+ * of field. The columns with the {@code _} prefix ({@code _time}, {@code _value}, ...) are bound also to the fields
+ * without the prefix. The fields are set by the {@link MethodHandle}s which are resolved once per class,
+ * the binding of columns to fields is resolved once per table layout.
+ *
+ * @param <M> the type of POJO
+ * @author Jakub Bednar (bednar@github) (27/08/2018 08:50)
+ * @since 1.0.0
+ */
+final class FluxPojoMapper<M> {
+
+    private static final String COLUMN_ANNOTATION = "org.influxdb.annotation.Column";
+
+    private static final ClassValue<FluxPojoMapper<?>> MAPPERS = new ClassValue<FluxPojoMapper<?>>() {
+        @Override
+        protected FluxPojoMapper<?> computeValue(@Nonnull final Class<?> type) {
+            return new FluxPojoMapper<>(type);
+        }
+    };
+
+    private final Class<M> type;
+    private final MethodHandle constructor;
+    private final Map<String, Field> fields = new HashMap<>();
+    private final Map<String, MethodHandle> setters = new HashMap<>();
+
+    private FluxPojoMapper(@Nonnull final Class<M> type) {
+
+        this.type = type;
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Constructor<M> noArgs = type.getDeclaredConstructor();
+            noArgs.setAccessible(true);
+            this.constructor = lookup.unreflectConstructor(noArgs).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new InfluxException("The " + type.getName() + " has not accessible no-arg constructor.");
+        }
+
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+
+                String label = columnName(field);
+                if (fields.containsKey(label)) {
+                    continue;
+                }
+
+                try {
+                    field.setAccessible(true);
+                    setters.put(label, lookup.unreflectSetter(field));
+                    fields.put(label, field);
+                } catch (IllegalAccessException e) {
+                    throw new InfluxException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the mapper for the {@code type}, the mappers are cached per class
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    static <M> FluxPojoMapper<M> of(@Nonnull final Class<M> type) {
+
+        Objects.requireNonNull(type, "Measurement type is required");
+
+        return (FluxPojoMapper<M>) MAPPERS.get(type);
+    }
+
+    /**
+     * Resolve the binding of columns of the table to the fields of POJO.
+     */
+    @Nonnull
+    Binding<M> bind(@Nonnull final FluxTableSchema schema) {
+
+        List<ColumnSetter> columns = new ArrayList<>();
+        for (Map.Entry<String, Integer> column : schema.getColumns().entrySet()) {
+
+            String label = column.getKey();
+            if (!fields.containsKey(label) && label.startsWith("_")) {
+                label = label.substring(1);
+            }
+
+            Field field = fields.get(label);
+            if (field == null) {
+                continue;
+            }
+
+            int cell = column.getValue();
+            columns.add(ColumnSetter.create(field, setters.get(label), schema.getType(cell), cell));
+        }
+
+        return new Binding<>(type, constructor, columns.toArray(new ColumnSetter[0]));
+    }
+
+    @Nonnull
+    private static String columnName(@Nonnull final Field field) {
+
+        for (Annotation annotation : field.getAnnotations()) {
+
+            Class<? extends Annotation> annotationType = annotation.annotationType();
+            if (COLUMN_ANNOTATION.equals(annotationType.getName())) {
+                try {
+                    return (String) annotationType.getMethod("name").invoke(annotation);
+                } catch (ReflectiveOperationException e) {
+                    throw new InfluxException(e);
+                }
+            }
+        }
+
+        return field.getName();
+    }
+
+    /**
+     * The binding of columns of one table layout to the fields of POJO.
+     */
+    static final class Binding<M> {
+
+        private final Class<M> type;
+        private final MethodHandle constructor;
+        private final ColumnSetter[] columns;
+
+        private Binding(@Nonnull final Class<M> type,
+                        @Nonnull final MethodHandle constructor,
+                        @Nonnull final ColumnSetter[] columns) {
+            this.type = type;
+            this.constructor = constructor;
+            this.columns = columns;
+        }
+
+        @Nonnull
+        M map(@Nonnull final FluxTableSchema schema, @Nonnull final FluxCsvTokenizer row) {
+
+            try {
+                Object pojo = (Object) constructor.invokeExact();
+                for (ColumnSetter column : columns) {
+                    column.set(pojo, schema, row);
+                }
+
+                return type.cast(pojo);
+
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new InfluxException(e);
+            }
+        }
+    }
+
+    /**
+     * Sets the value of one column into the field.
+     */
+    private static class ColumnSetter {
+
+        final int cell;
+        private final MethodHandle setter;
+        private final Function<Object, Object> converter;
+
+        ColumnSetter(@Nonnull final MethodHandle setter,
+                     @Nonnull final Function<Object, Object> converter,
+                     final int cell) {
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            this.converter = converter;
+            this.cell = cell;
+        }
+
+        void set(@Nonnull final Object pojo,
+                 @Nonnull final FluxTableSchema schema,
+                 @Nonnull final FluxCsvTokenizer row) throws Throwable {
+
+            if (row.isEmpty(cell)) {
+                setValue(pojo, schema, row);
+            } else {
+                setCell(pojo, schema, row);
+            }
+        }
+
+        /**
+         * Set the not empty cell.
+         */
+        void setCell(@Nonnull final Object pojo,
+                     @Nonnull final FluxTableSchema schema,
+                     @Nonnull final FluxCsvTokenizer row) throws Throwable {
+            setValue(pojo, schema, row);
+        }
+
+        /**
+         * Set the converted value of cell or the default value of column.
+         */
+        final void setValue(@Nonnull final Object pojo,
+                            @Nonnull final FluxTableSchema schema,
+                            @Nonnull final FluxCsvTokenizer row) throws Throwable {
+
+            Object value = schema.toValue(row, cell);
+            if (value != null) {
+                setter.invokeExact(pojo, converter.apply(value));
+            }
+        }
+
+        @Nonnull
+        static ColumnSetter create(@Nonnull final Field field,
+                                   @Nonnull final MethodHandle setter,
+                                   @Nonnull final FluxColumnType columnType,
+                                   final int cell) {
+
+            Class<?> fieldType = field.getType();
+            Function<Object, Object> converter = converter(field, columnType);
+
+            if (fieldType == long.class && columnType == FluxColumnType.LONG) {
+                return new LongSetter(setter, converter, cell, FluxCsvTokenizer::getLong);
+            }
+            if (fieldType == long.class && columnType == FluxColumnType.DATE_TIME) {
+                return new LongSetter(setter, converter, cell, FluxCsvTokenizer::getEpochNanos);
+            }
+            if (fieldType == int.class && columnType == FluxColumnType.LONG) {
+                return new IntSetter(setter, converter, cell);
+            }
+            if (fieldType == double.class && columnType == FluxColumnType.DOUBLE) {
+                return new DoubleSetter(setter, converter, cell);
+            }
+            if (fieldType == boolean.class && columnType == FluxColumnType.BOOLEAN) {
+                return new BooleanSetter(setter, converter, cell);
+            }
+
+            return new ColumnSetter(setter, converter, cell);
+        }
+
+        @Nonnull
+        private static Function<Object, Object> converter(@Nonnull final Field field,
+                                                          @Nonnull final FluxColumnType columnType) {
+
+            Class<?> fieldType = wrap(field.getType());
+            Class<?> columnClass = columnClass(columnType);
+
+            if (fieldType.isAssignableFrom(columnClass)) {
+                return value -> value;
+            }
+            if (fieldType == String.class) {
+                return String::valueOf;
+            }
+            if (Number.class.isAssignableFrom(columnClass)) {
+                Function<Number, Object> numeric = numericConverter(fieldType);
+                if (numeric != null) {
+                    return value -> numeric.apply((Number) value);
+                }
+            }
+            if (columnClass == Instant.class && fieldType == Long.class) {
+                return value -> FluxTimeParser.toEpochNanos((Instant) value);
+            }
+            if (columnClass == Duration.class && fieldType == Long.class) {
+                return value -> ((Duration) value).toNanos();
+            }
+
+            String message = String.format("The column of type '%s' cannot be mapped to the field '%s' of type '%s'.",
+                    columnType, field.getName(), field.getType().getName());
+
+            throw new InfluxException(message);
+        }
+
+        @Nullable
+        private static Function<Number, Object> numericConverter(@Nonnull final Class<?> fieldType) {
+
+            if (fieldType == Long.class) {
+                return Number::longValue;
+            }
+            if (fieldType == Integer.class) {
+                return Number::intValue;
+            }
+            if (fieldType == Short.class) {
+                return Number::shortValue;
+            }
+            if (fieldType == Byte.class) {
+                return Number::byteValue;
+            }
+            if (fieldType == Double.class) {
+                return Number::doubleValue;
+            }
+            if (fieldType == Float.class) {
+                return Number::floatValue;
+            }
+
+            return null;
+        }
+
+        @Nonnull
+        private static Class<?> columnClass(@Nonnull final FluxColumnType columnType) {
+
+            switch (columnType) {
+                case LONG:
+                case UNSIGNED_LONG:
+                    return Long.class;
+                case DOUBLE:
+                    return Double.class;
+                case BOOLEAN:
+                    return Boolean.class;
+                case BASE64_BINARY:
+                    return byte[].class;
+                case DATE_TIME:
+                    return Instant.class;
+                case DURATION:
+                    return Duration.class;
+                case STRING:
+                default:
+                    return String.class;
+            }
+        }
+
+        @Nonnull
+        private static Class<?> wrap(@Nonnull final Class<?> type) {
+
+            if (!type.isPrimitive()) {
+                return type;
+            }
+
+            return MethodType.methodType(type).wrap().returnType();
+        }
+    }
+
+    /**
+     * Parse the primitive {@code long} directly from the cell.
+     */
+    private static final class LongSetter extends ColumnSetter {
+
+        private final MethodHandle setter;
+        private final CellParser parser;
+
+        private LongSetter(@Nonnull final MethodHandle setter,
+                           @Nonnull final Function<Object, Object> converter,
+                           final int cell,
+                           @Nonnull final CellParser parser) {
+            super(setter, converter, cell);
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, long.class));
+            this.parser = parser;
+        }
+
+        @Override
+        void setCell(@Nonnull final Object pojo,
+                     @Nonnull final FluxTableSchema schema,
+                     @Nonnull final FluxCsvTokenizer row) throws Throwable {
+            setter.invokeExact(pojo, parser.parse(row, cell));
+        }
+    }
+
+    /**
+     * Parse the primitive {@code int} directly from the cell.
+     */
+    private static final class IntSetter extends ColumnSetter {
+
+        private final MethodHandle setter;
+
+        private IntSetter(@Nonnull final MethodHandle setter,
+                          @Nonnull final Function<Object, Object> converter,
+                          final int cell) {
+            super(setter, converter, cell);
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, int.class));
+        }
+
+        @Override
+        void setCell(@Nonnull final Object pojo,
+                     @Nonnull final FluxTableSchema schema,
+                     @Nonnull final FluxCsvTokenizer row) throws Throwable {
+            setter.invokeExact(pojo, (int) row.getLong(cell));
+        }
+    }
+
+    /**
+     * Parse the primitive {@code double} without the boxing.
+     */
+    private static final class DoubleSetter extends ColumnSetter {
+
+        private final MethodHandle setter;
+
+        private DoubleSetter(@Nonnull final MethodHandle setter,
+                             @Nonnull final Function<Object, Object> converter,
+                             final int cell) {
+            super(setter, converter, cell);
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, double.class));
+        }
+
+        @Override
+        void setCell(@Nonnull final Object pojo,
+                     @Nonnull final FluxTableSchema schema,
+                     @Nonnull final FluxCsvTokenizer row) throws Throwable {
+            setter.invokeExact(pojo, Double.parseDouble(row.getString(cell)));
+        }
+    }
+
+    /**
+     * Parse the primitive {@code boolean} directly from the cell.
+     */
+    private static final class BooleanSetter extends ColumnSetter {
+
+        private final MethodHandle setter;
+
+        private BooleanSetter(@Nonnull final MethodHandle setter,
+                              @Nonnull final Function<Object, Object> converter,
+                              final int cell) {
+            super(setter, converter, cell);
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, boolean.class));
+        }
+
+        @Override
+        void setCell(@Nonnull final Object pojo,
+                     @Nonnull final FluxTableSchema schema,
+                     @Nonnull final FluxCsvTokenizer row) throws Throwable {
+            setter.invokeExact(pojo, row.getBoolean(cell));
+        }
+    }
+
+    @FunctionalInterface
+    private interface CellParser {
+        long parse(@Nonnull FluxCsvTokenizer row, int cell);
+    }
+}
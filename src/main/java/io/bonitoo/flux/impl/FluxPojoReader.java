@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the response directly into the POJOs without the intermediate {@link io.bonitoo.flux.dto.FluxRecord}.
+ *
+ * @param <M> the type of POJO
+ * @author Jakub Bednar (bednar@github) (27/08/2018 10:05)
+ * @since 1.0.0
+ */
+final class FluxPojoReader<M> implements FluxResponseReader<M> {
+
+    private final FluxRecordReader reader;
+    private final FluxPojoMapper<M> mapper;
+
+    /**
+     * The tables with same layout share the schema instance, so the binding is resolved once per layout.
+     */
+    private final Map<FluxTableSchema, FluxPojoMapper.Binding<M>> bindings = new IdentityHashMap<>();
+
+    FluxPojoReader(@Nonnull final FluxRecordReader reader, @Nonnull final FluxPojoMapper<M> mapper) {
+
+        Objects.requireNonNull(reader, "FluxRecordReader is required");
+        Objects.requireNonNull(mapper, "FluxPojoMapper is required");
+
+        this.reader = reader;
+        this.mapper = mapper;
+    }
+
+    @Nullable
+    @Override
+    public M next() throws IOException {
+
+        if (!reader.nextRow()) {
+            return null;
+        }
+
+        FluxTableSchema schema = reader.getSchema();
+        FluxPojoMapper.Binding<M> binding = bindings.computeIfAbsent(schema, mapper::bind);
+
+        return binding.map(schema, reader.getRow());
+    }
+}
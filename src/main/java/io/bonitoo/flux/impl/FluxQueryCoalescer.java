@@ -0,0 +1,189 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.flowables.ConnectableFlowable;
+import org.reactivestreams.Subscriber;
+
+/**
+ * Shares one upstream request among the concurrent subscriptions of the identical query.
+ * <p>
+ * The subscriber joins the in-flight query only until the query emits the first result, so every subscriber
+ * receives the complete results. The later subscriber starts the new request. The upstream request is cancelled
+ * when the last subscriber cancels.
+ *
+ * @author Jakub Bednar (bednar@github) (29/08/2018 08:45)
+ * @since 1.0.0
+ */
+@ThreadSafe
+final class FluxQueryCoalescer {
+
+    private final Map<Object, InFlight<?>> inFlights = new HashMap<>();
+
+    /**
+     * @param key      the identity of query
+     * @param upstream the request of query
+     * @param prefetch the count of results that are prefetched for the subscribers
+     * @param <T>      the type of results
+     * @return the {@link Flowable} that shares the in-flight request of the identical query
+     */
+    @Nonnull
+    <T> Flowable<T> coalesce(@Nonnull final Object key, @Nonnull final Flowable<T> upstream, final int prefetch) {
+
+        Objects.requireNonNull(key, "Key is required");
+        Objects.requireNonNull(upstream, "Upstream is required");
+
+        return new Flowable<T>() {
+            @Override
+            protected void subscribeActual(@Nonnull final Subscriber<? super T> subscriber) {
+
+                InFlight<T> inFlight;
+                boolean connect = false;
+
+                synchronized (FluxQueryCoalescer.this) {
+
+                    inFlight = get(key);
+                    if (inFlight == null) {
+                        inFlight = new InFlight<>(key, upstream, prefetch);
+                        inFlights.put(key, inFlight);
+                        connect = true;
+                    }
+
+                    // the results are not emitted under the lock => the subscriber does not miss any result
+                    inFlight.subscribe(subscriber);
+                }
+
+                if (connect) {
+                    inFlight.connect();
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the count of in-flight queries which are joinable
+     */
+    synchronized int size() {
+        return inFlights.size();
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private <T> InFlight<T> get(@Nonnull final Object key) {
+        return (InFlight<T>) inFlights.get(key);
+    }
+
+    private synchronized void remove(@Nonnull final InFlight<?> inFlight) {
+        inFlights.remove(inFlight.key, inFlight);
+    }
+
+    private final class InFlight<T> {
+
+        private final Object key;
+        private final ConnectableFlowable<T> shared;
+
+        private volatile boolean joinable = true;
+        private int subscribers;
+        private Disposable connection;
+        private boolean disposed;
+
+        private InFlight(@Nonnull final Object key, @Nonnull final Flowable<T> upstream, final int prefetch) {
+            this.key = key;
+            this.shared = upstream
+                    .doOnNext(result -> {
+                        if (joinable) {
+                            close();
+                        }
+                    })
+                    .doOnTerminate(this::close)
+                    .publish(prefetch);
+        }
+
+        /**
+         * Stop joining of the subscribers. The lock waits for the subscribers that are joining.
+         */
+        private void close() {
+            synchronized (FluxQueryCoalescer.this) {
+                joinable = false;
+                remove(this);
+            }
+        }
+
+        private void subscribe(@Nonnull final Subscriber<? super T> subscriber) {
+
+            subscribers++;
+
+            shared.doOnCancel(this::cancel).subscribe(subscriber);
+        }
+
+        private void connect() {
+
+            shared.connect(disposable -> {
+
+                boolean dispose;
+                synchronized (FluxQueryCoalescer.this) {
+                    connection = disposable;
+                    dispose = disposed;
+                }
+
+                // all subscribers cancelled before connect
+                if (dispose) {
+                    disposable.dispose();
+                }
+            });
+        }
+
+        private void cancel() {
+
+            Disposable disposable;
+
+            synchronized (FluxQueryCoalescer.this) {
+
+                subscribers--;
+                if (subscribers > 0 || disposed) {
+                    return;
+                }
+
+                disposed = true;
+                joinable = false;
+                remove(this);
+
+                disposable = connection;
+            }
+
+            // the last subscriber => cancel the request
+            if (disposable != null) {
+                disposable.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The deadline of one execution of query. The query is either completed or expired, the first outcome wins.
+ *
+ * @author Jakub Bednar (bednar@github) (04/09/2018 10:40)
+ * @since 1.0.0
+ */
+@ThreadSafe
+final class FluxQueryDeadline {
+
+    private static final int RUNNING = 0;
+    private static final int COMPLETED = 1;
+    private static final int EXPIRED = 2;
+
+    private final long deadlineAt;
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+    /**
+     * @param deadlineNanos the deadline in nanoseconds from now
+     */
+    FluxQueryDeadline(final long deadlineNanos) {
+        this.deadlineAt = System.nanoTime() + deadlineNanos;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} of deadline
+     */
+    long getDeadlineAt() {
+        return deadlineAt;
+    }
+
+    /**
+     * @return {@code true} if the deadline is reached
+     */
+    boolean isReached() {
+        return System.nanoTime() - deadlineAt >= 0;
+    }
+
+    /**
+     * @return {@code true} if the query was completed before the deadline
+     */
+    boolean complete() {
+        return state.compareAndSet(RUNNING, COMPLETED);
+    }
+
+    /**
+     * @return {@code true} if the query expired before it was completed
+     */
+    boolean expire() {
+        return state.compareAndSet(RUNNING, EXPIRED);
+    }
+
+    /**
+     * @return {@code true} if the query expired
+     */
+    boolean isExpired() {
+        return state.get() == EXPIRED;
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Splits the {@code range()} of the rendered Flux query into the time buckets aligned to the epoch
+ * or into the shards of equal width.
+ * <p>
+ * The bucket that ends in the past is closed and its results are immutable. The bucket that contains the current
+ * time and all later time is the open tail of the range. The head bucket of relative start is not closed,
+ * because its start is moved by every query.
+ *
+ * @author Jakub Bednar (bednar@github) (30/08/2018 09:10)
+ * @since 1.0.0
+ */
+final class FluxRangeBuckets {
+
+    private static final Pattern RANGE = Pattern.compile(
+            "range\\(\\s*start\\s*:\\s*(now\\(\\)|[^,)\\s]+)\\s*(?:,\\s*stop\\s*:\\s*(now\\(\\)|[^,)\\s]+)\\s*)?\\)");
+
+    private static final Pattern DURATION = Pattern.compile("(\\d+)(ns|us|µs|ms|s|m|h|d|w)");
+    private static final Pattern DURATIONS = Pattern.compile("-?(?:\\d+(?:ns|us|µs|ms|s|m|h|d|w))+");
+
+    private static final int DAYS_PER_WEEK = 7;
+
+    private static final Map<String, Long> UNITS = new HashMap<>();
+
+    static {
+        UNITS.put("ns", 1L);
+        UNITS.put("us", TimeUnit.MICROSECONDS.toNanos(1));
+        UNITS.put("µs", TimeUnit.MICROSECONDS.toNanos(1));
+        UNITS.put("ms", TimeUnit.MILLISECONDS.toNanos(1));
+        UNITS.put("s", TimeUnit.SECONDS.toNanos(1));
+        UNITS.put("m", TimeUnit.MINUTES.toNanos(1));
+        UNITS.put("h", TimeUnit.HOURS.toNanos(1));
+        UNITS.put("d", TimeUnit.DAYS.toNanos(1));
+        UNITS.put("w", TimeUnit.DAYS.toNanos(DAYS_PER_WEEK));
+    }
+
+    private FluxRangeBuckets() {
+    }
+
+    /**
+     * @param query       the rendered query
+     * @param bucketNanos the duration of bucket in nanoseconds
+     * @param now         the current time
+     * @return the buckets in the time order, {@code null} if the query does not have
+     * the one {@code range()} with the supported bounds
+     */
+    @Nullable
+    static Buckets split(@Nonnull final String query, final long bucketNanos, @Nonnull final Instant now) {
+
+        Objects.requireNonNull(query, "Query is required");
+        Objects.requireNonNull(now, "Now is required");
+
+        long nowNanos = FluxTimeParser.toEpochNanos(now);
+
+        Range range = Range.parse(query, nowNanos);
+        if (range == null) {
+            return null;
+        }
+
+        List<Bucket> buckets = new ArrayList<>();
+
+        // the buckets which end before now are closed
+        long closedEnd = Math.min(range.stop, Math.floorDiv(nowNanos, bucketNanos) * bucketNanos);
+
+        long bucketStart = range.start;
+        while (bucketStart < closedEnd) {
+
+            long bucketStop = Math.min(closedEnd, (Math.floorDiv(bucketStart, bucketNanos) + 1) * bucketNanos);
+
+            // the unaligned head of relative range is a new query every time
+            boolean closed = !range.relativeStart || bucketStart != range.start
+                    || Math.floorMod(bucketStart, bucketNanos) == 0;
+
+            buckets.add(new Bucket(range.render(bucketStart, bucketStop), closed));
+
+            bucketStart = bucketStop;
+        }
+
+        // the open tail
+        if (bucketStart < range.stop) {
+            String tail = range.openStop
+                    ? range.prefix + "range(start:" + FluxTimeParser.toInstant(bucketStart) + ")" + range.suffix
+                    : range.render(bucketStart, range.stop);
+
+            buckets.add(new Bucket(tail, false));
+        }
+
+        return new Buckets(buckets, FluxTimeParser.toInstant(range.start), FluxTimeParser.toInstant(range.stop));
+    }
+
+    /**
+     * @param query         the rendered query
+     * @param maxShards     the maximum count of shards
+     * @param minShardNanos the minimal width of shard in nanoseconds, {@code 0} for the fixed count of shards
+     * @param now           the current time
+     * @return the shards of range in the time order, {@code null} if the query does not have
+     * the one {@code range()} with the supported bounds or if the range is not split
+     */
+    @Nullable
+    static Shards shard(@Nonnull final String query,
+                        final int maxShards,
+                        final long minShardNanos,
+                        @Nonnull final Instant now) {
+
+        Objects.requireNonNull(query, "Query is required");
+        Objects.requireNonNull(now, "Now is required");
+
+        Range range = Range.parse(query, FluxTimeParser.toEpochNanos(now));
+        if (range == null) {
+            return null;
+        }
+
+        long width = range.stop - range.start;
+
+        int count = maxShards;
+        if (minShardNanos > 0) {
+            count = (int) Math.min(maxShards, Math.max(1, (width + minShardNanos - 1) / minShardNanos));
+        }
+
+        if (count <= 1 || width < count) {
+            return null;
+        }
+
+        List<String> queries = new ArrayList<>();
+        long shardStart = range.start;
+        for (int i = 1; i <= count; i++) {
+
+            // without the overflow of width * i
+            long shardStop = i == count ? range.stop : range.start + (width / count) * i + (width % count) * i / count;
+
+            queries.add(range.render(shardStart, shardStop));
+
+            shardStart = shardStop;
+        }
+
+        return new Shards(queries, FluxTimeParser.toInstant(range.start), FluxTimeParser.toInstant(range.stop));
+    }
+
+    /**
+     * @param query the rendered query
+     * @param start the new start of range
+     * @return the query with the {@code range()} narrowed to the start, the stop of range is kept,
+     * {@code null} if the query does not have one {@code range()}
+     */
+    @Nullable
+    static String narrowStart(@Nonnull final String query, @Nonnull final Instant start) {
+
+        Objects.requireNonNull(query, "Query is required");
+        Objects.requireNonNull(start, "Start is required");
+
+        Matcher matcher = RANGE.matcher(query);
+        if (!matcher.find()) {
+            return null;
+        }
+
+        int rangeStart = matcher.start();
+        int rangeEnd = matcher.end();
+        String stopValue = matcher.group(2);
+
+        // more ranges
+        if (matcher.find()) {
+            return null;
+        }
+
+        String range = stopValue == null
+                ? "range(start:" + start + ")"
+                : "range(start:" + start + ", stop:" + stopValue + ")";
+
+        return query.substring(0, rangeStart) + range + query.substring(rangeEnd);
+    }
+
+    /**
+     * @return the epoch nanoseconds of the RFC3339 time or of the duration relative to now,
+     * {@code null} if the value is not supported or if it overflows
+     */
+    @Nullable
+    private static Long parseTime(@Nonnull final String value, final long nowNanos) {
+
+        if ("now()".equals(value)) {
+            return nowNanos;
+        }
+
+        if (DURATIONS.matcher(value).matches()) {
+
+            try {
+                long nanos = 0;
+                Matcher matcher = DURATION.matcher(value);
+                while (matcher.find()) {
+                    long units = Math.multiplyExact(Long.parseLong(matcher.group(1)), UNITS.get(matcher.group(2)));
+                    nanos = Math.addExact(nanos, units);
+                }
+
+                return value.startsWith("-") ? Math.subtractExact(nowNanos, nanos) : Math.addExact(nowNanos, nanos);
+
+            } catch (ArithmeticException | NumberFormatException e) {
+                return null;
+            }
+        }
+
+        try {
+            return FluxTimeParser.toEpochNanos(Instant.parse(value));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    @Nonnull
+    private static String range(final long start, final long stop) {
+        return "range(start:" + FluxTimeParser.toInstant(start) + ", stop:" + FluxTimeParser.toInstant(stop) + ")";
+    }
+
+    /**
+     * The one {@code range()} of query with the supported bounds.
+     */
+    private static final class Range {
+
+        private final String prefix;
+        private final String suffix;
+        private final long start;
+        private final long stop;
+        private final boolean openStop;
+        private final boolean relativeStart;
+
+        private Range(@Nonnull final String prefix,
+                      @Nonnull final String suffix,
+                      final long start,
+                      final long stop,
+                      final boolean openStop,
+                      final boolean relativeStart) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.start = start;
+            this.stop = stop;
+            this.openStop = openStop;
+            this.relativeStart = relativeStart;
+        }
+
+        @Nullable
+        private static Range parse(@Nonnull final String query, final long nowNanos) {
+
+            Matcher matcher = RANGE.matcher(query);
+            if (!matcher.find()) {
+                return null;
+            }
+
+            int rangeStart = matcher.start();
+            int rangeEnd = matcher.end();
+            String startValue = matcher.group(1);
+            String stopValue = matcher.group(2);
+
+            // more ranges
+            if (matcher.find()) {
+                return null;
+            }
+
+            Long start = parseTime(startValue, nowNanos);
+            Long stop = stopValue == null ? Long.valueOf(nowNanos) : parseTime(stopValue, nowNanos);
+            if (start == null || stop == null || start >= stop) {
+                return null;
+            }
+
+            boolean relativeStart = "now()".equals(startValue) || DURATIONS.matcher(startValue).matches();
+
+            return new Range(query.substring(0, rangeStart), query.substring(rangeEnd), start, stop,
+                    stopValue == null, relativeStart);
+        }
+
+        @Nonnull
+        private String render(final long rangeStart, final long rangeStop) {
+            return prefix + range(rangeStart, rangeStop) + suffix;
+        }
+    }
+
+    /**
+     * The queries of shards and the bounds of whole range.
+     */
+    static final class Shards {
+
+        private final List<String> queries;
+        private final Instant start;
+        private final Instant stop;
+
+        private Shards(@Nonnull final List<String> queries, @Nonnull final Instant start, @Nonnull final Instant stop) {
+            this.queries = Collections.unmodifiableList(queries);
+            this.start = start;
+            this.stop = stop;
+        }
+
+        /**
+         * @return the queries restricted to the shards in the time order
+         */
+        @Nonnull
+        List<String> getQueries() {
+            return queries;
+        }
+
+        /**
+         * @return the start of whole range
+         */
+        @Nonnull
+        Instant getStart() {
+            return start;
+        }
+
+        /**
+         * @return the stop of whole range
+         */
+        @Nonnull
+        Instant getStop() {
+            return stop;
+        }
+    }
+
+    /**
+     * The buckets and the bounds of whole range.
+     */
+    static final class Buckets {
+
+        private final List<Bucket> buckets;
+        private final Instant start;
+        private final Instant stop;
+
+        private Buckets(@Nonnull final List<Bucket> buckets,
+                        @Nonnull final Instant start,
+                        @Nonnull final Instant stop) {
+            this.buckets = Collections.unmodifiableList(buckets);
+            this.start = start;
+            this.stop = stop;
+        }
+
+        /**
+         * @return the buckets in the time order
+         */
+        @Nonnull
+        List<Bucket> getBuckets() {
+            return buckets;
+        }
+
+        /**
+         * @return the start of whole range
+         */
+        @Nonnull
+        Instant getStart() {
+            return start;
+        }
+
+        /**
+         * @return the stop of whole range
+         */
+        @Nonnull
+        Instant getStop() {
+            return stop;
+        }
+    }
+
+    /**
+     * The query of one time bucket.
+     */
+    static final class Bucket {
+
+        private final String query;
+        private final boolean closed;
+
+        private Bucket(@Nonnull final String query, final boolean closed) {
+            this.query = query;
+            this.closed = closed;
+        }
+
+        /**
+         * @return the query restricted to the bucket
+         */
+        @Nonnull
+        String getQuery() {
+            return query;
+        }
+
+        /**
+         * @return {@code true} if the bucket ends in the past and its results are immutable and reused
+         * by the next queries
+         */
+        boolean isClosed() {
+            return closed;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.bonitoo.flux.dto.FluxColumnVector;
+import io.bonitoo.flux.dto.FluxRecordBatch;
+
+/**
+ * Reads the response into batches of records stored by columns. The values are parsed directly
+ * into the primitive arrays without the boxing.
+ *
+ * @author Jakub Bednar (bednar@github) (22/08/2018 11:05)
+ * @since 1.0.0
+ */
+final class FluxRecordBatchReader implements FluxResponseReader<FluxRecordBatch> {
+
+    private final FluxRecordReader reader;
+    private final int batchSize;
+
+    /**
+     * The current row of reader belongs to the next batch.
+     */
+    private boolean pending;
+
+    FluxRecordBatchReader(@Nonnull final FluxRecordReader reader, final int batchSize) {
+
+        Objects.requireNonNull(reader, "FluxRecordReader is required");
+
+        this.reader = reader;
+        this.batchSize = batchSize;
+    }
+
+    @Nullable
+    @Override
+    public FluxRecordBatch next() throws IOException {
+
+        BatchBuilder builder = null;
+        for (;;) {
+
+            if (!pending && !reader.nextRow()) {
+                break;
+            }
+            pending = false;
+
+            FluxTableSchema schema = reader.getSchema();
+            if (builder == null) {
+                builder = new BatchBuilder(schema, batchSize);
+            } else if (builder.schema != schema && !builder.schema.equals(schema)) {
+
+                // the row has different layout => start new batch
+                pending = true;
+                break;
+            }
+
+            builder.add(reader.getTable(), reader.getRow());
+            if (builder.size == batchSize) {
+                break;
+            }
+        }
+
+        return builder == null ? null : builder.build();
+    }
+
+    private static final class BatchBuilder {
+
+        private final FluxTableSchema schema;
+        private final int[] tables;
+        private final ColumnBuilder[] columns;
+        private int size;
+
+        private BatchBuilder(@Nonnull final FluxTableSchema schema, final int capacity) {
+
+            this.schema = schema;
+            this.tables = new int[capacity];
+            this.columns = new ColumnBuilder[schema.size()];
+            for (int i = 1; i < schema.size(); i++) {
+                columns[i] = ColumnBuilder
+                        .create(schema.getLabel(i), schema.getDataType(i), schema.getType(i), capacity);
+            }
+        }
+
+        private void add(final int table, @Nonnull final FluxCsvTokenizer row) {
+
+            tables[size] = table;
+            for (int i = 1; i < columns.length; i++) {
+
+                if (!row.isEmpty(i)) {
+                    columns[i].add(size, row, i);
+                    continue;
+                }
+
+                String defaultValue = schema.valueOrDefault(null, i);
+                if (defaultValue == null) {
+                    columns[i].nulls.set(size);
+                } else {
+                    columns[i].add(size, defaultValue);
+                }
+            }
+            size++;
+        }
+
+        @Nonnull
+        private FluxRecordBatch build() {
+
+            List<FluxColumnVector> vectors = new ArrayList<>(columns.length - 1);
+            for (int i = 1; i < columns.length; i++) {
+                vectors.add(columns[i].build(size));
+            }
+
+            // the full batch hands over its arrays, only the last batch is trimmed
+            int[] batchTables = size == tables.length ? tables : Arrays.copyOf(tables, size);
+
+            return new FluxRecordBatch(size, batchTables, vectors);
+        }
+    }
+
+    private abstract static class ColumnBuilder {
+
+        final String label;
+        final String dataType;
+        final BitSet nulls = new BitSet();
+
+        ColumnBuilder(@Nonnull final String label, @Nullable final String dataType) {
+            this.label = label;
+            this.dataType = dataType;
+        }
+
+        abstract void add(int row, @Nonnull String value);
+
+        /**
+         * Add the value directly from the bytes of the cell. The cell is decoded into {@link String} only if
+         * the column does not support parsing from bytes.
+         */
+        void add(final int row, @Nonnull final FluxCsvTokenizer tokens, final int cell) {
+            add(row, tokens.getString(cell));
+        }
+
+        @Nonnull
+        abstract FluxColumnVector build(int size);
+
+        @Nonnull
+        static ColumnBuilder create(@Nonnull final String label,
+                                    @Nullable final String dataType,
+                                    @Nonnull final FluxColumnType type,
+                                    final int capacity) {
+
+            switch (type) {
+                case LONG:
+                case UNSIGNED_LONG:
+                case DURATION:
+                case DATE_TIME:
+                    return new LongBuilder(label, dataType, type, capacity);
+                case DOUBLE:
+                    return new DoubleBuilder(label, dataType, capacity);
+                case BOOLEAN:
+                    return new BooleanBuilder(label, dataType, capacity);
+                case BASE64_BINARY:
+                    return new ObjectBuilder(label, dataType, capacity);
+                case STRING:
+                default:
+                    return new DictionaryBuilder(label, dataType, capacity);
+            }
+        }
+    }
+
+    private static final class LongBuilder extends ColumnBuilder {
+
+        private final long[] values;
+        private final boolean time;
+        private final boolean unsigned;
+
+        private LongBuilder(@Nonnull final String label,
+                            @Nullable final String dataType,
+                            @Nonnull final FluxColumnType type,
+                            final int capacity) {
+            super(label, dataType);
+            this.values = new long[capacity];
+            this.time = type == FluxColumnType.DATE_TIME;
+            this.unsigned = type == FluxColumnType.UNSIGNED_LONG || type == FluxColumnType.DURATION;
+        }
+
+        @Override
+        void add(final int row, @Nonnull final FluxCsvTokenizer tokens, final int cell) {
+            if (time) {
+                values[row] = tokens.getEpochNanos(cell);
+            } else if (unsigned) {
+                add(row, tokens.getString(cell));
+            } else {
+                values[row] = tokens.getLong(cell);
+            }
+        }
+
+        @Override
+        void add(final int row, @Nonnull final String value) {
+            if (time) {
+                values[row] = FluxTimeParser.parseEpochNanos(value);
+            } else if (unsigned) {
+                values[row] = Long.parseUnsignedLong(value);
+            } else {
+                values[row] = Long.parseLong(value);
+            }
+        }
+
+        @Nonnull
+        @Override
+        FluxColumnVector build(final int size) {
+            long[] column = size == values.length ? values : Arrays.copyOf(values, size);
+            return FluxColumnVector.ofLongs(label, dataType, column, nulls);
+        }
+    }
+
+    private static final class DoubleBuilder extends ColumnBuilder {
+
+        private final double[] values;
+
+        private DoubleBuilder(@Nonnull final String label, @Nullable final String dataType, final int capacity) {
+            super(label, dataType);
+            this.values = new double[capacity];
+        }
+
+        @Override
+        void add(final int row, @Nonnull final String value) {
+            values[row] = Double.parseDouble(value);
+        }
+
+        @Nonnull
+        @Override
+        FluxColumnVector build(final int size) {
+            double[] column = size == values.length ? values : Arrays.copyOf(values, size);
+            return FluxColumnVector.ofDoubles(label, dataType, column, nulls);
+        }
+    }
+
+    private static final class BooleanBuilder extends ColumnBuilder {
+
+        private final boolean[] values;
+
+        private BooleanBuilder(@Nonnull final String label, @Nullable final String dataType, final int capacity) {
+            super(label, dataType);
+            this.values = new boolean[capacity];
+        }
+
+        @Override
+        void add(final int row, @Nonnull final FluxCsvTokenizer tokens, final int cell) {
+            values[row] = tokens.getBoolean(cell);
+        }
+
+        @Override
+        void add(final int row, @Nonnull final String value) {
+            values[row] = Boolean.parseBoolean(value);
+        }
+
+        @Nonnull
+        @Override
+        FluxColumnVector build(final int size) {
+            boolean[] column = size == values.length ? values : Arrays.copyOf(values, size);
+            return FluxColumnVector.ofBooleans(label, dataType, column, nulls);
+        }
+    }
+
+    private static final class ObjectBuilder extends ColumnBuilder {
+
+        private final Object[] values;
+
+        private ObjectBuilder(@Nonnull final String label, @Nullable final String dataType, final int capacity) {
+            super(label, dataType);
+            this.values = new Object[capacity];
+        }
+
+        @Override
+        void add(final int row, @Nonnull final String value) {
+            values[row] = Base64.getDecoder().decode(value);
+        }
+
+        @Nonnull
+        @Override
+        FluxColumnVector build(final int size) {
+            Object[] column = size == values.length ? values : Arrays.copyOf(values, size);
+            return FluxColumnVector.ofObjects(label, dataType, column, nulls);
+        }
+    }
+
+    private static final class DictionaryBuilder extends ColumnBuilder {
+
+        private final int[] indexes;
+        private final Map<String, Integer> positions = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+
+        private DictionaryBuilder(@Nonnull final String label, @Nullable final String dataType, final int capacity) {
+            super(label, dataType);
+            this.indexes = new int[capacity];
+        }
+
+        @Override
+        void add(final int row, @Nonnull final FluxCsvTokenizer tokens, final int cell) {
+            add(row, tokens.getPooledString(cell));
+        }
+
+        @Override
+        void add(final int row, @Nonnull final String value) {
+
+            Integer position = positions.get(value);
+            if (position == null) {
+                position = dictionary.size();
+                positions.put(value, position);
+                dictionary.add(value);
+            }
+
+            indexes[row] = position;
+        }
+
+        @Nonnull
+        @Override
+        FluxColumnVector build(final int size) {
+            String[] values = dictionary.toArray(new String[0]);
+            int[] column = size == indexes.length ? indexes : Arrays.copyOf(indexes, size);
+            return FluxColumnVector.ofDictionary(label, dataType, column, values, nulls);
+        }
+    }
+}
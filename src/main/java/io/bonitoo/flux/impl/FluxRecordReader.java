@@ -0,0 +1,324 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.bonitoo.core.InfluxException;
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.option.FluxStringPool;
+
+import okio.BufferedSource;
+
+/**
+ * Pull based reader of the annotated CSV response.
+ * <p>
+ * The reader consumes the {@link BufferedSource} only when the next {@link FluxRecord} is requested,
+ * so the socket is read only as fast as the downstream consumes the records.
+ *
+ * @author Jakub Bednar (bednar@github) (20/08/2018 09:12)
+ * @since 1.0.0
+ */
+final class FluxRecordReader implements FluxResponseReader<FluxRecord> {
+
+    private static final byte[] ANNOTATION_DATATYPE = "#datatype".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ANNOTATION_DEFAULT = "#default".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ANNOTATION_GROUP = "#group".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The maximum count of distinct table layouts cached per response.
+     */
+    private static final int MAX_CACHED_SCHEMAS = 256;
+
+    private final FluxCsvTokenizer row;
+
+    /**
+     * The annotations of the last annotation block. The raw bytes are kept to reuse the parsed values
+     * if the next table has the same annotations.
+     */
+    private byte[] dataTypesRow;
+    private List<String> dataTypes;
+    private boolean dataTypesPresent;
+    private byte[] defaultsRow;
+    private List<String> defaults;
+    private boolean defaultsPresent;
+    private byte[] groupsRow;
+    private List<String> groups;
+    private boolean groupsPresent;
+
+    private final Map<SchemaKey, FluxTableSchema> schemas = new HashMap<>();
+    private SchemaKey schemaKey;
+
+    private FluxTableSchema schema;
+    private int tableIndex;
+
+    /**
+     * The value of {@code table} column of the current table. Flux restarts the value for every yield,
+     * so it is used only to detect the start of next table within the header.
+     */
+    private long tableId;
+    private boolean tableIdPresent;
+
+    /**
+     * @param source      the response or the chunk of response
+     * @param tableOffset the index of first table in the source, the chunk continues the indexes of previous chunks
+     * @param stringPool  the pool of string cells
+     */
+    FluxRecordReader(@Nonnull final BufferedSource source,
+                     final int tableOffset,
+                     @Nullable final FluxStringPool stringPool) {
+
+        Objects.requireNonNull(source, "BufferedSource is required");
+
+        this.row = new FluxCsvTokenizer(source, stringPool);
+        this.tableIndex = tableOffset - 1;
+    }
+
+    @Nullable
+    @Override
+    public FluxRecord next() throws IOException {
+
+        if (!nextRow()) {
+            return null;
+        }
+
+        return toRecord();
+    }
+
+    /**
+     * @return the {@link FluxRecord} of the current row
+     */
+    @Nonnull
+    FluxRecord toRecord() {
+
+        FluxRecord record = new FluxRecord(getTable());
+        for (int i = 1; i < schema.size(); i++) {
+            record.getValues().put(schema.getLabel(i), schema.toValue(row, i));
+        }
+
+        return record;
+    }
+
+    /**
+     * Move to the next data row of the response.
+     *
+     * @return {@code false} if the response is fully read
+     * @throws IOException if the underlying source fails
+     */
+    boolean nextRow() throws IOException {
+
+        for (;;) {
+
+            if (!row.nextRow()) {
+                return false;
+            }
+
+            //
+            // Empty line => start of the new table
+            //
+            if (row.isEmptyRow()) {
+                dataTypesPresent = false;
+                defaultsPresent = false;
+                groupsPresent = false;
+                schema = null;
+                continue;
+            }
+
+            if (row.startsWith(0, '#')) {
+                if (row.contentEquals(0, ANNOTATION_DATATYPE)) {
+                    if (!row.rowEquals(dataTypesRow)) {
+                        dataTypesRow = row.toBytes();
+                        dataTypes = row.toList();
+                    }
+                    dataTypesPresent = true;
+                    defaultsPresent = false;
+                    groupsPresent = false;
+                    schema = null;
+                } else if (row.contentEquals(0, ANNOTATION_DEFAULT)) {
+                    if (!row.rowEquals(defaultsRow)) {
+                        defaultsRow = row.toBytes();
+                        defaults = row.toList();
+                    }
+                    defaultsPresent = true;
+                } else if (row.contentEquals(0, ANNOTATION_GROUP)) {
+                    if (!row.rowEquals(groupsRow)) {
+                        groupsRow = row.toBytes();
+                        groups = row.toList();
+                    }
+                    groupsPresent = true;
+                }
+                continue;
+            }
+
+            //
+            // Header of the table
+            //
+            if (schema == null) {
+                schema = resolveSchema();
+                tableIndex++;
+                tableIdPresent = false;
+                continue;
+            }
+
+            if (schema.isErrorTable()) {
+                String error = row.getString(1);
+                String reference = row.getString(2);
+
+                if (reference == null || reference.isEmpty()) {
+                    throw new InfluxException(error);
+                }
+
+                throw new InfluxException(error + " [reference: " + reference + "]");
+            }
+
+            //
+            // The next table under the same header
+            //
+            int tableColumn = schema.getTableColumn();
+            if (tableColumn > 0 && !row.isEmpty(tableColumn)) {
+                long id = row.getLong(tableColumn);
+                if (tableIdPresent && id != tableId) {
+                    tableIndex++;
+                }
+                tableId = id;
+                tableIdPresent = true;
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Resolve the schema of the table by the raw bytes of the header and annotations. The tables with same layout
+     * share the schema with the resolved converters.
+     */
+    @Nonnull
+    private FluxTableSchema resolveSchema() {
+
+        byte[] dataTypesKey = dataTypesPresent ? dataTypesRow : null;
+        byte[] defaultsKey = defaultsPresent ? defaultsRow : null;
+        byte[] groupsKey = groupsPresent ? groupsRow : null;
+
+        // the same layout as previous table
+        if (schemaKey != null
+                && schemaKey.dataTypes == dataTypesKey
+                && schemaKey.defaults == defaultsKey
+                && schemaKey.groups == groupsKey
+                && row.rowEquals(schemaKey.header)) {
+
+            return schemas.get(schemaKey);
+        }
+
+        SchemaKey key = new SchemaKey(dataTypesKey, defaultsKey, groupsKey, row.toBytes());
+        FluxTableSchema cached = schemas.get(key);
+        if (cached == null) {
+            cached = new FluxTableSchema(row.toList(),
+                    dataTypesPresent ? dataTypes : null,
+                    defaultsPresent ? defaults : null,
+                    groupsPresent ? groups : null);
+
+            if (schemas.size() < MAX_CACHED_SCHEMAS) {
+                schemas.put(key, cached);
+            } else {
+                return cached;
+            }
+        }
+
+        schemaKey = key;
+
+        return cached;
+    }
+
+    /**
+     * @return the schema of the current row
+     */
+    @Nonnull
+    FluxTableSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return the cells of the current row
+     */
+    @Nonnull
+    FluxCsvTokenizer getRow() {
+        return row;
+    }
+
+    /**
+     * @return the index of table of the current row within the response, including the previous chunks
+     */
+    int getTable() {
+        return tableIndex;
+    }
+
+    private static final class SchemaKey {
+
+        private final byte[] dataTypes;
+        private final byte[] defaults;
+        private final byte[] groups;
+        private final byte[] header;
+        private final int hashCode;
+
+        private SchemaKey(@Nullable final byte[] dataTypes,
+                          @Nullable final byte[] defaults,
+                          @Nullable final byte[] groups,
+                          @Nonnull final byte[] header) {
+            this.dataTypes = dataTypes;
+            this.defaults = defaults;
+            this.groups = groups;
+            this.header = header;
+            this.hashCode = Objects.hash(Arrays.hashCode(dataTypes), Arrays.hashCode(defaults),
+                    Arrays.hashCode(groups), Arrays.hashCode(header));
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SchemaKey)) {
+                return false;
+            }
+            SchemaKey that = (SchemaKey) o;
+            return hashCode == that.hashCode
+                    && Arrays.equals(header, that.header)
+                    && Arrays.equals(dataTypes, that.dataTypes)
+                    && Arrays.equals(defaults, that.defaults)
+                    && Arrays.equals(groups, that.groups);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.io.IOException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import okio.BufferedSource;
+
+/**
+ * The reader of the Flux response that produces one item per call.
+ *
+ * @param <T> type of produced items
+ * @author Jakub Bednar (bednar@github) (22/08/2018 09:02)
+ * @since 1.0.0
+ */
+interface FluxResponseReader<T> {
+
+    /**
+     * Read the next item from the response.
+     *
+     * @return the next item or {@code null} if the response is fully read
+     * @throws IOException if the underlying source fails
+     */
+    @Nullable
+    T next() throws IOException;
+
+    /**
+     * Creates the reader of the response or of the chunk of response.
+     *
+     * @param <T> type of produced items
+     */
+    interface Factory<T> {
+
+        /**
+         * @param source      the response or the chunk of response
+         * @param tableOffset the index of first table in the source
+         * @return the reader of source
+         * @throws Exception if the reader cannot be created
+         */
+        @Nonnull
+        FluxResponseReader<T> create(@Nonnull BufferedSource source, int tableOffset) throws Exception;
+    }
+}
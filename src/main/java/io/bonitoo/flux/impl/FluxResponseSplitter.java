@@ -0,0 +1,197 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import okio.Buffer;
+import okio.BufferedSource;
+
+/**
+ * Splits the annotated CSV response into the self-contained chunks which can be parsed independently.
+ * <p>
+ * The response is split only at row boundaries. Every chunk starts with the annotations and the header
+ * of its table, so the reader of chunk does not need the preceding part of response. The chunk carries
+ * the running index of its first table, so the records of chunk keep the table indexes of response.
+ *
+ * @author Jakub Bednar (bednar@github) (25/08/2018 14:10)
+ * @since 1.0.0
+ */
+final class FluxResponseSplitter implements FluxResponseReader<FluxResponseSplitter.Chunk> {
+
+    private static final byte LF = '\n';
+    private static final byte[] TABLE = "table".getBytes(StandardCharsets.US_ASCII);
+
+    private final FluxCsvTokenizer row;
+    private final long chunkSize;
+
+    /**
+     * The annotations and the header of current table.
+     */
+    private final Buffer preamble = new Buffer();
+    private boolean header;
+
+    /**
+     * The running index of current table, the same as {@link FluxRecordReader#getTable()}.
+     */
+    private int tableIndex = -1;
+    private int tableColumn;
+    private long tableId;
+    private boolean tableIdPresent;
+
+    private Buffer chunk = new Buffer();
+    private int chunkRows;
+    private int chunkOffset;
+
+    FluxResponseSplitter(@Nonnull final BufferedSource source, final long chunkSize) {
+
+        Objects.requireNonNull(source, "BufferedSource is required");
+
+        this.row = new FluxCsvTokenizer(source, null);
+        this.chunkSize = chunkSize;
+    }
+
+    @Nullable
+    @Override
+    public Chunk next() throws IOException {
+
+        while (row.nextRow()) {
+
+            //
+            // Empty line => start of the new table
+            //
+            if (row.isEmptyRow()) {
+                chunk.writeByte(LF);
+                preamble.clear();
+                header = false;
+                continue;
+            }
+
+            //
+            // Annotations and header of table are part of every chunk
+            //
+            boolean annotation = row.startsWith(0, '#');
+            if (annotation || !header) {
+
+                // new annotations without the empty line
+                if (annotation && header) {
+                    preamble.clear();
+                }
+                header = !annotation;
+                if (header) {
+                    tableIndex++;
+                    tableColumn = tableColumn();
+                    tableIdPresent = false;
+                }
+
+                row.writeRow(preamble);
+                row.writeRow(chunk);
+                continue;
+            }
+
+            // the next table under the same header
+            if (tableColumn > 0 && tableColumn < row.size() && !row.isEmpty(tableColumn)) {
+                long id = row.getLong(tableColumn);
+                if (tableIdPresent && id != tableId) {
+                    tableIndex++;
+                }
+                tableId = id;
+                tableIdPresent = true;
+            }
+
+            // the row starts the next chunk => the chunk starts by the table of row
+            Chunk completed = chunk.size() >= chunkSize && chunkRows > 0 ? nextChunk() : null;
+
+            row.writeRow(chunk);
+            chunkRows++;
+
+            if (completed != null) {
+                return completed;
+            }
+        }
+
+        return chunkRows > 0 ? nextChunk() : null;
+    }
+
+    @Nonnull
+    private Chunk nextChunk() {
+
+        Chunk completed = new Chunk(chunk, chunkOffset);
+
+        chunk = new Buffer();
+        chunkRows = 0;
+        preamble.copyTo(chunk, 0, preamble.size());
+
+        // the repeated header starts the table of next row
+        chunkOffset = tableIndex;
+
+        return completed;
+    }
+
+    /**
+     * @return the position of {@code table} column in the header, {@code -1} if there is no such column
+     */
+    private int tableColumn() {
+
+        for (int i = 1; i < row.size(); i++) {
+            if (row.contentEquals(i, TABLE)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * The self-contained part of response.
+     */
+    static final class Chunk {
+
+        private final Buffer buffer;
+        private final int tableOffset;
+
+        private Chunk(@Nonnull final Buffer buffer, final int tableOffset) {
+            this.buffer = buffer;
+            this.tableOffset = tableOffset;
+        }
+
+        /**
+         * @return the rows of chunk
+         */
+        @Nonnull
+        Buffer getBuffer() {
+            return buffer;
+        }
+
+        /**
+         * @return the index of first table of chunk
+         */
+        int getTableOffset() {
+            return tableOffset;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import io.bonitoo.flux.dto.FluxRecord;
+
+/**
+ * The state of the resumable query.
+ * <p>
+ * The state tracks the last emitted {@code _time} of every series and the count of records emitted at this time.
+ * The resumed query starts at the last {@code _time} only if the response is one ungrouped table sorted
+ * by the {@code _time}, otherwise the tables which were not received yet could start before it and the original
+ * range is requested again. The records which were already emitted are skipped, the finished series are skipped
+ * whole. The series are identified by the group key without the bounds of range, the records of resumed query
+ * get the table index and the bounds of range of the first response.
+ *
+ * @author Jakub Bednar (bednar@github) (02/09/2018 14:20)
+ * @since 1.0.0
+ */
+@NotThreadSafe
+final class FluxResumeState {
+
+    private static final String START = "_start";
+    private static final String STOP = "_stop";
+    private static final String TIME = "_time";
+    private static final String TABLE = "table";
+
+    private final String query;
+
+    private final Map<Map<String, Object>, Series> series = new HashMap<>();
+    private Series current;
+    private boolean sorted = true;
+    private int attempt = -1;
+
+    private Object start;
+    private Object stop;
+
+    FluxResumeState(@Nonnull final String query) {
+
+        Objects.requireNonNull(query, "Query is required");
+
+        this.query = query;
+    }
+
+    /**
+     * @return the query of the next attempt
+     */
+    @Nonnull
+    String nextQuery() {
+
+        attempt++;
+
+        Instant resumeTime = resumeTime();
+        if (attempt == 0 || resumeTime == null) {
+            return query;
+        }
+
+        String narrowed = FluxRangeBuckets.narrowStart(query, resumeTime);
+
+        return narrowed != null ? narrowed : query;
+    }
+
+    /**
+     * @param row the row of response
+     * @return {@code true} if the row is the record which was not emitted yet
+     */
+    boolean accept(@Nonnull final FluxTableRowReader.Row row) {
+
+        Map<String, Object> key = new HashMap<>(row.getTable().getKey().getGroupKey());
+        key.remove(START);
+        key.remove(STOP);
+
+        Series rowSeries = series.get(key);
+
+        if (row.isEndOfTable()) {
+            if (rowSeries != null) {
+                rowSeries.finished = true;
+            }
+            return false;
+        }
+
+        if (rowSeries == null) {
+            rowSeries = new Series(series.size(), attempt);
+            series.put(key, rowSeries);
+        }
+
+        if (rowSeries.finished) {
+            return false;
+        }
+
+        // the first record of series in the resumed query => skip the records emitted at the last time
+        if (rowSeries.attempt != attempt) {
+            rowSeries.attempt = attempt;
+            rowSeries.resumedAt = rowSeries.lastTime;
+            rowSeries.skip = rowSeries.countAtLastTime;
+        }
+
+        Object value = row.getRecord().getValues().get(TIME);
+        Instant time = value instanceof Instant ? (Instant) value : null;
+
+        // the records before the last time of previous attempt were already emitted
+        if (time != null && rowSeries.resumedAt != null && time.isBefore(rowSeries.resumedAt)) {
+            return false;
+        }
+
+        // the series which is not sorted by the time cannot be narrowed
+        if (time != null && rowSeries.lastTime != null && time.isBefore(rowSeries.lastTime)) {
+            sorted = false;
+            current = rowSeries;
+            return true;
+        }
+
+        if (Objects.equals(time, rowSeries.lastTime) && rowSeries.skip > 0) {
+            rowSeries.skip--;
+            return false;
+        }
+
+        if (Objects.equals(time, rowSeries.lastTime)) {
+            rowSeries.countAtLastTime++;
+        } else {
+            rowSeries.lastTime = time;
+            rowSeries.countAtLastTime = 1;
+            rowSeries.skip = 0;
+        }
+
+        current = rowSeries;
+
+        return true;
+    }
+
+    /**
+     * @param row the accepted row
+     * @return the record with the table index and the range of the first response
+     */
+    @Nonnull
+    FluxRecord toRecord(@Nonnull final FluxTableRowReader.Row row) {
+
+        FluxRecord rowRecord = Objects.requireNonNull(row.getRecord(), "The end of table is not the record");
+
+        FluxRecord record = new FluxRecord(current.table);
+
+        Map<String, Object> values = record.getValues();
+        values.putAll(rowRecord.getValues());
+
+        if (values.containsKey(TABLE)) {
+            values.put(TABLE, (long) current.table);
+        }
+
+        if (attempt == 0) {
+            if (start == null) {
+                start = values.get(START);
+                stop = values.get(STOP);
+            }
+        } else {
+            if (start != null && values.containsKey(START)) {
+                values.put(START, start);
+            }
+            if (stop != null && values.containsKey(STOP)) {
+                values.put(STOP, stop);
+            }
+        }
+
+        return record;
+    }
+
+    /**
+     * @return the last time of the only series, {@code null} if the query cannot be narrowed
+     */
+    @Nullable
+    private Instant resumeTime() {
+
+        if (!sorted || series.size() != 1) {
+            return null;
+        }
+
+        // the grouped table or the finished series can be followed by the tables which were not received yet
+        Map.Entry<Map<String, Object>, Series> only = series.entrySet().iterator().next();
+        if (!only.getKey().isEmpty() || only.getValue().finished) {
+            return null;
+        }
+
+        return only.getValue().lastTime;
+    }
+
+    private static final class Series {
+
+        private final int table;
+        private int attempt;
+
+        private Instant lastTime;
+        private Instant resumedAt;
+        private int countAtLastTime;
+        private int skip;
+        private boolean finished;
+
+        private Series(final int table, final int attempt) {
+            this.table = table;
+            this.attempt = attempt;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import io.bonitoo.flux.dto.FluxRecord;
+
+/**
+ * Merges the records of time shards or buckets into the records of whole range.
+ * <p>
+ * The shards are disjoint and they are emitted in the time order, so the records of series are in the {@code _time}
+ * order. The tables of shards are identified by the group key without the bounds of shard, the records get
+ * the stable index of table and the bounds of whole range.
+ *
+ * @author Jakub Bednar (bednar@github) (31/08/2018 10:05)
+ * @since 1.0.0
+ */
+@NotThreadSafe
+final class FluxShardRecords {
+
+    private static final String START = "_start";
+    private static final String STOP = "_stop";
+    private static final String TABLE = "table";
+
+    private final Instant start;
+    private final Instant stop;
+
+    private final Map<Map<String, Object>, Integer> tables = new HashMap<>();
+
+    FluxShardRecords(@Nonnull final Instant start, @Nonnull final Instant stop) {
+
+        Objects.requireNonNull(start, "Start is required");
+        Objects.requireNonNull(stop, "Stop is required");
+
+        this.start = start;
+        this.stop = stop;
+    }
+
+    /**
+     * @param row the row of shard
+     * @return the record of whole range
+     */
+    @Nonnull
+    FluxRecord toRecord(@Nonnull final FluxTableRowReader.Row row) {
+
+        FluxRecord shardRecord = Objects.requireNonNull(row.getRecord(), "The end of table is not the record");
+
+        Map<String, Object> series = new HashMap<>(row.getTable().getKey().getGroupKey());
+        series.remove(START);
+        series.remove(STOP);
+
+        Integer table = tables.get(series);
+        if (table == null) {
+            table = tables.size();
+            tables.put(series, table);
+        }
+
+        FluxRecord record = new FluxRecord(table);
+
+        Map<String, Object> values = record.getValues();
+        values.putAll(shardRecord.getValues());
+        if (values.containsKey(TABLE)) {
+            values.put(TABLE, (long) table);
+        }
+        if (values.containsKey(START)) {
+            values.put(START, start);
+        }
+        if (values.containsKey(STOP)) {
+            values.put(STOP, stop);
+        }
+
+        return record;
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.dto.FluxTableKey;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.flowables.GroupedFlowable;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * The rows of response split into the Flux tables. The tables arrive one after another, so the rows are routed
+ * to the current table without a lookup and the table completes at its end of table marker.
+ * <p>
+ * The next table is emitted after the end of current table, so every table has to be subscribed. The rows
+ * are read only as fast as the tables and their records are requested.
+ *
+ * @author Jakub Bednar (bednar@github) (27/08/2018 15:20)
+ * @since 1.0.0
+ */
+final class FluxTableFlowable extends Flowable<GroupedFlowable<FluxTableKey, FluxRecord>> {
+
+    private final Publisher<FluxTableRowReader.Row> rows;
+    private final int prefetch;
+
+    /**
+     * @param rows     the rows of response followed by the end of table markers
+     * @param prefetch the count of rows which are read ahead
+     */
+    FluxTableFlowable(@Nonnull final Publisher<FluxTableRowReader.Row> rows, final int prefetch) {
+        this.rows = rows;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    protected void subscribeActual(
+            @Nonnull final Subscriber<? super GroupedFlowable<FluxTableKey, FluxRecord>> subscriber) {
+
+        rows.subscribe(new Splitter(subscriber, prefetch));
+    }
+
+    private static void add(@Nonnull final AtomicLong requested, final long n) {
+
+        for (;;) {
+            long current = requested.get();
+            long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            if (requested.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private static void produced(@Nonnull final AtomicLong requested) {
+
+        if (requested.get() != Long.MAX_VALUE) {
+            requested.decrementAndGet();
+        }
+    }
+
+    private static final class Splitter implements FlowableSubscriber<FluxTableRowReader.Row>, Subscription {
+
+        private final Subscriber<? super GroupedFlowable<FluxTableKey, FluxRecord>> downstream;
+        private final int prefetch;
+        private final int limit;
+
+        private final Queue<FluxTableRowReader.Row> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private Subscription upstream;
+        private Throwable error;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+
+        // the state of drain loop
+        private Table table;
+        private boolean terminated;
+        private int consumed;
+
+        private Splitter(@Nonnull final Subscriber<? super GroupedFlowable<FluxTableKey, FluxRecord>> downstream,
+                         final int prefetch) {
+
+            this.downstream = downstream;
+            this.prefetch = prefetch;
+            this.limit = Math.max(1, prefetch - (prefetch >> 2));
+        }
+
+        @Override
+        public void onSubscribe(@Nonnull final Subscription subscription) {
+
+            upstream = subscription;
+            downstream.onSubscribe(this);
+            subscription.request(prefetch);
+        }
+
+        @Override
+        public void onNext(@Nonnull final FluxTableRowReader.Row row) {
+
+            queue.offer(row);
+            drain();
+        }
+
+        @Override
+        public void onError(@Nonnull final Throwable throwable) {
+
+            error = throwable;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(final long n) {
+
+            if (n > 0) {
+                add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                drainRows();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainRows() {
+
+            for (;;) {
+
+                Table current = table;
+
+                // the canceled tables stop the response after the end of current table
+                if (cancelled && (current == null || current.cancelled)) {
+                    if (!terminated) {
+                        terminated = true;
+                        upstream.cancel();
+                    }
+                    table = null;
+                    queue.clear();
+                    return;
+                }
+
+                FluxTableRowReader.Row row = queue.peek();
+                if (row == null) {
+                    if (done) {
+                        terminate(current);
+                    }
+                    return;
+                }
+
+                if (current == null) {
+
+                    if (row.isEndOfTable()) {
+                        next();
+                        continue;
+                    }
+
+                    // the table starts by its first record
+                    if (requested.get() == 0) {
+                        return;
+                    }
+
+                    produced(requested);
+                    table = new Table(this, row.getTable().getKey());
+                    downstream.onNext(table);
+                    continue;
+                }
+
+                if (current.cancelled) {
+                    next();
+                    if (row.isEndOfTable()) {
+                        table = null;
+                    }
+                    continue;
+                }
+
+                Subscriber<? super FluxRecord> subscriber = current.subscriber;
+                if (subscriber == null) {
+                    return;
+                }
+
+                if (row.isEndOfTable()) {
+                    next();
+                    table = null;
+                    subscriber.onComplete();
+                    continue;
+                }
+
+                if (current.requested.get() == 0) {
+                    return;
+                }
+
+                next();
+                produced(current.requested);
+                subscriber.onNext(row.getRecord());
+            }
+        }
+
+        /**
+         * Remove the head of queue and replenish the read ahead rows.
+         */
+        private void next() {
+
+            queue.poll();
+
+            if (++consumed == limit) {
+                consumed = 0;
+                upstream.request(limit);
+            }
+        }
+
+        /**
+         * The end of response terminates the current table as soon as it is subscribed.
+         */
+        private void terminate(@Nullable final Table current) {
+
+            if (current != null) {
+                Subscriber<? super FluxRecord> subscriber = current.subscriber;
+                if (current.cancelled) {
+                    table = null;
+                } else if (subscriber != null) {
+                    table = null;
+                    signal(subscriber);
+                }
+            }
+
+            if (!terminated) {
+                terminated = true;
+                if (!cancelled) {
+                    signal(downstream);
+                }
+            }
+        }
+
+        private void signal(@Nonnull final Subscriber<?> subscriber) {
+
+            if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+    }
+
+    /**
+     * The records of one Flux table. The table allows only one subscriber.
+     */
+    private static final class Table extends GroupedFlowable<FluxTableKey, FluxRecord> implements Subscription {
+
+        private final Splitter parent;
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+        private final AtomicLong requested = new AtomicLong();
+
+        private volatile Subscriber<? super FluxRecord> subscriber;
+        private volatile boolean cancelled;
+
+        private Table(@Nonnull final Splitter parent, @Nonnull final FluxTableKey key) {
+
+            super(key);
+
+            this.parent = parent;
+        }
+
+        @Override
+        protected void subscribeActual(@Nonnull final Subscriber<? super FluxRecord> subscriber) {
+
+            if (!subscribed.compareAndSet(false, true)) {
+                Flowable.<FluxRecord>error(new IllegalStateException("The table allows only one subscriber"))
+                        .subscribe(subscriber);
+                return;
+            }
+
+            subscriber.onSubscribe(this);
+            this.subscriber = subscriber;
+            parent.drain();
+        }
+
+        @Override
+        public void request(final long n) {
+
+            if (n > 0) {
+                add(requested, n);
+                parent.drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+
+            cancelled = true;
+            parent.drain();
+        }
+    }
+}
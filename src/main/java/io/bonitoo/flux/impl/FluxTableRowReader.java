@@ -0,0 +1,157 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.dto.FluxTableKey;
+
+/**
+ * Reads the response as the rows tagged by their table. The last row of every table is followed
+ * by the end of table marker.
+ *
+ * @author Jakub Bednar (bednar@github) (27/08/2018 14:50)
+ * @since 1.0.0
+ */
+final class FluxTableRowReader implements FluxResponseReader<FluxTableRowReader.Row> {
+
+    private final FluxRecordReader reader;
+
+    private Table table;
+    private int tableIndex = -1;
+
+    private Row pending;
+    private boolean completed;
+
+    FluxTableRowReader(@Nonnull final FluxRecordReader reader) {
+
+        Objects.requireNonNull(reader, "FluxRecordReader is required");
+
+        this.reader = reader;
+    }
+
+    @Nullable
+    @Override
+    public Row next() throws IOException {
+
+        if (pending != null) {
+            Row next = pending;
+            pending = null;
+            return next;
+        }
+
+        if (completed) {
+            return null;
+        }
+
+        if (!reader.nextRow()) {
+            completed = true;
+            return table != null ? new Row(table, null) : null;
+        }
+
+        Table previous = table;
+        if (table == null || reader.getTable() != tableIndex) {
+
+            tableIndex = reader.getTable();
+            table = new Table(new FluxTableKey(tableIndex, groupKey(reader.getSchema(), reader.getRow())));
+        }
+
+        Row row = new Row(table, reader.toRecord());
+
+        // the end of previous table
+        if (previous != null && previous != table) {
+            pending = row;
+            return new Row(previous, null);
+        }
+
+        return row;
+    }
+
+    @Nonnull
+    private Map<String, Object> groupKey(@Nonnull final FluxTableSchema schema, @Nonnull final FluxCsvTokenizer row) {
+
+        Map<String, Object> groupKey = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> column : schema.getColumns().entrySet()) {
+            if (schema.isGroup(column.getValue())) {
+                groupKey.put(column.getKey(), schema.toValue(row, column.getValue()));
+            }
+        }
+
+        return groupKey;
+    }
+
+    /**
+     * The identity of one table in the response. Two tables with the equal {@link FluxTableKey} are still
+     * different tables.
+     */
+    static final class Table {
+
+        private final FluxTableKey key;
+
+        private Table(@Nonnull final FluxTableKey key) {
+            this.key = key;
+        }
+
+        @Nonnull
+        FluxTableKey getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * The record of table or the end of table marker.
+     */
+    static final class Row {
+
+        private final Table table;
+        private final FluxRecord record;
+
+        private Row(@Nonnull final Table table, @Nullable final FluxRecord record) {
+            this.table = table;
+            this.record = record;
+        }
+
+        @Nonnull
+        Table getTable() {
+            return table;
+        }
+
+        /**
+         * @return the record or {@code null} for the end of table marker
+         */
+        @Nullable
+        FluxRecord getRecord() {
+            return record;
+        }
+
+        boolean isEndOfTable() {
+            return record == null;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The layout of the table in the annotated CSV response - the column labels, data types, group flags and default
+ * values.
+ *
+ * @author Jakub Bednar (bednar@github) (22/08/2018 08:31)
+ * @since 1.0.0
+ */
+final class FluxTableSchema {
+
+    private final List<String> labels;
+    private final List<String> dataTypes;
+    private final List<String> defaults;
+    private final List<String> groups;
+
+    private final int tableColumn;
+    private final boolean errorTable;
+
+    private final FluxColumnType[] types;
+    private final String[] defaultCells;
+    private final Object[] defaultValues;
+    private final Map<String, Integer> columns;
+
+    FluxTableSchema(@Nonnull final List<String> labels,
+                    @Nullable final List<String> dataTypes,
+                    @Nullable final List<String> defaults,
+                    @Nullable final List<String> groups) {
+
+        Objects.requireNonNull(labels, "Labels are required");
+
+        this.labels = labels;
+        this.dataTypes = dataTypes;
+        this.defaults = defaults;
+        this.groups = groups;
+
+        this.tableColumn = labels.indexOf("table");
+        this.errorTable = labels.size() > 2 && "error".equals(labels.get(1)) && "reference".equals(labels.get(2));
+
+        //
+        // Resolve the converters and default values only once per layout
+        //
+        this.types = new FluxColumnType[labels.size()];
+        this.defaultCells = new String[labels.size()];
+        this.defaultValues = new Object[labels.size()];
+        Map<String, Integer> labelIndexes = new LinkedHashMap<>();
+        for (int i = 0; i < labels.size(); i++) {
+            if (i > 0) {
+                labelIndexes.put(labels.get(i), i);
+            }
+            types[i] = FluxColumnType.of(cell(dataTypes, i));
+
+            String defaultCell = cell(defaults, i);
+            if (defaultCell != null && !defaultCell.isEmpty()) {
+                defaultCells[i] = defaultCell;
+                defaultValues[i] = types[i].parse(defaultCell);
+            }
+        }
+        this.columns = Collections.unmodifiableMap(labelIndexes);
+    }
+
+    /**
+     * @return the count of columns including the annotation column
+     */
+    int size() {
+        return labels.size();
+    }
+
+    /**
+     * @return index of the {@code table} column or {@code -1}
+     */
+    int getTableColumn() {
+        return tableColumn;
+    }
+
+    /**
+     * @return {@code true} if the table describes an error of query
+     */
+    boolean isErrorTable() {
+        return errorTable;
+    }
+
+    @Nonnull
+    String getLabel(final int column) {
+        return labels.get(column);
+    }
+
+    @Nullable
+    String getDataType(final int column) {
+        return cell(dataTypes, column);
+    }
+
+    /**
+     * @return the labels of columns mapped to the indexes of cells, without the annotation column
+     */
+    @Nonnull
+    Map<String, Integer> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return {@code true} if the column is part of the group key of table
+     */
+    boolean isGroup(final int column) {
+        return "true".equals(cell(groups, column));
+    }
+
+    @Nonnull
+    FluxColumnType getType(final int column) {
+        return types[column];
+    }
+
+    /**
+     * @return the value of cell or the default value of column if the cell is empty
+     */
+    @Nullable
+    String valueOrDefault(@Nullable final String value, final int column) {
+
+        if (value == null || value.isEmpty()) {
+            return column < defaultCells.length ? defaultCells[column] : null;
+        }
+
+        return value;
+    }
+
+    /**
+     * Convert the cell of current row into the value.
+     *
+     * @return the value with type by the {@code #datatype} annotation
+     */
+    @Nullable
+    Object toValue(@Nonnull final FluxCsvTokenizer row, final int column) {
+
+        if (row.isEmpty(column)) {
+            Object defaultValue = column < defaultValues.length ? defaultValues[column] : null;
+            if (defaultValue instanceof byte[]) {
+                return ((byte[]) defaultValue).clone();
+            }
+
+            return defaultValue;
+        }
+
+        return types[column].read(row, column);
+    }
+
+    @Nullable
+    static String cell(@Nullable final List<String> row, final int index) {
+
+        if (row == null || index >= row.size()) {
+            return null;
+        }
+
+        return row.get(index);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FluxTableSchema)) {
+            return false;
+        }
+        FluxTableSchema that = (FluxTableSchema) o;
+        return Objects.equals(labels, that.labels)
+                && Objects.equals(dataTypes, that.dataTypes)
+                && Objects.equals(defaults, that.defaults)
+                && Objects.equals(groups, that.groups);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(labels, dataTypes, defaults, groups);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import io.bonitoo.flux.dto.FluxRecord;
+
+/**
+ * The watermark of tailed query. The polls are executed sequentially, every poll starts at the last observed
+ * {@code _time} minus the grace and the records which were already emitted in the grace window are filtered out.
+ *
+ * @author Jakub Bednar (bednar@github) (30/08/2018 14:40)
+ * @since 1.0.0
+ */
+@NotThreadSafe
+final class FluxTailState {
+
+    private final String query;
+    private final long graceNanos;
+
+    /**
+     * The emitted records of the grace window by their {@code _time}.
+     */
+    private final TreeMap<Long, Set<Map<String, Object>>> emitted = new TreeMap<>();
+
+    private Long watermark;
+    private Long observed;
+
+    /**
+     * @param query      the rendered query with one {@code range()}
+     * @param graceNanos the window of late records
+     */
+    FluxTailState(@Nonnull final String query, final long graceNanos) {
+
+        Objects.requireNonNull(query, "Query is required");
+
+        this.query = query;
+        this.graceNanos = graceNanos;
+    }
+
+    /**
+     * Advance the watermark to the last observed {@code _time}.
+     *
+     * @return the query of next poll
+     */
+    @Nonnull
+    String nextQuery() {
+
+        if (observed == null) {
+            return query;
+        }
+
+        watermark = observed;
+
+        long start = watermark - graceNanos;
+
+        // the older records are not requested
+        emitted.headMap(start).clear();
+
+        Instant instant = FluxTimeParser.toInstant(start);
+
+        return Objects.requireNonNull(FluxRangeBuckets.narrowStart(query, instant), "The query without range()");
+    }
+
+    /**
+     * @param record the record of poll
+     * @return {@code true} if the record was not emitted yet
+     */
+    boolean isNew(@Nonnull final FluxRecord record) {
+
+        Instant time = record.getTime();
+        if (time == null) {
+            return true;
+        }
+
+        long nanos = FluxTimeParser.toEpochNanos(time);
+        if (watermark != null && nanos < watermark - graceNanos) {
+            return false;
+        }
+
+        // the index of table and the bounds of range are not stable between polls
+        Map<String, Object> values = new HashMap<>(record.getValues());
+        values.remove("table");
+        values.remove("_start");
+        values.remove("_stop");
+
+        Set<Map<String, Object>> sameTime = emitted.get(nanos);
+        if (sameTime != null && sameTime.contains(values)) {
+            return false;
+        }
+
+        if (observed == null || nanos > observed) {
+            observed = nanos;
+        }
+
+        // only the records of the grace window are requested again
+        if (nanos >= observed - graceNanos) {
+            emitted.computeIfAbsent(nanos, key -> new HashSet<>()).add(values);
+        }
+
+        return true;
+    }
+}
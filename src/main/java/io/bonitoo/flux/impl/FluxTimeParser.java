@@ -0,0 +1,217 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import javax.annotation.Nonnull;
+
+/**
+ * The parser of the RFC3339 timestamps into nanoseconds since epoch.
+ * <p>
+ * The fast path supports the shape which is produced by the Flux server: {@code YYYY-MM-DDThh:mm:ss[.fffffffff]Z}.
+ * Other shapes are parsed by {@link Instant#parse(CharSequence)}.
+ *
+ * @author Jakub Bednar (bednar@github) (24/08/2018 09:30)
+ * @since 1.0.0
+ */
+final class FluxTimeParser {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int SECONDS_PER_HOUR = 3_600;
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final int DAYS_PER_YEAR = 365;
+    private static final int MAX_FRACTION_DIGITS = 9;
+    private static final int RADIX = 10;
+
+    /**
+     * Days from 0001-01-01 to 1970-01-01 in the proleptic Gregorian calendar.
+     */
+    private static final long DAYS_TO_EPOCH = 719_162L;
+
+    private static final int[] DAYS_BEFORE_MONTH = {0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334};
+    private static final int[] DAYS_IN_MONTH = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final long[] FRACTION_SCALE = {
+            1L, 100_000_000L, 10_000_000L, 1_000_000L, 100_000L, 10_000L, 1_000L, 100L, 10L, 1L};
+
+    // positions of the separators in "YYYY-MM-DDThh:mm:ss"
+    private static final int YEAR = 0;
+    private static final int MONTH = 5;
+    private static final int DAY = 8;
+    private static final int HOUR = 11;
+    private static final int MINUTE = 14;
+    private static final int SECOND = 17;
+    private static final int FRACTION = 19;
+
+    private static final int LEAP_YEAR_CYCLE = 4;
+    private static final int CENTURY = 100;
+    private static final int GREGORIAN_CYCLE = 400;
+    private static final int FEBRUARY = 2;
+    private static final int MONTHS = 12;
+    private static final int HOURS = 23;
+    private static final int MINUTES = 59;
+
+    private FluxTimeParser() {
+    }
+
+    /**
+     * Parse the RFC3339 timestamp.
+     *
+     * @param bytes the ASCII bytes of timestamp
+     * @param start the index of first byte
+     * @param end   the index after the last byte
+     * @return the nanoseconds since epoch
+     */
+    static long parseEpochNanos(@Nonnull final byte[] bytes, final int start, final int end) {
+
+        int length = end - start;
+        if (length < FRACTION + 1
+                || bytes[start + MONTH - 1] != '-' || bytes[start + DAY - 1] != '-'
+                || (bytes[start + HOUR - 1] != 'T' && bytes[start + HOUR - 1] != 't')
+                || bytes[start + MINUTE - 1] != ':' || bytes[start + SECOND - 1] != ':'
+                || (bytes[end - 1] != 'Z' && bytes[end - 1] != 'z')) {
+
+            return slowPath(bytes, start, end);
+        }
+
+        int year = digits(bytes, start + YEAR, MONTH - 1);
+        int month = digits(bytes, start + MONTH, 2);
+        int day = digits(bytes, start + DAY, 2);
+        int hour = digits(bytes, start + HOUR, 2);
+        int minute = digits(bytes, start + MINUTE, 2);
+        int second = digits(bytes, start + SECOND, 2);
+
+        if (year < 0 || month < 1 || month > MONTHS || day < 1 || day > DAYS_IN_MONTH[month - 1]
+                || hour < 0 || hour > HOURS || minute < 0 || minute > MINUTES || second < 0 || second > MINUTES
+                || (month == FEBRUARY && day == DAYS_IN_MONTH[1] && !isLeapYear(year))) {
+
+            return slowPath(bytes, start, end);
+        }
+
+        //
+        // Optional fraction of second
+        //
+        long fraction = 0;
+        int position = start + FRACTION;
+        if (position < end - 1) {
+
+            int fractionDigits = end - 1 - position - 1;
+            if (bytes[position] != '.' || fractionDigits < 1 || fractionDigits > MAX_FRACTION_DIGITS) {
+                return slowPath(bytes, start, end);
+            }
+
+            int value = digits(bytes, position + 1, fractionDigits);
+            if (value < 0) {
+                return slowPath(bytes, start, end);
+            }
+            fraction = value * FRACTION_SCALE[fractionDigits];
+        }
+
+        long epochDay = daysBeforeYear(year) - DAYS_TO_EPOCH + DAYS_BEFORE_MONTH[month - 1] + day - 1;
+        if (month > FEBRUARY && isLeapYear(year)) {
+            epochDay++;
+        }
+
+        long seconds = epochDay * SECONDS_PER_DAY + hour * SECONDS_PER_HOUR + minute * SECONDS_PER_MINUTE + second;
+
+        return toEpochNanos(seconds, fraction);
+    }
+
+    /**
+     * Parse the RFC3339 timestamp.
+     *
+     * @param value the timestamp
+     * @return the nanoseconds since epoch
+     */
+    static long parseEpochNanos(@Nonnull final String value) {
+
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+
+        return parseEpochNanos(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @return the nanoseconds since epoch of the {@code instant}
+     */
+    static long toEpochNanos(@Nonnull final Instant instant) {
+        return toEpochNanos(instant.getEpochSecond(), instant.getNano());
+    }
+
+    /**
+     * @return the {@link Instant} of the nanoseconds since epoch
+     */
+    @Nonnull
+    static Instant toInstant(final long epochNanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                Math.floorMod(epochNanos, NANOS_PER_SECOND));
+    }
+
+    private static long toEpochNanos(final long seconds, final long nanos) {
+
+        // prevent overflow for the minimal time
+        if (seconds < 0 && nanos > 0) {
+            return Math.addExact(Math.multiplyExact(seconds + 1, NANOS_PER_SECOND), nanos - NANOS_PER_SECOND);
+        }
+
+        return Math.addExact(Math.multiplyExact(seconds, NANOS_PER_SECOND), nanos);
+    }
+
+    private static long slowPath(@Nonnull final byte[] bytes, final int start, final int end) {
+
+        String value = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+
+        return toEpochNanos(Instant.parse(value));
+    }
+
+    /**
+     * @return the parsed positive number or {@code -1} if the bytes are not digits
+     */
+    private static int digits(@Nonnull final byte[] bytes, final int start, final int count) {
+
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            byte digit = bytes[i];
+            if (digit < '0' || digit > '9') {
+                return -1;
+            }
+            value = value * RADIX + (digit - '0');
+        }
+
+        return value;
+    }
+
+    private static boolean isLeapYear(final int year) {
+        return year % LEAP_YEAR_CYCLE == 0 && (year % CENTURY != 0 || year % GREGORIAN_CYCLE == 0);
+    }
+
+    private static long daysBeforeYear(final int year) {
+
+        long previous = year - 1L;
+
+        return previous * DAYS_PER_YEAR
+                + Math.floorDiv(previous, LEAP_YEAR_CYCLE)
+                - Math.floorDiv(previous, CENTURY)
+                + Math.floorDiv(previous, GREGORIAN_CYCLE);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * The executor of virtual threads which is available on the Java 21+ runtime.
+ * <p>
+ * The client is compiled for Java 8, so the executor is created reflectively
+ * by {@code Executors.newVirtualThreadPerTaskExecutor()}.
+ *
+ * @author Jakub Bednar (bednar@github) (28/08/2018 16:05)
+ * @since 1.0.0
+ */
+final class FluxVirtualThreads {
+
+    private static final Logger LOG = Logger.getLogger(FluxVirtualThreads.class.getName());
+
+    private static final Method FACTORY = lookupFactory();
+
+    private FluxVirtualThreads() {
+    }
+
+    /**
+     * @return the executor which runs every task on a new virtual thread,
+     * {@code null} if the runtime does not support the virtual threads
+     */
+    @Nullable
+    static ExecutorService newExecutor() {
+
+        if (FACTORY == null) {
+            return null;
+        }
+
+        try {
+            return (ExecutorService) FACTORY.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOG.log(Level.WARNING, "The virtual threads executor cannot be created.", e);
+
+            return null;
+        }
+    }
+
+    @Nullable
+    private static Method lookupFactory() {
+        try {
+            return java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,497 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.option;
+
+import java.time.Duration;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The circuit breaker which stops sending the queries to the failing server.
+ * <p>
+ * The breaker records the outcome of the last {@link Builder#windowSize(int)} requests. It opens when the rate
+ * of failed requests reaches the {@link Builder#failureRateThreshold(double)} or the rate of requests whose time
+ * to first byte exceeds the {@link Builder#slowCallDuration(Duration)} reaches
+ * the {@link Builder#slowCallRateThreshold(double)}. The open breaker fails the queries immediately
+ * by the {@link FluxCircuitOpenException}. After the {@link Builder#openDuration(Duration)} the breaker is half-open
+ * and lets the {@link Builder#halfOpenCalls(int)} trial queries through - the breaker closes when all trial queries
+ * succeed and opens again when any of them fails.
+ * <p>
+ * The breaker is shared by all queries which use the {@link FluxReactiveOptions}.
+ *
+ * @author Jakub Bednar (bednar@github) (02/09/2018 09:30)
+ * @since 1.0.0
+ */
+@ThreadSafe
+public final class FluxCircuitBreaker {
+
+    private static final int DEFAULT_WINDOW_SIZE = 20;
+    private static final int DEFAULT_MINIMUM_CALLS = 10;
+    private static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+    private static final Duration DEFAULT_SLOW_CALL_DURATION = Duration.ofSeconds(5);
+    private static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    private static final int FAILURE = 1;
+    private static final int SLOW = 2;
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final Duration openDuration;
+    private final int halfOpenCalls;
+
+    // guarded by this
+    private final int[] window;
+    private int windowIndex;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAt;
+    private int trialsInFlight;
+    private int trialsSucceeded;
+
+    /**
+     * The state of circuit breaker.
+     */
+    public enum State {
+
+        /**
+         * The queries are sent to the server.
+         */
+        CLOSED,
+
+        /**
+         * The queries fail immediately.
+         */
+        OPEN,
+
+        /**
+         * The limited count of trial queries are sent to the server.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * The listener of state changes.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * @param previousState the state before the change
+         * @param state         the new state
+         */
+        void onStateChange(@Nonnull State previousState, @Nonnull State state);
+    }
+
+    private FluxCircuitBreaker(@Nonnull final Builder builder) {
+
+        Objects.requireNonNull(builder, "FluxCircuitBreaker.Builder is required");
+
+        if (builder.minimumCalls > builder.windowSize) {
+            throw new IllegalArgumentException("Expecting the minimumCalls lower or equal to the windowSize");
+        }
+
+        this.window = new int[builder.windowSize];
+        this.minimumCalls = builder.minimumCalls;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallNanos = builder.slowCallDuration.toNanos();
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.openDuration = builder.openDuration;
+        this.halfOpenCalls = builder.halfOpenCalls;
+    }
+
+    /**
+     * Acquire the permission to send the request.
+     *
+     * @param listener the listener of state change caused by the request
+     * @return the request whose outcome has to be recorded
+     * @throws FluxCircuitOpenException if the breaker is open
+     */
+    @Nonnull
+    public Call acquire(@Nonnull final Listener listener) {
+
+        Objects.requireNonNull(listener, "Listener is required");
+
+        Call call;
+        synchronized (this) {
+
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openDuration.toNanos()) {
+                    throw new FluxCircuitOpenException("The circuit breaker is open.");
+                }
+                transition(State.HALF_OPEN);
+                call = new Call(listener, generation, State.OPEN);
+            } else {
+                call = new Call(listener, generation, null);
+            }
+
+            if (state == State.HALF_OPEN) {
+                if (trialsInFlight + trialsSucceeded >= halfOpenCalls) {
+                    throw new FluxCircuitOpenException("The circuit breaker is half-open "
+                            + "and waits for the trial queries.");
+                }
+                trialsInFlight++;
+            }
+        }
+
+        if (call.previousState != null) {
+            listener.onStateChange(call.previousState, State.HALF_OPEN);
+        }
+
+        return call;
+    }
+
+    /**
+     * @return the current state
+     */
+    @Nonnull
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return the rate of failed requests in the window, {@code 0} if the window is empty
+     */
+    public synchronized double getFailureRate() {
+        return calls == 0 ? 0 : (double) failures / calls;
+    }
+
+    /**
+     * @return the rate of slow requests in the window, {@code 0} if the window is empty
+     */
+    public synchronized double getSlowCallRate() {
+        return calls == 0 ? 0 : (double) slowCalls / calls;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "FluxCircuitBreaker{"
+                + "state=" + state
+                + ", calls=" + calls
+                + ", failures=" + failures
+                + ", slowCalls=" + slowCalls
+                + '}';
+    }
+
+    /**
+     * Creates a builder instance.
+     *
+     * @return a builder
+     */
+    @Nonnull
+    public static FluxCircuitBreaker.Builder builder() {
+        return new FluxCircuitBreaker.Builder();
+    }
+
+    private void record(@Nonnull final Call call, final int outcome) {
+
+        State previous;
+        State current;
+        synchronized (this) {
+
+            // the request was sent before the last state change
+            if (call.generation != generation) {
+                return;
+            }
+
+            previous = state;
+            if (state == State.HALF_OPEN) {
+                trialsInFlight--;
+                if (outcome != 0) {
+                    transition(State.OPEN);
+                } else if (++trialsSucceeded >= halfOpenCalls) {
+                    transition(State.CLOSED);
+                }
+            } else if (state == State.CLOSED) {
+                add(outcome);
+                if (calls >= minimumCalls
+                        && ((double) failures / calls >= failureRateThreshold
+                        || (double) slowCalls / calls >= slowCallRateThreshold)) {
+                    transition(State.OPEN);
+                }
+            }
+            current = state;
+        }
+
+        if (previous != current) {
+            call.listener.onStateChange(previous, current);
+        }
+    }
+
+    private void cancel(@Nonnull final Call call) {
+        synchronized (this) {
+            if (call.generation == generation && state == State.HALF_OPEN) {
+                trialsInFlight--;
+            }
+        }
+    }
+
+    private void add(final int outcome) {
+
+        if (calls == window.length) {
+            int removed = window[windowIndex];
+            failures -= removed & FAILURE;
+            slowCalls -= (removed & SLOW) / SLOW;
+        } else {
+            calls++;
+        }
+
+        window[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % window.length;
+        failures += outcome & FAILURE;
+        slowCalls += (outcome & SLOW) / SLOW;
+    }
+
+    private void transition(@Nonnull final State state) {
+
+        this.state = state;
+        this.generation++;
+        this.openedAt = System.nanoTime();
+        this.trialsInFlight = 0;
+        this.trialsSucceeded = 0;
+
+        // the closed breaker starts with the empty window
+        this.windowIndex = 0;
+        this.calls = 0;
+        this.failures = 0;
+        this.slowCalls = 0;
+    }
+
+    /**
+     * The request permitted by the breaker.
+     */
+    @ThreadSafe
+    public final class Call {
+
+        private final Listener listener;
+        private final long generation;
+        private final State previousState;
+        private final long started = System.nanoTime();
+        private boolean recorded;
+
+        private Call(@Nonnull final Listener listener, final long generation, @Nullable final State previousState) {
+            this.listener = listener;
+            this.generation = generation;
+            this.previousState = previousState;
+        }
+
+        /**
+         * Record the successful response, the time to first byte is measured from the acquire.
+         */
+        public void onSuccess() {
+            if (markRecorded()) {
+                record(this, System.nanoTime() - started > slowCallNanos ? SLOW : 0);
+            }
+        }
+
+        /**
+         * Record the failed request.
+         */
+        public void onFailure() {
+            if (markRecorded()) {
+                record(this, System.nanoTime() - started > slowCallNanos ? FAILURE | SLOW : FAILURE);
+            }
+        }
+
+        /**
+         * Record the request which was canceled before the response.
+         */
+        public void onCancel() {
+            if (markRecorded()) {
+                cancel(this);
+            }
+        }
+
+        private boolean markRecorded() {
+            synchronized (FluxCircuitBreaker.this) {
+                if (recorded) {
+                    return false;
+                }
+                recorded = true;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * A builder for {@code FluxCircuitBreaker}.
+     */
+    @NotThreadSafe
+    public static class Builder {
+
+        private int windowSize = DEFAULT_WINDOW_SIZE;
+        private int minimumCalls = DEFAULT_MINIMUM_CALLS;
+        private double failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+        private Duration slowCallDuration = DEFAULT_SLOW_CALL_DURATION;
+        private double slowCallRateThreshold = 1;
+        private Duration openDuration = DEFAULT_OPEN_DURATION;
+        private int halfOpenCalls = 1;
+
+        /**
+         * Set the count of last requests whose outcome is recorded. Default value is {@code 20}.
+         *
+         * @param windowSize the count of recorded requests, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder windowSize(final int windowSize) {
+
+            if (windowSize <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for windowSize");
+            }
+
+            this.windowSize = windowSize;
+
+            return this;
+        }
+
+        /**
+         * Set the count of recorded requests required to open the breaker. Default value is {@code 10}.
+         *
+         * @param minimumCalls the minimal count of requests, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder minimumCalls(final int minimumCalls) {
+
+            if (minimumCalls <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for minimumCalls");
+            }
+
+            this.minimumCalls = minimumCalls;
+
+            return this;
+        }
+
+        /**
+         * Set the rate of failed requests which opens the breaker. Default value is {@code 0.5}.
+         *
+         * @param failureRateThreshold the rate, must be between {@code 0} exclusive and {@code 1} inclusive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder failureRateThreshold(final double failureRateThreshold) {
+
+            if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+                throw new IllegalArgumentException("Expecting a number between 0 and 1 for failureRateThreshold");
+            }
+
+            this.failureRateThreshold = failureRateThreshold;
+
+            return this;
+        }
+
+        /**
+         * Set the time to first byte of the slow request. Default value is {@code 5 seconds}.
+         *
+         * @param slowCallDuration the duration of slow request, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder slowCallDuration(@Nonnull final Duration slowCallDuration) {
+
+            Objects.requireNonNull(slowCallDuration, "Slow call duration is required");
+            if (slowCallDuration.isNegative() || slowCallDuration.isZero()) {
+                throw new IllegalArgumentException("Expecting a positive duration for slowCallDuration");
+            }
+
+            this.slowCallDuration = slowCallDuration;
+
+            return this;
+        }
+
+        /**
+         * Set the rate of slow requests which opens the breaker. Default value is {@code 1} - the breaker opens
+         * when all recorded requests are slow.
+         *
+         * @param slowCallRateThreshold the rate, must be between {@code 0} exclusive and {@code 1} inclusive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder slowCallRateThreshold(final double slowCallRateThreshold) {
+
+            if (slowCallRateThreshold <= 0 || slowCallRateThreshold > 1) {
+                throw new IllegalArgumentException("Expecting a number between 0 and 1 for slowCallRateThreshold");
+            }
+
+            this.slowCallRateThreshold = slowCallRateThreshold;
+
+            return this;
+        }
+
+        /**
+         * Set how long the breaker stays open before the trial queries. Default value is {@code 30 seconds}.
+         *
+         * @param openDuration the duration of open state, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder openDuration(@Nonnull final Duration openDuration) {
+
+            Objects.requireNonNull(openDuration, "Open duration is required");
+            if (openDuration.isNegative() || openDuration.isZero()) {
+                throw new IllegalArgumentException("Expecting a positive duration for openDuration");
+            }
+
+            this.openDuration = openDuration;
+
+            return this;
+        }
+
+        /**
+         * Set the count of successful trial queries which close the half-open breaker. Default value is {@code 1}.
+         *
+         * @param halfOpenCalls the count of trial queries, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder halfOpenCalls(final int halfOpenCalls) {
+
+            if (halfOpenCalls <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for halfOpenCalls");
+            }
+
+            this.halfOpenCalls = halfOpenCalls;
+
+            return this;
+        }
+
+        /**
+         * Build an instance of FluxCircuitBreaker.
+         *
+         * @return {@code FluxCircuitBreaker}
+         */
+        @Nonnull
+        public FluxCircuitBreaker build() {
+            return new FluxCircuitBreaker(this);
+        }
+    }
+}
@@ -0,0 +1,454 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.option;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * The adaptive limit of concurrent queries sent to the server.
+ * <p>
+ * The limit is adjusted by the AIMD (additive increase, multiplicative decrease) algorithm. The limit grows
+ * by one per the limit of successful queries whose time to first byte is below the
+ * {@link Builder#latencyThreshold(Duration)} and it is multiplied by the {@link Builder#backoffRatio(double)}
+ * when the query fails or its time to first byte exceeds the threshold. The queries over the limit wait
+ * in a bounded queue, the query which doesn't fit into the queue or waits longer than
+ * the {@link Builder#maxWait(Duration)} fails with the {@link FluxLimitExceededException}.
+ * <p>
+ * The limiter is shared by all queries which use the {@link FluxReactiveOptions}.
+ *
+ * @author Jakub Bednar (bednar@github) (01/09/2018 09:20)
+ * @since 1.0.0
+ */
+@ThreadSafe
+public final class FluxConcurrencyLimiter {
+
+    private static final int DEFAULT_INITIAL_LIMIT = 16;
+    private static final int DEFAULT_MAX_LIMIT = 256;
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 256;
+    private static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(30);
+    private static final Duration DEFAULT_LATENCY_THRESHOLD = Duration.ofSeconds(1);
+    private static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueueSize;
+    private final Duration maxWait;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private long rejections;
+
+    private FluxConcurrencyLimiter(@Nonnull final Builder builder) {
+
+        Objects.requireNonNull(builder, "FluxConcurrencyLimiter.Builder is required");
+
+        if (builder.minLimit > builder.maxLimit) {
+            throw new IllegalArgumentException("Expecting the minLimit lower or equal to the maxLimit");
+        }
+
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.maxQueueSize = builder.maxQueueSize;
+        this.maxWait = builder.maxWait;
+        this.latencyThresholdNanos = builder.latencyThreshold.toNanos();
+        this.backoffRatio = builder.backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, builder.initialLimit));
+    }
+
+    /**
+     * Acquire the permit to send the query. The permit is emitted when the count of queries in flight
+     * is below the limit.
+     *
+     * @return the permit which has to be {@link Permit#release() released} after the query is processed
+     */
+    @Nonnull
+    public Single<Permit> acquire() {
+
+        return Single.<Permit>create(emitter -> {
+
+            Waiter waiter = new Waiter(emitter);
+
+            boolean rejected = false;
+            synchronized (this) {
+                if (queue.isEmpty() && inFlight < (int) limit) {
+                    inFlight++;
+                    waiter.permit = new Permit();
+                } else if (queue.size() < maxQueueSize) {
+                    queue.add(waiter);
+                    waiter.timeout = Schedulers.computation()
+                            .scheduleDirect(() -> expire(waiter), maxWait.toNanos(), TimeUnit.NANOSECONDS);
+                } else {
+                    rejections++;
+                    rejected = true;
+                }
+            }
+
+            emitter.setCancellable(() -> cancel(waiter));
+
+            if (rejected) {
+                emitter.onError(new FluxLimitExceededException("The queue of queries waiting for "
+                        + "the concurrency limit is full: " + maxQueueSize));
+            } else if (waiter.permit != null) {
+                emitter.onSuccess(waiter.permit);
+            }
+        }).doOnSuccess(permit -> permit.delivered = true);
+    }
+
+    /**
+     * @return the current limit of concurrent queries
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return the count of queries which hold the permit
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the count of queries waiting for the permit
+     */
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return the count of queries rejected because the queue was full or they waited too long
+     */
+    public synchronized long getRejections() {
+        return rejections;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "FluxConcurrencyLimiter{"
+                + "limit=" + (int) limit
+                + ", inFlight=" + inFlight
+                + ", queueDepth=" + queue.size()
+                + ", rejections=" + rejections
+                + '}';
+    }
+
+    /**
+     * Creates a builder instance.
+     *
+     * @return a builder
+     */
+    @Nonnull
+    public static FluxConcurrencyLimiter.Builder builder() {
+        return new FluxConcurrencyLimiter.Builder();
+    }
+
+    private void expire(@Nonnull final Waiter waiter) {
+
+        synchronized (this) {
+            if (!queue.remove(waiter)) {
+                return;
+            }
+            rejections++;
+        }
+
+        waiter.emitter.onError(new FluxLimitExceededException("The query waited longer than " + maxWait
+                + " for the concurrency limit: " + getLimit()));
+    }
+
+    private void cancel(@Nonnull final Waiter waiter) {
+
+        Permit undelivered = null;
+        synchronized (this) {
+            if (queue.remove(waiter)) {
+                waiter.timeout.dispose();
+            } else if (waiter.permit != null && !waiter.permit.delivered) {
+                undelivered = waiter.permit;
+            }
+        }
+
+        // the subscriber was disposed before it received the permit
+        if (undelivered != null) {
+            undelivered.release();
+        }
+    }
+
+    private void release(@Nonnull final Permit permit) {
+
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+
+            if (permit.released) {
+                return;
+            }
+            permit.released = true;
+
+            boolean saturated = inFlight * 2 >= limit;
+            inFlight--;
+
+            if (permit.failed || permit.timeToFirstByte > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (permit.timeToFirstByte >= 0 && saturated) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+
+            while (!queue.isEmpty() && inFlight < (int) limit) {
+                Waiter waiter = queue.poll();
+                waiter.timeout.dispose();
+                waiter.permit = new Permit();
+                inFlight++;
+                granted.add(waiter);
+            }
+        }
+
+        for (Waiter waiter : granted) {
+            waiter.emitter.onSuccess(waiter.permit);
+        }
+    }
+
+    /**
+     * The permit to send one query.
+     */
+    @ThreadSafe
+    public final class Permit {
+
+        private final long acquired = System.nanoTime();
+        private volatile boolean delivered;
+
+        // guarded by the limiter
+        private long timeToFirstByte = -1;
+        private boolean failed;
+        private boolean released;
+
+        private Permit() {
+        }
+
+        /**
+         * Record the time to first byte of the query.
+         */
+        public void onResponse() {
+            synchronized (FluxConcurrencyLimiter.this) {
+                if (timeToFirstByte < 0) {
+                    timeToFirstByte = System.nanoTime() - acquired;
+                }
+            }
+        }
+
+        /**
+         * Record the failure of the query. The failed query decreases the limit.
+         */
+        public void onError() {
+            synchronized (FluxConcurrencyLimiter.this) {
+                failed = true;
+            }
+        }
+
+        /**
+         * Return the permit to the limiter and adjust the limit by the outcome of the query.
+         * The repeated release is ignored.
+         */
+        public void release() {
+            FluxConcurrencyLimiter.this.release(this);
+        }
+    }
+
+    private final class Waiter {
+
+        private final SingleEmitter<Permit> emitter;
+        private Permit permit;
+        private Disposable timeout;
+
+        private Waiter(@Nonnull final SingleEmitter<Permit> emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    /**
+     * A builder for {@code FluxConcurrencyLimiter}.
+     */
+    @NotThreadSafe
+    public static class Builder {
+
+        private int initialLimit = DEFAULT_INITIAL_LIMIT;
+        private int minLimit = 1;
+        private int maxLimit = DEFAULT_MAX_LIMIT;
+        private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+        private Duration maxWait = DEFAULT_MAX_WAIT;
+        private Duration latencyThreshold = DEFAULT_LATENCY_THRESHOLD;
+        private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+
+        /**
+         * Set the limit of concurrent queries before the first adjustment. Default value is {@code 16}.
+         *
+         * @param initialLimit the initial limit, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder initialLimit(final int initialLimit) {
+
+            if (initialLimit <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for initialLimit");
+            }
+
+            this.initialLimit = initialLimit;
+
+            return this;
+        }
+
+        /**
+         * Set the lower bound of limit. Default value is {@code 1}.
+         *
+         * @param minLimit the lower bound of limit, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder minLimit(final int minLimit) {
+
+            if (minLimit <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for minLimit");
+            }
+
+            this.minLimit = minLimit;
+
+            return this;
+        }
+
+        /**
+         * Set the upper bound of limit. Default value is {@code 256}.
+         *
+         * @param maxLimit the upper bound of limit, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder maxLimit(final int maxLimit) {
+
+            if (maxLimit <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for maxLimit");
+            }
+
+            this.maxLimit = maxLimit;
+
+            return this;
+        }
+
+        /**
+         * Set the maximum count of queries waiting for the permit. Default value is {@code 256}.
+         *
+         * @param maxQueueSize the maximum count of waiting queries, {@code 0} rejects the queries over the limit
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder maxQueueSize(final int maxQueueSize) {
+
+            if (maxQueueSize < 0) {
+                throw new IllegalArgumentException("Expecting a non-negative number for maxQueueSize");
+            }
+
+            this.maxQueueSize = maxQueueSize;
+
+            return this;
+        }
+
+        /**
+         * Set the maximum time the query waits for the permit. Default value is {@code 30 seconds}.
+         *
+         * @param maxWait the maximum time of waiting, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder maxWait(@Nonnull final Duration maxWait) {
+
+            Objects.requireNonNull(maxWait, "Max wait is required");
+            if (maxWait.isNegative() || maxWait.isZero()) {
+                throw new IllegalArgumentException("Expecting a positive duration for maxWait");
+            }
+
+            this.maxWait = maxWait;
+
+            return this;
+        }
+
+        /**
+         * Set the time to first byte which signals the overloaded server. The limit is decreased when
+         * the response takes longer. Default value is {@code 1 second}.
+         *
+         * @param latencyThreshold the threshold of time to first byte, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder latencyThreshold(@Nonnull final Duration latencyThreshold) {
+
+            Objects.requireNonNull(latencyThreshold, "Latency threshold is required");
+            if (latencyThreshold.isNegative() || latencyThreshold.isZero()) {
+                throw new IllegalArgumentException("Expecting a positive duration for latencyThreshold");
+            }
+
+            this.latencyThreshold = latencyThreshold;
+
+            return this;
+        }
+
+        /**
+         * Set the ratio which multiplies the limit after the failed or slow query. Default value is {@code 0.9}.
+         *
+         * @param backoffRatio the ratio, must be between {@code 0} and {@code 1} exclusive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder backoffRatio(final double backoffRatio) {
+
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new IllegalArgumentException("Expecting a number between 0 and 1 for backoffRatio");
+            }
+
+            this.backoffRatio = backoffRatio;
+
+            return this;
+        }
+
+        /**
+         * Build an instance of FluxConcurrencyLimiter.
+         *
+         * @return {@code FluxConcurrencyLimiter}
+         */
+        @Nonnull
+        public FluxConcurrencyLimiter build() {
+            return new FluxConcurrencyLimiter(this);
+        }
+    }
+}
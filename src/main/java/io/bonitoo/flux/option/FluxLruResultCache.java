@@ -0,0 +1,230 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.option;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The in-memory {@link FluxResultCache} bounded by the size of responses in bytes and by the time to live.
+ * The least recently used responses are evicted when the cache is full.
+ *
+ * @author Jakub Bednar (bednar@github) (29/08/2018 13:45)
+ * @since 1.0.0
+ */
+@ThreadSafe
+public final class FluxLruResultCache implements FluxResultCache {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final long maxSizeInBytes;
+    private final long timeToLiveNanos;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    private long sizeInBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxSizeInBytes the maximum size of cached responses in bytes, must be positive
+     * @param timeToLive     the time to live of cached response, must be positive
+     */
+    public FluxLruResultCache(final long maxSizeInBytes, @Nonnull final Duration timeToLive) {
+
+        if (maxSizeInBytes <= 0) {
+            throw new IllegalArgumentException("Expecting a positive number for maxSizeInBytes");
+        }
+
+        Objects.requireNonNull(timeToLive, "Time to live is required");
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Expecting a positive duration for timeToLive");
+        }
+
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.timeToLiveNanos = timeToLive.toNanos();
+    }
+
+    @Nullable
+    @Override
+    public synchronized byte[] get(@Nonnull final String key) {
+
+        Objects.requireNonNull(key, "Key is required");
+
+        Entry entry = entries.get(key);
+        if (entry != null && entry.isExpired(System.nanoTime())) {
+            remove(key, entry);
+            evictions++;
+            entry = null;
+        }
+
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return entry.response;
+    }
+
+    @Override
+    public synchronized void put(@Nonnull final String key, @Nonnull final byte[] response) {
+
+        Objects.requireNonNull(key, "Key is required");
+        Objects.requireNonNull(response, "Response is required");
+
+        Entry entry = new Entry(key, response, System.nanoTime() + timeToLiveNanos);
+        if (entry.size > maxSizeInBytes) {
+            return;
+        }
+
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            sizeInBytes -= previous.size;
+        }
+        sizeInBytes += entry.size;
+
+        // evict the least recently used responses
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && sizeInBytes > maxSizeInBytes) {
+            Entry eldest = iterator.next();
+            if (eldest != entry) {
+                iterator.remove();
+                sizeInBytes -= eldest.size;
+                evictions++;
+            }
+        }
+    }
+
+    @Override
+    public long getMaxEntrySize() {
+        return maxSizeInBytes;
+    }
+
+    /**
+     * @return the count of cached responses
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the size of cached responses in bytes
+     */
+    public synchronized long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * @return the maximum size of cached responses in bytes
+     */
+    public long getMaxSizeInBytes() {
+        return maxSizeInBytes;
+    }
+
+    /**
+     * @return the count of queries which were replayed from the cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the count of queries which had to be requested
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the count of responses which were evicted because they expired or the cache was full
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the ratio of the hits to all queries, {@code 0} if the cache was not used
+     */
+    public synchronized double getHitRate() {
+
+        long total = hits + misses;
+
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Remove all cached responses and reset the statistics.
+     */
+    public synchronized void clear() {
+
+        entries.clear();
+        sizeInBytes = 0;
+
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "FluxLruResultCache{"
+                + "maxSizeInBytes=" + maxSizeInBytes
+                + ", sizeInBytes=" + sizeInBytes
+                + ", size=" + entries.size()
+                + ", hits=" + hits
+                + ", misses=" + misses
+                + ", evictions=" + evictions
+                + '}';
+    }
+
+    private void remove(@Nonnull final String key, @Nonnull final Entry entry) {
+        entries.remove(key);
+        sizeInBytes -= entry.size;
+    }
+
+    private static final class Entry {
+
+        private final byte[] response;
+        private final long expiresAt;
+        private final long size;
+
+        private Entry(@Nonnull final String key, @Nonnull final byte[] response, final long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+            // the key is stored as UTF-16
+            this.size = (long) response.length + 2L * key.length();
+        }
+
+        private boolean isExpired(final long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
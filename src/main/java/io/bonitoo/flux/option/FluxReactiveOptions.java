@@ -0,0 +1,942 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.option;
+
+import java.time.Duration;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * FluxReactiveOptions are used to configure how the reactive client delivers the query results to the subscriber.
+ * <p>
+ * The options are complementary to the {@link FluxOptions} which configure the query itself.
+ *
+ * @author Jakub Bednar (bednar@github) (21/08/2018 10:05)
+ * @since 1.0.0
+ */
+@ThreadSafe
+public final class FluxReactiveOptions {
+
+    public static final FluxReactiveOptions DEFAULTS = FluxReactiveOptions.builder().build();
+
+    private static final int DEFAULT_BATCH_SIZE = 1_000;
+    private static final int DEFAULT_PARALLEL_CHUNK_SIZE = 1024 * 1024;
+    private static final int DEFAULT_RANGE_BUCKET_CONCURRENCY = 8;
+
+    private final int bufferSize;
+    private final OverflowStrategy overflowStrategy;
+    private final int batchSize;
+    private final FluxStringPool stringPool;
+    private final int parallelism;
+    private final int parallelChunkSize;
+    private final Scheduler parallelScheduler;
+    private final boolean parallelOrdered;
+    private final int maxConcurrency;
+    private final boolean concurrencyOrdered;
+    private final Scheduler ioScheduler;
+    private final int ioThreads;
+    private final boolean ioVirtualThreads;
+    private final Scheduler observeScheduler;
+    private final boolean coalesce;
+    private final FluxResultCache resultCache;
+    private final Duration rangeBucket;
+    private final int rangeBucketConcurrency;
+    private final Duration tailGrace;
+    private final int rangeShards;
+    private final Duration rangeShardMinWidth;
+    private final FluxConcurrencyLimiter concurrencyLimiter;
+    private final FluxCircuitBreaker circuitBreaker;
+    private final int resumeAttempts;
+    private final FluxRequestHedging requestHedging;
+    private final Duration deadline;
+
+    private FluxReactiveOptions(@Nonnull final Builder builder) {
+
+        Objects.requireNonNull(builder, "FluxReactiveOptions.Builder is required");
+
+        this.bufferSize = builder.bufferSize;
+        this.overflowStrategy = builder.overflowStrategy;
+        this.batchSize = builder.batchSize;
+        this.stringPool = builder.stringPool;
+        this.parallelism = builder.parallelism;
+        this.parallelChunkSize = builder.parallelChunkSize;
+        this.parallelScheduler = builder.parallelScheduler;
+        this.parallelOrdered = builder.parallelOrdered;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.concurrencyOrdered = builder.concurrencyOrdered;
+        this.ioScheduler = builder.ioScheduler;
+        this.ioThreads = builder.ioThreads;
+        this.ioVirtualThreads = builder.ioVirtualThreads;
+        this.observeScheduler = builder.observeScheduler;
+        this.coalesce = builder.coalesce;
+        this.resultCache = builder.resultCache;
+        this.rangeBucket = builder.rangeBucket;
+        this.rangeBucketConcurrency = builder.rangeBucketConcurrency;
+        this.tailGrace = builder.tailGrace;
+        this.rangeShards = builder.rangeShards;
+        this.rangeShardMinWidth = builder.rangeShardMinWidth;
+        this.concurrencyLimiter = builder.concurrencyLimiter;
+        this.circuitBreaker = builder.circuitBreaker;
+        this.resumeAttempts = builder.resumeAttempts;
+        this.requestHedging = builder.requestHedging;
+        this.deadline = builder.deadline;
+    }
+
+    /**
+     * @return the maximum number of records that are read from the response ahead of the subscriber demand
+     * @see Builder#bufferSize(int)
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return the strategy that is applied when the subscriber does not keep up with the response
+     * @see Builder#overflowStrategy(OverflowStrategy)
+     */
+    @Nonnull
+    public OverflowStrategy getOverflowStrategy() {
+        return overflowStrategy;
+    }
+
+    /**
+     * @return the maximum number of records in one {@link io.bonitoo.flux.dto.FluxRecordBatch}
+     * @see Builder#batchSize(int)
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the pool of the string cells or {@code null} if the cells are not pooled
+     * @see Builder#stringPool(FluxStringPool)
+     */
+    @Nullable
+    public FluxStringPool getStringPool() {
+        return stringPool;
+    }
+
+    /**
+     * @return the maximum number of response chunks that are parsed concurrently
+     * @see Builder#parallelism(int)
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return the size of response chunk in bytes that is parsed as one unit
+     * @see Builder#parallelChunkSize(int)
+     */
+    public int getParallelChunkSize() {
+        return parallelChunkSize;
+    }
+
+    /**
+     * @return the scheduler which parses the response chunks
+     * @see Builder#parallelScheduler(Scheduler)
+     */
+    @Nonnull
+    public Scheduler getParallelScheduler() {
+        return parallelScheduler;
+    }
+
+    /**
+     * @return {@code true} if the records of parallel parsing are emitted in the order of response
+     * @see Builder#parallelOrdered(boolean)
+     */
+    public boolean isParallelOrdered() {
+        return parallelOrdered;
+    }
+
+    /**
+     * @return the maximum number of queries of the query stream that are executed concurrently
+     * @see Builder#maxConcurrency(int)
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return {@code true} if the results of concurrent queries are emitted in the order of queries
+     * @see Builder#concurrencyOrdered(boolean)
+     */
+    public boolean isConcurrencyOrdered() {
+        return concurrencyOrdered;
+    }
+
+    /**
+     * @return the scheduler which executes the queries and reads the responses, {@code null} if the responses
+     * are read by the subscribing thread or by the I/O threads of client
+     * @see Builder#ioScheduler(Scheduler)
+     */
+    @Nullable
+    public Scheduler getIoScheduler() {
+        return ioScheduler;
+    }
+
+    /**
+     * @return the count of I/O threads which are created by the client, {@code 0} if the client does not create them
+     * @see Builder#ioThreads(int)
+     */
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    /**
+     * @return {@code true} if the client reads the responses by the virtual threads when the runtime supports them
+     * @see Builder#ioVirtualThreads(boolean)
+     */
+    public boolean isIoVirtualThreads() {
+        return ioVirtualThreads;
+    }
+
+    /**
+     * @return the scheduler which emits the results to the subscriber, {@code null} if the results are emitted
+     * by the thread which reads the response
+     * @see Builder#observeScheduler(Scheduler)
+     */
+    @Nullable
+    public Scheduler getObserveScheduler() {
+        return observeScheduler;
+    }
+
+    /**
+     * @return {@code true} if the concurrent subscriptions of identical query share one request
+     * @see Builder#coalesce(boolean)
+     */
+    public boolean isCoalesce() {
+        return coalesce;
+    }
+
+    /**
+     * @return the cache of query results, {@code null} if the results are not cached
+     * @see Builder#resultCache(FluxResultCache)
+     */
+    @Nullable
+    public FluxResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * @return the duration of time buckets which split the range of query, {@code null} if the range is not split
+     * @see Builder#rangeBucket(Duration)
+     */
+    @Nullable
+    public Duration getRangeBucket() {
+        return rangeBucket;
+    }
+
+    /**
+     * @return the maximum count of buckets which are fetched concurrently
+     * @see Builder#rangeBucketConcurrency(int)
+     */
+    public int getRangeBucketConcurrency() {
+        return rangeBucketConcurrency;
+    }
+
+    /**
+     * @return the window of late records of the tailed query
+     * @see Builder#tailGrace(Duration)
+     */
+    @Nonnull
+    public Duration getTailGrace() {
+        return tailGrace;
+    }
+
+    /**
+     * @return the maximum count of shards which split the range of query
+     * @see Builder#rangeShards(int)
+     */
+    public int getRangeShards() {
+        return rangeShards;
+    }
+
+    /**
+     * @return the minimal width of shard, {@code null} for the fixed count of shards
+     * @see Builder#rangeShardMinWidth(Duration)
+     */
+    @Nullable
+    public Duration getRangeShardMinWidth() {
+        return rangeShardMinWidth;
+    }
+
+    /**
+     * @return the adaptive limit of concurrent queries, {@code null} for unlimited queries
+     * @see Builder#concurrencyLimiter(FluxConcurrencyLimiter)
+     */
+    @Nullable
+    public FluxConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * @return the circuit breaker of queries, {@code null} if the queries are always sent
+     * @see Builder#circuitBreaker(FluxCircuitBreaker)
+     */
+    @Nullable
+    public FluxCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return the maximum count of resumes of the broken response, {@code 0} for the query which is not resumed
+     * @see Builder#resumeAttempts(int)
+     */
+    public int getResumeAttempts() {
+        return resumeAttempts;
+    }
+
+    /**
+     * @return the hedging of slow queries, {@code null} if the queries are not hedged
+     * @see Builder#requestHedging(FluxRequestHedging)
+     */
+    @Nullable
+    public FluxRequestHedging getRequestHedging() {
+        return requestHedging;
+    }
+
+    /**
+     * @return the deadline of query, {@code null} if the query is not limited by the time
+     * @see Builder#deadline(Duration)
+     */
+    @Nullable
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Creates a builder instance.
+     *
+     * @return a builder
+     */
+    @Nonnull
+    public static FluxReactiveOptions.Builder builder() {
+        return new FluxReactiveOptions.Builder();
+    }
+
+    /**
+     * The strategy that is applied when the buffer of records is full.
+     */
+    public enum OverflowStrategy {
+
+        /**
+         * Stop reading the response until the subscriber requests more records. No records are lost,
+         * the server is slowed down by the TCP flow control.
+         */
+        BLOCK,
+
+        /**
+         * Signal the {@link io.reactivex.exceptions.MissingBackpressureException}.
+         */
+        ERROR,
+
+        /**
+         * Drop the oldest buffered record to make room for the new one.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Drop the latest buffered record and replace it by the new one.
+         */
+        DROP_LATEST
+    }
+
+    /**
+     * A builder for {@code FluxReactiveOptions}.
+     */
+    @NotThreadSafe
+    public static class Builder {
+
+        private int bufferSize = Flowable.bufferSize();
+        private OverflowStrategy overflowStrategy = OverflowStrategy.BLOCK;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private FluxStringPool stringPool;
+        private int parallelism = 1;
+        private int parallelChunkSize = DEFAULT_PARALLEL_CHUNK_SIZE;
+        private Scheduler parallelScheduler = Schedulers.computation();
+        private boolean parallelOrdered = true;
+        private int maxConcurrency = 1;
+        private boolean concurrencyOrdered = true;
+        private Scheduler ioScheduler;
+        private int ioThreads;
+        private boolean ioVirtualThreads;
+        private Scheduler observeScheduler;
+        private boolean coalesce;
+        private FluxResultCache resultCache;
+        private Duration rangeBucket;
+        private int rangeBucketConcurrency = DEFAULT_RANGE_BUCKET_CONCURRENCY;
+        private Duration tailGrace = Duration.ZERO;
+        private int rangeShards = 1;
+        private Duration rangeShardMinWidth;
+        private FluxConcurrencyLimiter concurrencyLimiter;
+        private FluxCircuitBreaker circuitBreaker;
+        private int resumeAttempts;
+        private FluxRequestHedging requestHedging;
+        private Duration deadline;
+
+        /**
+         * Set the maximum number of records that are read from the response ahead of the subscriber demand.
+         * Default value is {@link Flowable#bufferSize()}.
+         *
+         * @param bufferSize the size of buffer, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder bufferSize(final int bufferSize) {
+
+            if (bufferSize <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for bufferSize");
+            }
+
+            this.bufferSize = bufferSize;
+
+            return this;
+        }
+
+        /**
+         * Set the strategy that is applied when the buffer of records is full.
+         * Default value is {@link OverflowStrategy#BLOCK}.
+         *
+         * @param overflowStrategy the overflow strategy
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder overflowStrategy(@Nonnull final OverflowStrategy overflowStrategy) {
+
+            Objects.requireNonNull(overflowStrategy, "OverflowStrategy is required");
+
+            this.overflowStrategy = overflowStrategy;
+
+            return this;
+        }
+
+        /**
+         * Set the maximum number of records in one {@link io.bonitoo.flux.dto.FluxRecordBatch}.
+         * The batch can be smaller if the layout of table changes. Default value is {@code 1000}.
+         *
+         * @param batchSize the size of batch, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder batchSize(final int batchSize) {
+
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for batchSize");
+            }
+
+            this.batchSize = batchSize;
+
+            return this;
+        }
+
+        /**
+         * Set the pool which deduplicates the string cells of response. The pool is shared by all queries
+         * which use these options. Default value is {@code null} - the cells are not pooled.
+         *
+         * @param stringPool the pool of string cells
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder stringPool(@Nullable final FluxStringPool stringPool) {
+
+            this.stringPool = stringPool;
+
+            return this;
+        }
+
+        /**
+         * Set the maximum number of response chunks that are parsed concurrently. The response is split into chunks
+         * at row boundaries and the chunks are parsed on the {@link #parallelScheduler(Scheduler)}.
+         * Default value is {@code 1} - the response is parsed sequentially by the thread which reads the response.
+         *
+         * @param parallelism the count of concurrently parsed chunks, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder parallelism(final int parallelism) {
+
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for parallelism");
+            }
+
+            this.parallelism = parallelism;
+
+            return this;
+        }
+
+        /**
+         * Set the size of response chunk in bytes that is parsed as one unit. The chunk ends at the first row boundary
+         * after this size. Default value is {@code 1 MiB}.
+         *
+         * @param parallelChunkSize the size of chunk, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder parallelChunkSize(final int parallelChunkSize) {
+
+            if (parallelChunkSize <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for parallelChunkSize");
+            }
+
+            this.parallelChunkSize = parallelChunkSize;
+
+            return this;
+        }
+
+        /**
+         * Set the scheduler which parses the response chunks. Default value is {@link Schedulers#computation()}.
+         *
+         * @param parallelScheduler the scheduler
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder parallelScheduler(@Nonnull final Scheduler parallelScheduler) {
+
+            Objects.requireNonNull(parallelScheduler, "Scheduler is required");
+
+            this.parallelScheduler = parallelScheduler;
+
+            return this;
+        }
+
+        /**
+         * Set whether the records of parallel parsing are emitted in the order of response. The unordered records
+         * are emitted as soon as their chunk is parsed. Default value is {@code true}.
+         *
+         * @param parallelOrdered preserve the order of records
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder parallelOrdered(final boolean parallelOrdered) {
+
+            this.parallelOrdered = parallelOrdered;
+
+            return this;
+        }
+
+        /**
+         * Set the maximum number of queries of the {@link org.reactivestreams.Publisher} of queries that are executed
+         * concurrently. Default value is {@code 1} - the queries are executed one by one.
+         *
+         * @param maxConcurrency the count of concurrent queries, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder maxConcurrency(final int maxConcurrency) {
+
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for maxConcurrency");
+            }
+
+            this.maxConcurrency = maxConcurrency;
+
+            return this;
+        }
+
+        /**
+         * Set whether the results of concurrent queries are emitted in the order of queries. The ordered results
+         * of the later queries are buffered up to the {@link #bufferSize(int)} per query, the unordered results
+         * are emitted as they arrive. Default value is {@code true}.
+         *
+         * @param concurrencyOrdered emit results in the order of queries
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder concurrencyOrdered(final boolean concurrencyOrdered) {
+
+            this.concurrencyOrdered = concurrencyOrdered;
+
+            return this;
+        }
+
+        /**
+         * Set the scheduler which executes the queries and reads the responses. The reading of response blocks
+         * the thread, so the scheduler should not be shared with the computation work.
+         * Default value is {@code null} - the response is read by the I/O threads of client
+         * (see {@link #ioThreads(int)}) or by the subscribing thread.
+         *
+         * @param ioScheduler the scheduler
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder ioScheduler(@Nullable final Scheduler ioScheduler) {
+
+            this.ioScheduler = ioScheduler;
+
+            return this;
+        }
+
+        /**
+         * Set the count of I/O threads which are created by the client to execute the queries and read the responses.
+         * The threads are shared by all queries of client and they are released by
+         * {@link io.bonitoo.flux.FluxClientReactive#close()}. The option is used only for the client configuration
+         * by {@link io.bonitoo.flux.FluxClientReactiveFactory#connect(FluxConnectionOptions, FluxReactiveOptions)}.
+         *
+         * @param ioThreads the count of I/O threads, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder ioThreads(final int ioThreads) {
+
+            if (ioThreads <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for ioThreads");
+            }
+
+            this.ioThreads = ioThreads;
+
+            return this;
+        }
+
+        /**
+         * Set whether the client executes the queries and reads the responses by the virtual threads.
+         * The virtual thread is created for every query, so the client can hold thousands of streaming queries
+         * without the pool of platform threads. The virtual threads require the Java 21+ runtime, on the older
+         * runtime the client uses the {@link #ioThreads(int)}. The option is used only for the client configuration
+         * by {@link io.bonitoo.flux.FluxClientReactiveFactory#connect(FluxConnectionOptions, FluxReactiveOptions)}.
+         * Default value is {@code false}.
+         *
+         * @param ioVirtualThreads read the responses by the virtual threads
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder ioVirtualThreads(final boolean ioVirtualThreads) {
+
+            this.ioVirtualThreads = ioVirtualThreads;
+
+            return this;
+        }
+
+        /**
+         * Set the scheduler which emits the results to the subscriber. The scheduler prefetches
+         * the {@link #bufferSize(int)} of results from the reading thread.
+         * Default value is {@code null} - the results are emitted by the thread which reads the response.
+         *
+         * @param observeScheduler the scheduler
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder observeScheduler(@Nullable final Scheduler observeScheduler) {
+
+            this.observeScheduler = observeScheduler;
+
+            return this;
+        }
+
+        /**
+         * Set whether the concurrent subscriptions of identical query share one request. The queries are identical
+         * if they have the same organization, request body and type of results. The subscriber joins
+         * the in-flight request until the first result is emitted, the later subscriber starts the new request.
+         * The request is cancelled when the last subscriber cancels.
+         * <p>
+         * The subscribers share the emitted results, so they should not modify them. The results are parsed
+         * by the options of the subscriber which started the request. The queries with
+         * the {@link #deadline(Duration)} are not coalesced. Default value is {@code false}.
+         *
+         * @param coalesce share the request among the identical queries
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder coalesce(final boolean coalesce) {
+
+            this.coalesce = coalesce;
+
+            return this;
+        }
+
+        /**
+         * Set the cache of query results. The cached query is replayed without the request to the server.
+         * The cache is shared by all queries which use the options. Default value is {@code null} - the results
+         * are not cached.
+         *
+         * @param resultCache the cache of results
+         * @return {@code this}
+         * @see FluxLruResultCache
+         */
+        @Nonnull
+        public Builder resultCache(@Nullable final FluxResultCache resultCache) {
+
+            this.resultCache = resultCache;
+
+            return this;
+        }
+
+        /**
+         * Set the duration of time buckets which split the {@code range()} of query. The range is split into
+         * the buckets aligned to the epoch, the results of buckets which end in the past are cached
+         * by the {@link #resultCache(FluxResultCache)} and only the open tail of range is requested.
+         * The head bucket of relative start is not cached. The records of buckets are merged in the time order
+         * with the stable indexes of tables and with the {@code _start} and {@code _stop} of whole range.
+         * <p>
+         * The buckets are applied to the queries of {@link io.bonitoo.flux.dto.FluxRecord}s and they require
+         * the {@link #resultCache(FluxResultCache)}. The query has to contain one {@code range()} with RFC3339
+         * or relative bounds and its results have to be independent on the other buckets - the aggregations
+         * over whole range are computed per bucket. The buckets cannot be combined with the {@link #rangeShards(int)}
+         * or the {@link #resumeAttempts(int)}. Default value is {@code null} - the range is not split.
+         *
+         * @param rangeBucket the duration of bucket, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder rangeBucket(@Nullable final Duration rangeBucket) {
+
+            if (rangeBucket != null && (rangeBucket.isNegative() || rangeBucket.isZero())) {
+                throw new IllegalArgumentException("Expecting a positive duration for rangeBucket");
+            }
+
+            this.rangeBucket = rangeBucket;
+
+            return this;
+        }
+
+        /**
+         * Set the maximum count of buckets which are fetched concurrently. The buckets which are not cached
+         * are requested by the I/O threads and their records are read ahead up to the {@link #bufferSize(int)},
+         * the records are emitted in the time order. Default value is {@code 8}.
+         *
+         * @param rangeBucketConcurrency the maximum count of concurrent buckets, must be positive
+         * @return {@code this}
+         * @see #rangeBucket(Duration)
+         */
+        @Nonnull
+        public Builder rangeBucketConcurrency(final int rangeBucketConcurrency) {
+
+            if (rangeBucketConcurrency <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for rangeBucketConcurrency");
+            }
+
+            this.rangeBucketConcurrency = rangeBucketConcurrency;
+
+            return this;
+        }
+
+        /**
+         * Set the window of late records of the tailed query. The poll starts at the last observed {@code _time}
+         * minus the grace, so the records that arrive late are emitted too. The records which were already emitted
+         * are not emitted again. Default value is {@link Duration#ZERO}.
+         *
+         * @param tailGrace the window of late records, must not be negative
+         * @return {@code this}
+         * @see io.bonitoo.flux.FluxClientReactive#fluxTail(io.bonitoo.flux.Flux, Duration)
+         */
+        @Nonnull
+        public Builder tailGrace(@Nonnull final Duration tailGrace) {
+
+            Objects.requireNonNull(tailGrace, "Duration is required");
+            if (tailGrace.isNegative()) {
+                throw new IllegalArgumentException("Expecting a non-negative duration for tailGrace");
+            }
+
+            this.tailGrace = tailGrace;
+
+            return this;
+        }
+
+        /**
+         * Set the count of shards which split the {@code range()} of query. The shards of equal width are fetched
+         * and parsed concurrently, the later shards are read ahead up to the {@link #bufferSize(int)} of records.
+         * The records of shards are concatenated in the order of shards. The order differs from the unsharded
+         * response - every shard emits its part of every table, so the records of one table are interleaved
+         * with the other tables. The tables are renumbered by their group key without the bounds of shard and
+         * the records get the {@code _start} and {@code _stop} of whole range.
+         * <p>
+         * The sharding is applied to the queries of {@link io.bonitoo.flux.dto.FluxRecord}s. The query has to contain
+         * one {@code range()} with RFC3339 or relative bounds and its results have to be independent on the other
+         * shards - the aggregations over whole range are computed per shard. The sharding cannot be combined with
+         * the {@link #resumeAttempts(int)} or the {@link #rangeBucket(Duration)}. Default value is {@code 1} -
+         * the range is not split.
+         *
+         * @param rangeShards the count of shards, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder rangeShards(final int rangeShards) {
+
+            if (rangeShards <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for rangeShards");
+            }
+
+            this.rangeShards = rangeShards;
+
+            return this;
+        }
+
+        /**
+         * Set the minimal width of shard. The count of shards is adapted to the width of range and it is limited
+         * by the {@link #rangeShards(int)}. Default value is {@code null} - the range is split into
+         * the {@link #rangeShards(int)} of shards.
+         *
+         * @param rangeShardMinWidth the minimal width of shard, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder rangeShardMinWidth(@Nullable final Duration rangeShardMinWidth) {
+
+            if (rangeShardMinWidth != null && (rangeShardMinWidth.isNegative() || rangeShardMinWidth.isZero())) {
+                throw new IllegalArgumentException("Expecting a positive duration for rangeShardMinWidth");
+            }
+
+            this.rangeShardMinWidth = rangeShardMinWidth;
+
+            return this;
+        }
+
+        /**
+         * Set the adaptive limit of concurrent queries. The query waits for the permit of limiter before
+         * the request is sent and holds it until its results are read. The limiter is shared by all queries
+         * which use the options. Default value is {@code null} - the queries are not limited.
+         *
+         * @param concurrencyLimiter the limiter of concurrent queries
+         * @return {@code this}
+         * @see FluxConcurrencyLimiter
+         */
+        @Nonnull
+        public Builder concurrencyLimiter(@Nullable final FluxConcurrencyLimiter concurrencyLimiter) {
+
+            this.concurrencyLimiter = concurrencyLimiter;
+
+            return this;
+        }
+
+        /**
+         * Set the circuit breaker which fails the queries immediately when the server fails or responds slowly.
+         * The changes of its state are published as the {@link io.bonitoo.flux.event.FluxCircuitBreakerEvent}.
+         * The breaker is shared by all queries which use the options. Default value is {@code null} -
+         * the queries are always sent.
+         *
+         * @param circuitBreaker the circuit breaker
+         * @return {@code this}
+         * @see FluxCircuitBreaker
+         */
+        @Nonnull
+        public Builder circuitBreaker(@Nullable final FluxCircuitBreaker circuitBreaker) {
+
+            this.circuitBreaker = circuitBreaker;
+
+            return this;
+        }
+
+        /**
+         * Set the maximum count of resumes of the records query whose response was broken by the I/O error.
+         * The records which were already emitted are skipped and the results continue in the same stream.
+         * The truncated response is the I/O error for the resumable query.
+         * <p>
+         * The response of one ungrouped table ({@code group()} without columns) sorted by the {@code _time}
+         * is resumed with the {@code range()} narrowed to the last emitted {@code _time}. The other responses
+         * are resumed with the original range, the records of every table have to be sorted by the {@code _time}.
+         * The query without {@code range()} is resumed from its start.
+         * The resume cannot be combined with the {@link #rangeShards(int)} or the {@link #rangeBucket(Duration)}.
+         * Default value is {@code 0} - the query is not resumed.
+         *
+         * @param resumeAttempts the maximum count of resumes, must be non-negative
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder resumeAttempts(final int resumeAttempts) {
+
+            if (resumeAttempts < 0) {
+                throw new IllegalArgumentException("Expecting a non-negative number for resumeAttempts");
+            }
+
+            this.resumeAttempts = resumeAttempts;
+
+            return this;
+        }
+
+        /**
+         * Set the hedging of slow queries. The duplicate request is sent if the response does not arrive within
+         * the delay derived from recent responses, the first response is read and the other request is canceled.
+         * The hedged queries are executed by the I/O scheduler. The hedging is shared by all queries which use
+         * the options. Default value is {@code null} - the queries are not hedged.
+         *
+         * @param requestHedging the hedging of queries
+         * @return {@code this}
+         * @see FluxRequestHedging
+         */
+        @Nonnull
+        public Builder requestHedging(@Nullable final FluxRequestHedging requestHedging) {
+
+            this.requestHedging = requestHedging;
+
+            return this;
+        }
+
+        /**
+         * Set the deadline of query. The deadline covers the connect, the time to first byte and the reading
+         * of whole response. The expired query is canceled - the pending HTTP call is canceled, the socket
+         * of response is closed - and the subscriber receives {@link FluxDeadlineExceededException}.
+         * For the raw queries the deadline covers the response headers and limits the reading of body.
+         * The query with deadline is not {@link #coalesce(boolean) coalesced}. Default value is {@code null} -
+         * the query is limited only by the timeouts of HTTP client.
+         *
+         * @param deadline the deadline of query, must be positive
+         * @return {@code this}
+         * @see io.bonitoo.flux.event.FluxDeadlineExceededEvent
+         */
+        @Nonnull
+        public Builder deadline(@Nullable final Duration deadline) {
+
+            if (deadline != null && (deadline.isNegative() || deadline.isZero())) {
+                throw new IllegalArgumentException("Expecting a positive duration for deadline");
+            }
+
+            this.deadline = deadline;
+
+            return this;
+        }
+
+        /**
+         * Build an instance of FluxReactiveOptions.
+         *
+         * @return {@code FluxReactiveOptions}
+         */
+        @Nonnull
+        public FluxReactiveOptions build() {
+
+            if (rangeBucket != null && resultCache == null) {
+                throw new IllegalArgumentException("Expecting the resultCache for rangeBucket");
+            }
+
+            if (rangeShards > 1 && resumeAttempts > 0) {
+                throw new IllegalArgumentException("The rangeShards cannot be combined with the resumeAttempts");
+            }
+
+            if (rangeShards > 1 && rangeBucket != null) {
+                throw new IllegalArgumentException("The rangeShards cannot be combined with the rangeBucket");
+            }
+
+            if (resumeAttempts > 0 && rangeBucket != null) {
+                throw new IllegalArgumentException("The resumeAttempts cannot be combined with the rangeBucket");
+            }
+
+            return new FluxReactiveOptions(this);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.option;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The hedging of slow queries.
+ * <p>
+ * If the response of query does not arrive within the {@link Builder#percentile(double)} of recent times to first
+ * byte, the duplicate request is sent. The first response is used and the other request is canceled.
+ * The hedged requests are limited by the budget - every query adds the {@link Builder#hedgeRatio(double)}
+ * to the budget and every hedged request takes one from it.
+ * <p>
+ * The hedging is shared by all queries which use the {@link FluxReactiveOptions}.
+ *
+ * @author Jakub Bednar (bednar@github) (03/09/2018 09:40)
+ * @since 1.0.0
+ */
+@ThreadSafe
+public final class FluxRequestHedging {
+
+    private static final double DEFAULT_PERCENTILE = 0.95;
+    private static final double DEFAULT_HEDGE_RATIO = 0.05;
+    private static final Duration DEFAULT_MIN_DELAY = Duration.ofMillis(5);
+    private static final int DEFAULT_WINDOW_SIZE = 200;
+
+    /**
+     * The minimal count of samples required to compute the delay of hedged request.
+     */
+    private static final int MIN_SAMPLES = 10;
+
+    /**
+     * The maximum count of hedged requests in a burst.
+     */
+    private static final double MAX_BUDGET = 10;
+
+    private final double percentile;
+    private final double hedgeRatio;
+    private final long minDelayNanos;
+
+    // guarded by this
+    private final long[] samples;
+    private int samplesIndex;
+    private int samplesCount;
+    private long delayNanos = -1;
+
+    private double budget;
+    private long requests;
+    private long hedges;
+
+    private FluxRequestHedging(@Nonnull final Builder builder) {
+
+        Objects.requireNonNull(builder, "FluxRequestHedging.Builder is required");
+
+        this.percentile = builder.percentile;
+        this.hedgeRatio = builder.hedgeRatio;
+        this.minDelayNanos = builder.minDelay.toNanos();
+        this.samples = new long[builder.windowSize];
+    }
+
+    /**
+     * Record the query.
+     *
+     * @return the delay of hedged request in nanoseconds, {@code -1} if the request is not hedged
+     */
+    public synchronized long onRequest() {
+
+        requests++;
+        budget = Math.min(MAX_BUDGET, budget + hedgeRatio);
+
+        return delayNanos;
+    }
+
+    /**
+     * Take the hedged request from the budget.
+     *
+     * @return {@code true} if the hedged request can be sent
+     */
+    public synchronized boolean tryHedge() {
+
+        if (budget < 1) {
+            return false;
+        }
+
+        budget--;
+        hedges++;
+
+        return true;
+    }
+
+    /**
+     * Record the time to first byte of request.
+     *
+     * @param timeToFirstByte the time to first byte in nanoseconds
+     */
+    public synchronized void onResponse(final long timeToFirstByte) {
+
+        samples[samplesIndex] = timeToFirstByte;
+        samplesIndex = (samplesIndex + 1) % samples.length;
+        samplesCount = Math.min(samplesCount + 1, samples.length);
+
+        if (samplesCount < Math.min(MIN_SAMPLES, samples.length)) {
+            return;
+        }
+
+        long[] sorted = Arrays.copyOf(samples, samplesCount);
+        Arrays.sort(sorted);
+
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+
+        delayNanos = Math.max(minDelayNanos, sorted[Math.max(0, index)]);
+    }
+
+    /**
+     * @return the current delay of hedged request, {@code null} if there are not enough samples
+     */
+    @Nullable
+    public synchronized Duration getDelay() {
+        return delayNanos < 0 ? null : Duration.ofNanos(delayNanos);
+    }
+
+    /**
+     * @return the count of queries
+     */
+    public synchronized long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return the count of hedged requests
+     */
+    public synchronized long getHedges() {
+        return hedges;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "FluxRequestHedging{"
+                + "delay=" + getDelay()
+                + ", requests=" + requests
+                + ", hedges=" + hedges
+                + '}';
+    }
+
+    /**
+     * Creates a builder instance.
+     *
+     * @return a builder
+     */
+    @Nonnull
+    public static FluxRequestHedging.Builder builder() {
+        return new FluxRequestHedging.Builder();
+    }
+
+    /**
+     * A builder for {@code FluxRequestHedging}.
+     */
+    @NotThreadSafe
+    public static class Builder {
+
+        private double percentile = DEFAULT_PERCENTILE;
+        private double hedgeRatio = DEFAULT_HEDGE_RATIO;
+        private Duration minDelay = DEFAULT_MIN_DELAY;
+        private int windowSize = DEFAULT_WINDOW_SIZE;
+
+        /**
+         * Set the percentile of recent times to first byte after which the request is hedged.
+         * Default value is {@code 0.95}.
+         *
+         * @param percentile the percentile, must be between {@code 0} and {@code 1} exclusive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder percentile(final double percentile) {
+
+            if (percentile <= 0 || percentile >= 1) {
+                throw new IllegalArgumentException("Expecting a number between 0 and 1 for percentile");
+            }
+
+            this.percentile = percentile;
+
+            return this;
+        }
+
+        /**
+         * Set the maximum fraction of queries which are hedged. Default value is {@code 0.05}.
+         *
+         * @param hedgeRatio the fraction of queries, must be between {@code 0} exclusive and {@code 1} inclusive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder hedgeRatio(final double hedgeRatio) {
+
+            if (hedgeRatio <= 0 || hedgeRatio > 1) {
+                throw new IllegalArgumentException("Expecting a number between 0 and 1 for hedgeRatio");
+            }
+
+            this.hedgeRatio = hedgeRatio;
+
+            return this;
+        }
+
+        /**
+         * Set the minimal delay of hedged request. Default value is {@code 5 milliseconds}.
+         *
+         * @param minDelay the minimal delay, must be non-negative
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder minDelay(@Nonnull final Duration minDelay) {
+
+            Objects.requireNonNull(minDelay, "Min delay is required");
+            if (minDelay.isNegative()) {
+                throw new IllegalArgumentException("Expecting a non-negative duration for minDelay");
+            }
+
+            this.minDelay = minDelay;
+
+            return this;
+        }
+
+        /**
+         * Set the count of recent times to first byte which determine the delay. Default value is {@code 200}.
+         *
+         * @param windowSize the count of recorded times, must be positive
+         * @return {@code this}
+         */
+        @Nonnull
+        public Builder windowSize(final int windowSize) {
+
+            if (windowSize <= 0) {
+                throw new IllegalArgumentException("Expecting a positive number for windowSize");
+            }
+
+            this.windowSize = windowSize;
+
+            return this;
+        }
+
+        /**
+         * Build an instance of FluxRequestHedging.
+         *
+         * @return {@code FluxRequestHedging}
+         */
+        @Nonnull
+        public FluxRequestHedging build() {
+            return new FluxRequestHedging(this);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.option;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The cache of the query results. The results are cached in the compact form of the raw annotated CSV response,
+ * so the cached query is replayed by the same reader as the live query, with the same backpressure.
+ * <p>
+ * The cache is set by {@link FluxReactiveOptions.Builder#resultCache(FluxResultCache)}. The key of result is derived
+ * from the organization and the request body, that contains the rendered query with properties. The response is
+ * stored only if it is fully read without the error.
+ *
+ * @author Jakub Bednar (bednar@github) (29/08/2018 13:30)
+ * @see FluxLruResultCache
+ * @since 1.0.0
+ */
+public interface FluxResultCache {
+
+    /**
+     * @param key the key of query
+     * @return the cached response, {@code null} if the cache does not contain the response
+     */
+    @Nullable
+    byte[] get(@Nonnull final String key);
+
+    /**
+     * Store the fully read response.
+     *
+     * @param key      the key of query
+     * @param response the raw response
+     */
+    void put(@Nonnull final String key, @Nonnull final byte[] response);
+
+    /**
+     * The response is not captured if it is larger.
+     *
+     * @return the maximum size of the cached response in bytes
+     */
+    default long getMaxEntrySize() {
+        return Long.MAX_VALUE;
+    }
+}
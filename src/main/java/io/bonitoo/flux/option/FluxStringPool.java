@@ -0,0 +1,219 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.option;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The bounded pool of the decoded string cells. The repeated cells as a tag values are deduplicated
+ * by the raw bytes of response before the decoding, so the same value is decoded only once and all records
+ * shares the one {@link String} instance.
+ * <p>
+ * The pool is set by {@link FluxReactiveOptions.Builder#stringPool(FluxStringPool)}. The pool is shared by all
+ * queries which use the options - use the pool in the default options of client
+ * for the per-client scope or in the options of query for the per-query scope.
+ *
+ * @author Jakub Bednar (bednar@github) (24/08/2018 15:20)
+ * @since 1.0.0
+ */
+@ThreadSafe
+public final class FluxStringPool {
+
+    /**
+     * The longer cells are not pooled.
+     */
+    public static final int MAX_VALUE_LENGTH = 256;
+
+    private static final int HASH_SEED = 0x9E3779B9;
+    private static final int HASH_MULTIPLIER = 31;
+    private static final int HASH_SPREAD = 16;
+
+    private final int maxSize;
+    private final AtomicReferenceArray<Entry> entries;
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxSize the maximum count of pooled values, must be positive
+     */
+    public FluxStringPool(final int maxSize) {
+
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Expecting a positive number for maxSize");
+        }
+
+        this.maxSize = maxSize;
+        this.entries = new AtomicReferenceArray<>(maxSize);
+    }
+
+    /**
+     * Returns the pooled {@link String} with the same UTF-8 content as the {@code bytes}.
+     * The value is decoded only if the pool does not contain it. If the slot for value is used by other value,
+     * the other value is evicted.
+     *
+     * @param bytes  the UTF-8 bytes
+     * @param offset the index of first byte
+     * @param length the count of bytes
+     * @return the decoded value
+     */
+    @Nonnull
+    public String intern(@Nonnull final byte[] bytes, final int offset, final int length) {
+
+        Objects.requireNonNull(bytes, "Bytes are required");
+
+        if (length > MAX_VALUE_LENGTH) {
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+
+        int hash = hash(bytes, offset, length);
+        int slot = Math.floorMod(hash, maxSize);
+
+        Entry entry = entries.get(slot);
+        if (entry != null && entry.matches(hash, bytes, offset, length)) {
+            hits.increment();
+            return entry.value;
+        }
+
+        misses.increment();
+
+        Entry created = new Entry(hash, bytes, offset, length);
+        if (entries.getAndSet(slot, created) == null) {
+            size.incrementAndGet();
+        }
+
+        return created.value;
+    }
+
+    /**
+     * @return the maximum count of pooled values
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the count of pooled values
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return the count of cells which was found in the pool
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the count of cells which had to be decoded
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the ratio of the hits to all pooled cells, {@code 0} if the pool was not used
+     */
+    public double getHitRate() {
+
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Remove all pooled values and reset the statistics.
+     */
+    public void clear() {
+
+        for (int i = 0; i < maxSize; i++) {
+            if (entries.getAndSet(i, null) != null) {
+                size.decrementAndGet();
+            }
+        }
+
+        hits.reset();
+        misses.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "FluxStringPool{"
+                + "maxSize=" + maxSize
+                + ", size=" + size()
+                + ", hits=" + getHits()
+                + ", misses=" + getMisses()
+                + '}';
+    }
+
+    private static int hash(@Nonnull final byte[] bytes, final int offset, final int length) {
+
+        int hash = HASH_SEED;
+        for (int i = offset; i < offset + length; i++) {
+            hash = HASH_MULTIPLIER * hash + bytes[i];
+        }
+
+        // spread the low bits
+        return hash ^ (hash >>> HASH_SPREAD);
+    }
+
+    private static final class Entry {
+
+        private final int hash;
+        private final byte[] bytes;
+        private final String value;
+
+        private Entry(final int hash, @Nonnull final byte[] bytes, final int offset, final int length) {
+
+            this.hash = hash;
+            this.bytes = new byte[length];
+            System.arraycopy(bytes, offset, this.bytes, 0, length);
+            this.value = new String(this.bytes, StandardCharsets.UTF_8);
+        }
+
+        private boolean matches(final int hash, @Nonnull final byte[] bytes, final int offset, final int length) {
+
+            if (this.hash != hash || this.bytes.length != length) {
+                return false;
+            }
+
+            for (int i = 0; i < length; i++) {
+                if (this.bytes[i] != bytes[offset + i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
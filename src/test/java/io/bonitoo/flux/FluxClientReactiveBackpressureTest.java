@@ -0,0 +1,158 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.util.HashMap;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.event.FluxRecordsDroppedEvent;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subscribers.TestSubscriber;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (21/08/2018 11:20)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveBackpressureTest extends AbstractFluxClientReactiveTest {
+
+    @Test
+    void blockReader() {
+
+        fluxServer.enqueue(createResponse());
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .bufferSize(2)
+                .overflowStrategy(FluxReactiveOptions.OverflowStrategy.BLOCK)
+                .build();
+
+        TestSubscriber<FluxRecord> subscriber = fluxClient
+                .flux(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .test(0);
+
+        subscriber.assertValueCount(0);
+
+        subscriber.request(3);
+        subscriber
+                .assertValueCount(3)
+                .assertNotComplete();
+
+        subscriber.request(3);
+        subscriber
+                .assertValueCount(6)
+                .assertComplete();
+    }
+
+    @Test
+    void dropLatest() {
+
+        fluxServer.enqueue(createResponse());
+
+        TestObserver<FluxRecordsDroppedEvent> listener = fluxClient
+                .listenEvents(FluxRecordsDroppedEvent.class)
+                .test();
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .bufferSize(2)
+                .overflowStrategy(FluxReactiveOptions.OverflowStrategy.DROP_LATEST)
+                .build();
+
+        TestSubscriber<FluxRecord> subscriber = fluxClient
+                .flux(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .test(0);
+
+        subscriber.request(10);
+        subscriber
+                .assertValueCount(2)
+                // the first record and the latest record
+                .assertValueAt(0, record -> "east".equals(record.getValueByKey("region"))
+                        && "A".equals(record.getValueByKey("host")))
+                .assertValueAt(1, record -> "west".equals(record.getValueByKey("region"))
+                        && "C".equals(record.getValueByKey("host")))
+                .assertComplete();
+
+        listener.assertValueCount(1).assertValue(event -> {
+
+            Assertions.assertThat(event.getDroppedRecords()).isEqualTo(4);
+            Assertions.assertThat(event.getOverflowStrategy())
+                    .isEqualTo(FluxReactiveOptions.OverflowStrategy.DROP_LATEST);
+
+            return true;
+        });
+    }
+
+    @Test
+    void dropOldest() {
+
+        fluxServer.enqueue(createResponse());
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .bufferSize(2)
+                .overflowStrategy(FluxReactiveOptions.OverflowStrategy.DROP_OLDEST)
+                .build();
+
+        TestSubscriber<FluxRecord> subscriber = fluxClient
+                .flux(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .test(0);
+
+        subscriber.request(10);
+        subscriber
+                .assertValueCount(2)
+                .assertValueAt(0, record -> "west".equals(record.getValueByKey("region"))
+                        && "B".equals(record.getValueByKey("host")))
+                .assertValueAt(1, record -> "west".equals(record.getValueByKey("region"))
+                        && "C".equals(record.getValueByKey("host")))
+                .assertComplete();
+    }
+
+    @Test
+    void errorOverflow() {
+
+        fluxServer.enqueue(createResponse());
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .bufferSize(2)
+                .overflowStrategy(FluxReactiveOptions.OverflowStrategy.ERROR)
+                .build();
+
+        fluxClient
+                .flux(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .test(0)
+                .assertError(MissingBackpressureException.class);
+    }
+
+    @Test
+    void bufferSizeMustBePositive() {
+
+        Assertions.assertThatThrownBy(() -> FluxReactiveOptions.builder().bufferSize(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a positive number for bufferSize");
+    }
+}
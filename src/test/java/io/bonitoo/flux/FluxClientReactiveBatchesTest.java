@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.time.Instant;
+import java.util.HashMap;
+
+import io.bonitoo.flux.dto.FluxColumnVector;
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.dto.FluxRecordBatch;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (22/08/2018 13:40)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveBatchesTest extends AbstractFluxClientReactiveTest {
+
+    @Test
+    void batches() {
+
+        fluxServer.enqueue(createResponse());
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder().batchSize(4).build();
+
+        fluxClient
+                .fluxBatches(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .test()
+                .assertValueCount(2)
+                .assertValueAt(0, batch -> {
+
+                    Assertions.assertThat(batch.size()).isEqualTo(4);
+                    Assertions.assertThat(batch.getTable(0)).isEqualTo(0);
+                    Assertions.assertThat(batch.getTable(3)).isEqualTo(1);
+
+                    long time = Instant.parse("2018-05-08T20:50:20Z").getEpochSecond() * 1_000_000_000L;
+                    Assertions.assertThat(batch.getTimes()).hasSize(4);
+                    Assertions.assertThat(batch.getTimes()[1]).isEqualTo(time);
+
+                    FluxColumnVector value = batch.getColumn("_value");
+                    Assertions.assertThat(value).isNotNull();
+                    Assertions.assertThat(value.getDoubles()).containsExactly(15.43, 59.25, 52.62, 62.73);
+
+                    FluxColumnVector region = batch.getColumn("region");
+                    Assertions.assertThat(region).isNotNull();
+                    Assertions.assertThat(region.getDictionary()).containsExactly("east", "west");
+                    Assertions.assertThat(region.getDictionaryIndexes()).containsExactly(0, 0, 0, 1);
+                    Assertions.assertThat(region.getString(3)).isEqualTo("west");
+
+                    return true;
+                })
+                .assertValueAt(1, batch -> {
+
+                    Assertions.assertThat(batch.size()).isEqualTo(2);
+                    Assertions.assertThat(batch.getColumn("host").getString(1)).isEqualTo("C");
+                    Assertions.assertThat(batch.toRecord(1).getValue()).isEqualTo(51.62);
+                    Assertions.assertThat(batch.toRecord(1).getTime()).isEqualTo(Instant.parse("2018-05-08T20:50:40Z"));
+
+                    return true;
+                });
+    }
+
+    @Test
+    void batchPerTableLayout() {
+
+        String data = "#datatype,string,long,dateTime:RFC3339,double,string\n"
+                + "#group,false,false,false,false,true\n"
+                + "#default,_result,,,,\n"
+                + ",result,table,_time,_value,_field\n"
+                + ",,0,1677-09-21T00:12:43.145224192Z,50,cpu_usage\n"
+                + ",,0,2018-06-27T05:56:40.001Z,,cpu_usage\n"
+                + "\n"
+                + "#datatype,string,long,dateTime:RFC3339,boolean,string\n"
+                + "#group,false,false,false,false,true\n"
+                + "#default,_result,,,,\n"
+                + ",result,table,_time,_value,_field\n"
+                + ",,1,2018-06-27T05:56:40.001Z,true,production\n";
+
+        fluxServer.enqueue(createResponse(data));
+
+        fluxClient
+                .fluxBatches(Flux.from("flux_database"))
+                .test()
+                .assertValueCount(2)
+                .assertValueAt(0, batch -> {
+
+                    Assertions.assertThat(batch.size()).isEqualTo(2);
+                    Assertions.assertThat(batch.getTimes()[0]).isEqualTo(Long.MIN_VALUE);
+                    Assertions.assertThat(batch.toRecord(0).getTime())
+                            .isEqualTo(Instant.parse("1677-09-21T00:12:43.145224192Z"));
+                    Assertions.assertThat(batch.getColumn("_value").isNull(1)).isTrue();
+                    Assertions.assertThat(batch.getColumn("result").getString(0)).isEqualTo("_result");
+
+                    return true;
+                })
+                .assertValueAt(1, batch -> {
+
+                    Assertions.assertThat(batch.size()).isEqualTo(1);
+                    Assertions.assertThat(batch.getColumn("_value").getBooleans()).containsExactly(true);
+
+                    return true;
+                });
+    }
+
+    @Test
+    void timePrecision() {
+
+        String[] times = {
+                "1970-01-01T00:00:00Z",
+                "2018-05-08T20:50:00.1Z",
+                "2018-05-08T20:50:00.123456Z",
+                "2018-05-08T20:50:00.123456789Z",
+                "2016-02-29T23:59:59.999999999Z",
+                "1969-12-31T23:59:59.5Z",
+                "2000-03-01T00:00:00Z",
+                "2018-05-08T22:50:00.001+02:00"};
+
+        StringBuilder data = new StringBuilder()
+                .append("#datatype,string,long,dateTime:RFC3339Nano,double\n")
+                .append("#group,false,false,false,false\n")
+                .append("#default,_result,,,\n")
+                .append(",result,table,_time,_value\n");
+        for (String time : times) {
+            data.append(",,0,").append(time).append(",1\n");
+        }
+
+        fluxServer.enqueue(createResponse(data.toString()));
+        fluxServer.enqueue(createResponse(data.toString()));
+
+        fluxClient
+                .fluxBatches(Flux.from("flux_database"))
+                .test()
+                .assertValueCount(1)
+                .assertValueAt(0, batch -> {
+
+                    for (int i = 0; i < times.length; i++) {
+                        Instant expected = Instant.parse(times[i]);
+                        long nanos = Math.addExact(Math.multiplyExact(expected.getEpochSecond(), 1_000_000_000L),
+                                expected.getNano());
+
+                        Assertions.assertThat(batch.getTimeNanos(i)).isEqualTo(nanos);
+                        Assertions.assertThat(batch.getTime(i)).isEqualTo(expected);
+                    }
+
+                    return true;
+                });
+
+        fluxClient
+                .flux(Flux.from("flux_database"))
+                .map(FluxRecord::getTime)
+                .test()
+                .assertValueCount(times.length)
+                .assertValueAt(3, Instant.parse(times[3]))
+                .assertValueAt(7, Instant.parse(times[7]));
+    }
+}
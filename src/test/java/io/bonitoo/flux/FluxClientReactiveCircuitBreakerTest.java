@@ -0,0 +1,233 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.core.InfluxException;
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.event.FluxCircuitBreakerEvent;
+import io.bonitoo.flux.option.FluxCircuitBreaker;
+import io.bonitoo.flux.option.FluxCircuitOpenException;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import io.reactivex.Flowable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subscribers.TestSubscriber;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (02/09/2018 11:15)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveCircuitBreakerTest extends AbstractFluxClientReactiveTest {
+
+    @Test
+    void openByFailures() {
+
+        FluxCircuitBreaker circuitBreaker = circuitBreaker(Duration.ofHours(1));
+
+        TestObserver<FluxCircuitBreakerEvent> events = fluxClient
+                .listenEvents(FluxCircuitBreakerEvent.class)
+                .test();
+
+        fluxServer.enqueue(createErrorResponse("Flux query service disabled."));
+        fluxServer.enqueue(createErrorResponse("Flux query service disabled."));
+
+        query(circuitBreaker).assertError(throwable -> throwable.getMessage().equals("Flux query service disabled."));
+        Assertions.assertThat(circuitBreaker.getState()).isEqualTo(FluxCircuitBreaker.State.CLOSED);
+
+        query(circuitBreaker).assertError(throwable -> throwable.getMessage().equals("Flux query service disabled."));
+        Assertions.assertThat(circuitBreaker.getState()).isEqualTo(FluxCircuitBreaker.State.OPEN);
+
+        // fail fast
+        query(circuitBreaker).assertError(FluxCircuitOpenException.class);
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+
+        events.assertValueCount(1);
+        Assertions.assertThat(events.values().get(0).getPreviousState()).isEqualTo(FluxCircuitBreaker.State.CLOSED);
+        Assertions.assertThat(events.values().get(0).getState()).isEqualTo(FluxCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void rejectedQueryIsNotFailure() {
+
+        FluxCircuitBreaker circuitBreaker = circuitBreaker(Duration.ofHours(1));
+
+        fluxServer.enqueue(new MockResponse().setResponseCode(400).addHeader("X-Influx-Error", "invalid query"));
+        fluxServer.enqueue(new MockResponse().setResponseCode(400).addHeader("X-Influx-Error", "invalid query"));
+
+        query(circuitBreaker).assertError(throwable -> throwable.getMessage().equals("invalid query"));
+        query(circuitBreaker).assertError(throwable -> throwable.getMessage().equals("invalid query"));
+
+        Assertions.assertThat(circuitBreaker.getState()).isEqualTo(FluxCircuitBreaker.State.CLOSED);
+        Assertions.assertThat(circuitBreaker.getFailureRate()).isEqualTo(0);
+    }
+
+    @Test
+    void closeBySuccessfulTrial() throws InterruptedException {
+
+        FluxCircuitBreaker circuitBreaker = circuitBreaker(Duration.ofMillis(100));
+
+        TestObserver<FluxCircuitBreakerEvent> events = fluxClient
+                .listenEvents(FluxCircuitBreakerEvent.class)
+                .test();
+
+        fluxServer.enqueue(createErrorResponse("Flux query service disabled."));
+        fluxServer.enqueue(createErrorResponse("Flux query service disabled."));
+        fluxServer.enqueue(createResponse());
+
+        query(circuitBreaker).assertError(InfluxException.class);
+        query(circuitBreaker).assertError(InfluxException.class);
+        Assertions.assertThat(circuitBreaker.getState()).isEqualTo(FluxCircuitBreaker.State.OPEN);
+
+        Thread.sleep(200);
+
+        query(circuitBreaker).assertNoErrors().assertValueCount(6);
+        Assertions.assertThat(circuitBreaker.getState()).isEqualTo(FluxCircuitBreaker.State.CLOSED);
+
+        events.assertValueCount(3);
+        Assertions.assertThat(events.values())
+                .extracting(FluxCircuitBreakerEvent::getState)
+                .containsExactly(FluxCircuitBreaker.State.OPEN,
+                        FluxCircuitBreaker.State.HALF_OPEN,
+                        FluxCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void openByFailedTrial() throws InterruptedException {
+
+        FluxCircuitBreaker circuitBreaker = circuitBreaker(Duration.ofMillis(100));
+
+        fluxServer.enqueue(createErrorResponse("Flux query service disabled."));
+        fluxServer.enqueue(createErrorResponse("Flux query service disabled."));
+        fluxServer.enqueue(createErrorResponse("Flux query service disabled."));
+
+        query(circuitBreaker).assertError(InfluxException.class);
+        query(circuitBreaker).assertError(InfluxException.class);
+
+        Thread.sleep(200);
+
+        query(circuitBreaker).assertError(throwable -> throwable.getMessage().equals("Flux query service disabled."));
+        Assertions.assertThat(circuitBreaker.getState()).isEqualTo(FluxCircuitBreaker.State.OPEN);
+
+        query(circuitBreaker).assertError(FluxCircuitOpenException.class);
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void openBySlowResponses() {
+
+        FluxCircuitBreaker circuitBreaker = FluxCircuitBreaker.builder()
+                .windowSize(4)
+                .minimumCalls(2)
+                .slowCallDuration(Duration.ofMillis(50))
+                .openDuration(Duration.ofHours(1))
+                .build();
+
+        fluxServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+
+                // delay the headers of response
+                Thread.sleep(100);
+
+                return createResponse();
+            }
+        });
+
+        query(circuitBreaker).assertNoErrors();
+        query(circuitBreaker).assertNoErrors();
+
+        Assertions.assertThat(circuitBreaker.getState()).isEqualTo(FluxCircuitBreaker.State.OPEN);
+
+        query(circuitBreaker).assertError(FluxCircuitOpenException.class);
+    }
+
+    @Test
+    void openByRawServerErrors() {
+
+        FluxCircuitBreaker circuitBreaker = circuitBreaker(Duration.ofHours(1));
+
+        fluxServer.enqueue(createErrorResponse("Flux query service disabled."));
+        fluxServer.enqueue(createErrorResponse("Flux query service disabled."));
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .circuitBreaker(circuitBreaker)
+                .build();
+
+        for (int i = 0; i < 2; i++) {
+            fluxClient
+                    .fluxRaw(Flowable.just(Flux.from("telegraf")), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                    .test()
+                    .assertValue(response -> response.code() == 500);
+        }
+
+        Assertions.assertThat(circuitBreaker.getState()).isEqualTo(FluxCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void minimumCallsMustFitToWindow() {
+
+        Assertions.assertThatThrownBy(() -> FluxCircuitBreaker.builder().windowSize(5).minimumCalls(10).build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting the minimumCalls lower or equal to the windowSize");
+    }
+
+    @Nonnull
+    private FluxCircuitBreaker circuitBreaker(@Nonnull final Duration openDuration) {
+
+        return FluxCircuitBreaker.builder()
+                .windowSize(4)
+                .minimumCalls(2)
+                .failureRateThreshold(0.5)
+                .openDuration(openDuration)
+                .build();
+    }
+
+    @Nonnull
+    private TestSubscriber<FluxRecord> query(@Nonnull final FluxCircuitBreaker circuitBreaker) {
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .circuitBreaker(circuitBreaker)
+                .build();
+
+        TestSubscriber<FluxRecord> subscriber = fluxClient
+                .flux(Flux.from("telegraf"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .test();
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+        return subscriber;
+    }
+}
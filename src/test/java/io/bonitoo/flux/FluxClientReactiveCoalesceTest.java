@@ -0,0 +1,197 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.dto.FluxRecordBatch;
+import io.bonitoo.flux.option.FluxDeadlineExceededException;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+import okhttp3.mockwebserver.MockResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (29/08/2018 10:15)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveCoalesceTest extends AbstractFluxClientReactiveTest {
+
+    private static final FluxReactiveOptions COALESCE = FluxReactiveOptions.builder()
+            .coalesce(true)
+            .ioScheduler(Schedulers.io())
+            .build();
+
+    @Test
+    void coalesceIdenticalQueries() {
+
+        fluxServer.enqueue(createDelayedResponse());
+        fluxServer.enqueue(createDelayedResponse());
+
+        TestSubscriber<FluxRecord> first = query(COALESCE).test();
+        TestSubscriber<FluxRecord> second = query(COALESCE).test();
+
+        first.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        second.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+        first.assertComplete().assertValueCount(6);
+        second.assertComplete().assertValueCount(6);
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void notCoalesceByDefault() {
+
+        fluxServer.enqueue(createDelayedResponse());
+        fluxServer.enqueue(createDelayedResponse());
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .ioScheduler(Schedulers.io())
+                .build();
+
+        TestSubscriber<FluxRecord> first = query(reactiveOptions).test();
+        TestSubscriber<FluxRecord> second = query(reactiveOptions).test();
+
+        first.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        second.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+        first.assertComplete().assertValueCount(6);
+        second.assertComplete().assertValueCount(6);
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void lateSubscriberStartsNewRequest() {
+
+        fluxServer.enqueue(createResponse());
+        fluxServer.enqueue(createResponse());
+
+        Assertions.assertThat(query(COALESCE).toList().blockingGet()).hasSize(6);
+        Assertions.assertThat(query(COALESCE).toList().blockingGet()).hasSize(6);
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void notCoalesceWithDeadline() {
+
+        // the first query expires, the second one is read whole
+        fluxServer.enqueue(createResponse().throttleBody(256, 1, TimeUnit.SECONDS));
+        fluxServer.enqueue(createResponse());
+
+        FluxReactiveOptions deadline = FluxReactiveOptions.builder()
+                .coalesce(true)
+                .ioScheduler(Schedulers.io())
+                .deadline(Duration.ofMillis(500))
+                .build();
+
+        TestSubscriber<FluxRecord> first = query(deadline).test();
+        TestSubscriber<FluxRecord> second = query(COALESCE).test();
+
+        first.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        second.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+        first.assertError(FluxDeadlineExceededException.class);
+        second.assertComplete().assertValueCount(6);
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void differentResultTypes() {
+
+        fluxServer.enqueue(createDelayedResponse());
+        fluxServer.enqueue(createDelayedResponse());
+
+        TestSubscriber<FluxRecord> records = query(COALESCE).test();
+        TestSubscriber<FluxRecordBatch> batches = fluxClient
+                .fluxBatches(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, COALESCE)
+                .test();
+
+        records.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        batches.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+        records.assertComplete().assertValueCount(6);
+        batches.assertComplete().assertValueCount(1);
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void cancelOneOfSubscribers() {
+
+        // the second request if the first subscriber cancels before the second joins
+        fluxServer.enqueue(createDelayedResponse());
+        fluxServer.enqueue(createDelayedResponse());
+
+        TestSubscriber<FluxRecord> first = query(COALESCE).test();
+        TestSubscriber<FluxRecord> second = query(COALESCE).test();
+
+        first.cancel();
+
+        second.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        second.assertComplete().assertValueCount(6);
+    }
+
+    @Test
+    void cancelAllSubscribers() throws InterruptedException {
+
+        fluxServer.enqueue(createResponse().setBodyDelay(2, TimeUnit.SECONDS));
+        fluxServer.enqueue(createResponse());
+
+        TestSubscriber<FluxRecord> first = query(COALESCE).test();
+        TestSubscriber<FluxRecord> second = query(COALESCE).test();
+
+        fluxServer.takeRequest(10, TimeUnit.SECONDS);
+
+        first.cancel();
+        second.cancel();
+
+        // the cancelled request is not joinable
+        Assertions.assertThat(query(COALESCE).toList().blockingGet()).hasSize(6);
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Nonnull
+    private Flowable<FluxRecord> query(@Nonnull final FluxReactiveOptions reactiveOptions) {
+        return fluxClient.flux(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions);
+    }
+
+    @Nonnull
+    private MockResponse createDelayedResponse() {
+        return createResponse().setBodyDelay(300, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.option.FluxConcurrencyLimiter;
+import io.bonitoo.flux.option.FluxLimitExceededException;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+import retrofit2.Response;
+
+/**
+ * @author Jakub Bednar (bednar@github) (01/09/2018 11:05)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveConcurrencyLimiterTest extends AbstractFluxClientReactiveTest {
+
+    @Test
+    void limitConcurrentQueries() {
+
+        FluxConcurrencyLimiter limiter = FluxConcurrencyLimiter.builder()
+                .initialLimit(1)
+                .maxLimit(1)
+                .build();
+
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger maxQueueDepth = new AtomicInteger();
+
+        fluxServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+
+                maxInFlight.accumulateAndGet(limiter.getInFlight(), Math::max);
+                maxQueueDepth.accumulateAndGet(limiter.getQueueDepth(), Math::max);
+
+                return createFieldResponse().setBodyDelay(100, TimeUnit.MILLISECONDS);
+            }
+        });
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .maxConcurrency(4)
+                .concurrencyLimiter(limiter)
+                .build();
+
+        List<FluxRecord> records = fluxClient
+                .flux(queries(4), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(records).hasSize(4);
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(4);
+
+        Assertions.assertThat(maxInFlight.get()).isEqualTo(1);
+        Assertions.assertThat(maxQueueDepth.get()).isGreaterThan(0);
+
+        // the permit is released after the results are delivered
+        awaitInFlight(limiter, 0);
+        Assertions.assertThat(limiter.getQueueDepth()).isEqualTo(0);
+        Assertions.assertThat(limiter.getRejections()).isEqualTo(0);
+    }
+
+    @Test
+    void increaseLimitBySuccess() {
+
+        FluxConcurrencyLimiter limiter = FluxConcurrencyLimiter.builder()
+                .initialLimit(1)
+                .build();
+
+        for (int i = 0; i < 5; i++) {
+            fluxServer.enqueue(createFieldResponse());
+        }
+
+        List<FluxRecord> records = fluxClient
+                .flux(queries(5), new HashMap<>(), FluxOptions.DEFAULTS, limited(limiter))
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(records).hasSize(5);
+        awaitInFlight(limiter, 0);
+        Assertions.assertThat(limiter.getLimit()).isGreaterThan(1);
+    }
+
+    @Test
+    void decreaseLimitByError() {
+
+        FluxConcurrencyLimiter limiter = FluxConcurrencyLimiter.builder()
+                .initialLimit(10)
+                .build();
+
+        fluxServer.enqueue(createErrorResponse("Flux query service disabled."));
+
+        TestSubscriber<FluxRecord> subscriber = fluxClient
+                .flux(Flux.from("telegraf"), new HashMap<>(), FluxOptions.DEFAULTS, limited(limiter))
+                .test();
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertError(throwable -> throwable.getMessage().equals("Flux query service disabled."));
+
+        awaitInFlight(limiter, 0);
+        Assertions.assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void decreaseLimitBySlowResponse() {
+
+        FluxConcurrencyLimiter limiter = FluxConcurrencyLimiter.builder()
+                .initialLimit(10)
+                .latencyThreshold(Duration.ofMillis(50))
+                .build();
+
+        fluxServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+
+                // delay the headers of response
+                Thread.sleep(200);
+
+                return createFieldResponse();
+            }
+        });
+
+        List<FluxRecord> records = fluxClient
+                .flux(Flux.from("telegraf"), new HashMap<>(), FluxOptions.DEFAULTS, limited(limiter))
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(records).hasSize(1);
+        awaitInFlight(limiter, 0);
+        Assertions.assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void decreaseLimitByRawError() {
+
+        FluxConcurrencyLimiter limiter = FluxConcurrencyLimiter.builder()
+                .initialLimit(10)
+                .build();
+
+        fluxServer.enqueue(createErrorResponse("Flux query service disabled."));
+
+        List<Response<okhttp3.ResponseBody>> responses = fluxClient
+                .fluxRaw(queries(1), new HashMap<>(), FluxOptions.DEFAULTS, limited(limiter))
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(responses).hasSize(1);
+        Assertions.assertThat(responses.get(0).isSuccessful()).isFalse();
+        awaitInFlight(limiter, 0);
+        Assertions.assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void rejectFullQueue() {
+
+        FluxConcurrencyLimiter limiter = FluxConcurrencyLimiter.builder()
+                .initialLimit(1)
+                .maxLimit(1)
+                .maxQueueSize(0)
+                .build();
+
+        fluxServer.enqueue(createFieldResponse().setBodyDelay(500, TimeUnit.MILLISECONDS));
+        fluxServer.enqueue(createFieldResponse());
+
+        TestSubscriber<FluxRecord> first = fluxClient
+                .flux(queries(1), new HashMap<>(), FluxOptions.DEFAULTS, limited(limiter))
+                .subscribeOn(Schedulers.io())
+                .test();
+
+        awaitInFlight(limiter, 1);
+
+        TestSubscriber<FluxRecord> subscriber = fluxClient
+                .flux(queries(1), new HashMap<>(), FluxOptions.DEFAULTS, limited(limiter))
+                .test();
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertError(FluxLimitExceededException.class);
+
+        first.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        first.assertNoErrors().assertValueCount(1);
+
+        Assertions.assertThat(limiter.getRejections()).isEqualTo(1);
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectLongWait() {
+
+        FluxConcurrencyLimiter limiter = FluxConcurrencyLimiter.builder()
+                .initialLimit(1)
+                .maxLimit(1)
+                .maxWait(Duration.ofMillis(100))
+                .build();
+
+        fluxServer.enqueue(createFieldResponse().setBodyDelay(1, TimeUnit.SECONDS));
+        fluxServer.enqueue(createFieldResponse());
+
+        TestSubscriber<FluxRecord> first = fluxClient
+                .flux(queries(1), new HashMap<>(), FluxOptions.DEFAULTS, limited(limiter))
+                .subscribeOn(Schedulers.io())
+                .test();
+
+        awaitInFlight(limiter, 1);
+
+        TestSubscriber<FluxRecord> subscriber = fluxClient
+                .flux(queries(1), new HashMap<>(), FluxOptions.DEFAULTS, limited(limiter))
+                .test();
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertError(FluxLimitExceededException.class);
+
+        first.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        first.assertNoErrors().assertValueCount(1);
+
+        Assertions.assertThat(limiter.getRejections()).isEqualTo(1);
+        Assertions.assertThat(limiter.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    void releaseCanceledQuery() {
+
+        FluxConcurrencyLimiter limiter = FluxConcurrencyLimiter.builder()
+                .initialLimit(1)
+                .build();
+
+        fluxServer.enqueue(createFieldResponse().setBodyDelay(1, TimeUnit.SECONDS));
+
+        TestSubscriber<FluxRecord> subscriber = fluxClient
+                .flux(queries(1), new HashMap<>(), FluxOptions.DEFAULTS, limited(limiter))
+                .subscribeOn(Schedulers.io())
+                .test();
+
+        awaitInFlight(limiter, 1);
+
+        subscriber.dispose();
+
+        awaitInFlight(limiter, 0);
+    }
+
+    @Test
+    void limitsMustBeConsistent() {
+
+        Assertions.assertThatThrownBy(() -> FluxConcurrencyLimiter.builder().minLimit(10).maxLimit(5).build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting the minLimit lower or equal to the maxLimit");
+
+        Assertions.assertThatThrownBy(() -> FluxConcurrencyLimiter.builder().backoffRatio(1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a number between 0 and 1 for backoffRatio");
+    }
+
+    private void awaitInFlight(@Nonnull final FluxConcurrencyLimiter limiter, final int inFlight) {
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (limiter.getInFlight() != inFlight && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+
+        Assertions.assertThat(limiter.getInFlight()).isEqualTo(inFlight);
+    }
+
+    @Nonnull
+    private FluxReactiveOptions limited(@Nonnull final FluxConcurrencyLimiter limiter) {
+        return FluxReactiveOptions.builder().concurrencyLimiter(limiter).build();
+    }
+
+    @Nonnull
+    private Flowable<Flux> queries(final int count) {
+        return Flowable.range(0, count).map(index -> Flux.from("telegraf_" + index));
+    }
+
+    @Nonnull
+    private MockResponse createFieldResponse() {
+
+        String data = "#datatype,string,long,dateTime:RFC3339,double,string\n"
+                + ",result,table,_time,_value,_field\n"
+                + ",_result,0,2018-06-27T05:56:40.001Z,1,free\n";
+
+        return createResponse(data);
+    }
+}
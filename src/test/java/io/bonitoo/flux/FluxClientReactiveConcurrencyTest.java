@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import io.reactivex.Flowable;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+import retrofit2.Response;
+
+/**
+ * @author Jakub Bednar (bednar@github) (28/08/2018 09:20)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveConcurrencyTest extends AbstractFluxClientReactiveTest {
+
+    private final CountDownLatch fastRequested = new CountDownLatch(1);
+    private volatile boolean awaitFast;
+    private volatile boolean concurrent;
+
+    @BeforeEach
+    void dispatcher() {
+
+        fluxServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+
+                String body = request.getBody().readUtf8();
+                if (body.contains("slow_database")) {
+                    if (awaitFast) {
+                        try {
+                            concurrent = fastRequested.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return createFieldResponse("slow").setBodyDelay(500, TimeUnit.MILLISECONDS);
+                }
+
+                fastRequested.countDown();
+
+                return createFieldResponse("fast");
+            }
+        });
+    }
+
+    @Test
+    void sequentialByDefault() {
+
+        List<FluxRecord> records = fluxClient
+                .flux(queries(), new HashMap<>(), FluxOptions.DEFAULTS, FluxReactiveOptions.DEFAULTS)
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(fields(records)).containsExactly("slow", "slow", "fast", "fast");
+    }
+
+    @Test
+    void concurrentOrdered() {
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .maxConcurrency(2)
+                .build();
+
+        awaitFast = true;
+
+        List<FluxRecord> records = fluxClient
+                .flux(queries(), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .toList()
+                .blockingGet();
+
+        // the slow query is responded after the fast query is requested
+        Assertions.assertThat(concurrent).isTrue();
+        Assertions.assertThat(fields(records)).containsExactly("slow", "slow", "fast", "fast");
+    }
+
+    @Test
+    void concurrentUnordered() {
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .maxConcurrency(2)
+                .concurrencyOrdered(false)
+                .build();
+
+        List<FluxRecord> records = fluxClient
+                .flux(queries(), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(fields(records)).containsExactly("fast", "fast", "slow", "slow");
+    }
+
+    @Test
+    void concurrentRaw() {
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .maxConcurrency(2)
+                .concurrencyOrdered(false)
+                .build();
+
+        awaitFast = true;
+
+        List<String> bodies = fluxClient
+                .fluxRaw(queries(), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .map(Response::body)
+                .map(ResponseBody::string)
+                .toList()
+                .blockingGet();
+
+        // the slow query is responded after the fast query is requested
+        Assertions.assertThat(concurrent).isTrue();
+        Assertions.assertThat(bodies).hasSize(2);
+        Assertions.assertThat(bodies).anySatisfy(body -> Assertions.assertThat(body).contains("slow"));
+        Assertions.assertThat(bodies).anySatisfy(body -> Assertions.assertThat(body).contains("fast"));
+    }
+
+    @Test
+    void maxConcurrencyMustBePositive() {
+
+        Assertions.assertThatThrownBy(() -> FluxReactiveOptions.builder().maxConcurrency(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a positive number for maxConcurrency");
+    }
+
+    @Nonnull
+    private Flowable<Flux> queries() {
+        return Flowable.just(Flux.from("slow_database"), Flux.from("fast_database"));
+    }
+
+    @Nonnull
+    private MockResponse createFieldResponse(@Nonnull final String field) {
+
+        String data = "#datatype,string,long,dateTime:RFC3339,double,string\n"
+                + ",result,table,_time,_value,_field\n"
+                + ",_result,0,2018-06-27T05:56:40.001Z,1," + field + "\n"
+                + ",_result,0,2018-06-27T05:56:41.001Z,2," + field + "\n";
+
+        return createResponse(data);
+    }
+
+    @Nonnull
+    private List<Object> fields(@Nonnull final List<FluxRecord> records) {
+        return records.stream().map(FluxRecord::getField).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.event.FluxDeadlineExceededEvent;
+import io.bonitoo.flux.event.FluxSuccessEvent;
+import io.bonitoo.flux.option.FluxDeadlineExceededException;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import io.reactivex.Flowable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subscribers.TestSubscriber;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+import retrofit2.Response;
+
+/**
+ * @author Jakub Bednar (bednar@github) (04/09/2018 10:05)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveDeadlineTest extends AbstractFluxClientReactiveTest {
+
+    @Test
+    void completedWithinDeadline() {
+
+        fluxServer.enqueue(createResponse());
+
+        TestObserver<FluxDeadlineExceededEvent> events = fluxClient
+                .listenEvents(FluxDeadlineExceededEvent.class)
+                .test();
+
+        TestSubscriber<FluxRecord> records = query(Duration.ofSeconds(10)).test();
+
+        records.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        records
+                .assertValueCount(6)
+                .assertComplete();
+
+        events.assertNoValues();
+    }
+
+    @Test
+    void expiredBeforeResponse() {
+
+        fluxServer.enqueue(createResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        TestObserver<FluxDeadlineExceededEvent> events = fluxClient
+                .listenEvents(FluxDeadlineExceededEvent.class)
+                .test();
+
+        long started = System.currentTimeMillis();
+        TestSubscriber<FluxRecord> records = query(Duration.ofMillis(500)).test();
+
+        records.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        records
+                .assertNoValues()
+                .assertError(FluxDeadlineExceededException.class);
+
+        // the call is canceled
+        Assertions.assertThat(System.currentTimeMillis() - started).isLessThan(2_000);
+
+        events.assertValueCount(1);
+        events.assertValue(event -> {
+
+            Assertions.assertThat(event.getDeadline()).isEqualTo(Duration.ofMillis(500));
+            Assertions.assertThat(event.getFluxQuery()).contains("from(bucket:\"telegraf\")");
+            Assertions.assertThat(event.getOptions()).isNotNull();
+
+            return true;
+        });
+    }
+
+    @Test
+    void expiredDuringStreaming() {
+
+        // the rest of response is sent by 256 bytes per second
+        fluxServer.enqueue(createResponse().throttleBody(256, 1, TimeUnit.SECONDS));
+
+        TestObserver<FluxSuccessEvent> events = fluxClient
+                .listenEvents(FluxSuccessEvent.class)
+                .test();
+
+        long started = System.currentTimeMillis();
+        TestSubscriber<FluxRecord> records = query(Duration.ofMillis(500)).test();
+
+        records.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        records.assertError(FluxDeadlineExceededException.class);
+
+        // the blocked read is interrupted
+        Assertions.assertThat(records.valueCount()).isLessThan(6);
+        Assertions.assertThat(System.currentTimeMillis() - started).isLessThan(2_000);
+
+        // the canceled read of expired query is not the success
+        events.assertNoValues();
+    }
+
+    @Test
+    void expiredRawQuery() {
+
+        fluxServer.enqueue(createResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .deadline(Duration.ofMillis(500))
+                .build();
+
+        TestSubscriber<Response<ResponseBody>> response = fluxClient
+                .fluxRaw(Flowable.just(Flux.from("telegraf")), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .test();
+
+        response.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        response
+                .assertNoValues()
+                .assertError(FluxDeadlineExceededException.class);
+    }
+
+    @Test
+    void deadlineMustBePositive() {
+
+        Assertions.assertThatThrownBy(() -> FluxReactiveOptions.builder().deadline(Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a positive duration for deadline");
+    }
+
+    @Nonnull
+    private Flowable<FluxRecord> query(@Nonnull final Duration deadline) {
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .deadline(deadline)
+                .build();
+
+        return fluxClient.flux(Flux.from("telegraf"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions);
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.option.FluxConnectionOptions;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+import io.bonitoo.flux.option.FluxRequestHedging;
+
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (01/09/2018 15:40)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveEndpointsTest extends AbstractFluxClientReactiveTest {
+
+    private MockWebServer secondServer;
+    private EndpointDispatcher firstDispatcher;
+    private EndpointDispatcher secondDispatcher;
+    private FluxClientReactive pooledClient;
+
+    private final Logger balancerLogger = Logger.getLogger("io.bonitoo.flux.impl.FluxEndpointBalancer");
+    private final List<String> healthChanges = new CopyOnWriteArrayList<>();
+    private final Handler healthHandler = new Handler() {
+        @Override
+        public void publish(final LogRecord record) {
+            Object[] parameters = record.getParameters();
+            if (parameters != null && parameters.length == 2) {
+                healthChanges.add(parameters[0] + " " + parameters[1]);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @BeforeEach
+    void secondServer() throws IOException {
+
+        secondServer = new MockWebServer();
+        secondServer.start();
+
+        balancerLogger.addHandler(healthHandler);
+
+        firstDispatcher = new EndpointDispatcher(0);
+        secondDispatcher = new EndpointDispatcher(0);
+        fluxServer.setDispatcher(firstDispatcher);
+        secondServer.setDispatcher(secondDispatcher);
+
+        List<FluxConnectionOptions> endpoints = Arrays.asList(options(fluxServer), options(secondServer));
+
+        pooledClient = FluxClientReactiveFactory.connect(endpoints, FluxReactiveOptions.DEFAULTS,
+                Duration.ofMillis(100));
+    }
+
+    @AfterEach
+    void closePool() throws IOException {
+
+        balancerLogger.removeHandler(healthHandler);
+
+        pooledClient.close();
+        secondServer.shutdown();
+    }
+
+    @Test
+    void routeToAllEndpoints() {
+
+        List<FluxRecord> records = query(10);
+
+        Assertions.assertThat(records).hasSize(10);
+        Assertions.assertThat(firstDispatcher.queries.get()).isGreaterThan(0);
+        Assertions.assertThat(secondDispatcher.queries.get()).isGreaterThan(0);
+        Assertions.assertThat(firstDispatcher.queries.get() + secondDispatcher.queries.get()).isEqualTo(10);
+    }
+
+    @Test
+    void preferFasterEndpoint() {
+
+        secondDispatcher.delay = 200;
+
+        List<FluxRecord> records = query(10);
+
+        Assertions.assertThat(records).hasSize(10);
+        Assertions.assertThat(firstDispatcher.queries.get()).isGreaterThan(secondDispatcher.queries.get());
+    }
+
+    @Test
+    void ejectUnhealthyEndpoint() throws IOException, InterruptedException {
+
+        secondServer.shutdown();
+
+        awaitHealth(secondServer, "unhealthy");
+
+        List<FluxRecord> records = query(10);
+
+        Assertions.assertThat(records).hasSize(10);
+        Assertions.assertThat(firstDispatcher.queries.get()).isEqualTo(10);
+    }
+
+    @Test
+    void readmitHealthyEndpoint() throws InterruptedException {
+
+        secondDispatcher.unhealthy = true;
+
+        awaitHealth(secondServer, "unhealthy");
+
+        Assertions.assertThat(query(5)).hasSize(5);
+        Assertions.assertThat(secondDispatcher.queries.get()).isEqualTo(0);
+
+        secondDispatcher.unhealthy = false;
+
+        awaitHealth(secondServer, "healthy");
+
+        Assertions.assertThat(query(10)).hasSize(10);
+        Assertions.assertThat(secondDispatcher.queries.get()).isGreaterThan(0);
+    }
+
+    @Test
+    void failedResponseDoesNotEject() {
+
+        secondDispatcher.disconnect = true;
+
+        // the endpoint without measured latency is preferred
+        Flowable.range(0, 10)
+                .concatMap(index -> pooledClient.flux(Flux.from("telegraf"), new HashMap<>(), FluxOptions.DEFAULTS)
+                        .onErrorResumeNext(Flowable.empty()))
+                .test()
+                .awaitDone(10, TimeUnit.SECONDS)
+                .assertComplete();
+
+        Assertions.assertThat(secondDispatcher.queries.get()).isGreaterThan(1);
+        Assertions.assertThat(healthChanges).doesNotContain(url(secondServer) + " unhealthy");
+    }
+
+    @Test
+    void streamedResponseIsOutstandingWithHedging() {
+
+        firstDispatcher.delay = 50;
+        secondDispatcher.delay = 50;
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .requestHedging(FluxRequestHedging.builder().minDelay(Duration.ofSeconds(10)).build())
+                .build();
+
+        // the latency of endpoints and the delay of hedging are measured
+        Assertions.assertThat(query(10, reactiveOptions)).hasSize(10);
+
+        int firstQueries = firstDispatcher.queries.get();
+        int secondQueries = secondDispatcher.queries.get();
+        firstDispatcher.streaming = true;
+        secondDispatcher.streaming = true;
+
+        List<TestSubscriber<FluxRecord>> streams = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            TestSubscriber<FluxRecord> stream = pooledClient
+                    .flux(Flux.from("telegraf"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                    .test(1);
+            stream.awaitCount(1);
+            streams.add(stream);
+        }
+        streams.forEach(TestSubscriber::cancel);
+
+        // the bodies being read are outstanding => the streams are spread over both endpoints
+        Assertions.assertThat(firstDispatcher.queries.get()).isGreaterThan(firstQueries);
+        Assertions.assertThat(secondDispatcher.queries.get()).isGreaterThan(secondQueries);
+    }
+
+    @Test
+    void endpointsAreRequired() {
+
+        Assertions.assertThatThrownBy(() -> FluxClientReactiveFactory
+                .connect(new ArrayList<>(), FluxReactiveOptions.DEFAULTS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting at least one endpoint");
+    }
+
+    @Nonnull
+    private List<FluxRecord> query(final int count) {
+        return query(count, FluxReactiveOptions.DEFAULTS);
+    }
+
+    @Nonnull
+    private List<FluxRecord> query(final int count, @Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        return Flowable.range(0, count)
+                .concatMap(index -> pooledClient.flux(Flux.from("telegraf"), new HashMap<>(), FluxOptions.DEFAULTS,
+                        reactiveOptions))
+                .toList()
+                .blockingGet();
+    }
+
+    /**
+     * Wait to the health check which changes the health of endpoint.
+     */
+    private void awaitHealth(@Nonnull final MockWebServer server, @Nonnull final String health)
+            throws InterruptedException {
+
+        String change = url(server) + " " + health;
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!healthChanges.contains(change) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        Assertions.assertThat(healthChanges).contains(change);
+    }
+
+    @Nonnull
+    private String url(@Nonnull final MockWebServer server) {
+        return server.url("/").url().toString();
+    }
+
+    @Nonnull
+    private FluxConnectionOptions options(@Nonnull final MockWebServer server) {
+
+        return FluxConnectionOptions.builder()
+                .url(url(server))
+                .orgID("0")
+                .build();
+    }
+
+    private final class EndpointDispatcher extends Dispatcher {
+
+        private final AtomicInteger queries = new AtomicInteger();
+        private volatile long delay;
+        private volatile boolean unhealthy;
+        private volatile boolean disconnect;
+        private volatile boolean streaming;
+
+        private EndpointDispatcher(final long delay) {
+            this.delay = delay;
+        }
+
+        @Override
+        public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+
+            if (request.getPath().startsWith("/ping")) {
+                return new MockResponse().setResponseCode(unhealthy ? 503 : 204);
+            }
+
+            queries.incrementAndGet();
+
+            if (disconnect) {
+                return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+            }
+
+            // delay the headers of response
+            Thread.sleep(delay);
+
+            String data = "#datatype,string,long,dateTime:RFC3339,double,string\n"
+                    + ",result,table,_time,_value,_field\n"
+                    + ",_result,0,2018-06-27T05:56:40.001Z,1,free\n";
+
+            // the body which is not read at once by the prefetch of records
+            if (streaming) {
+                StringBuilder rows = new StringBuilder(data);
+                for (int i = 0; i < 10_000; i++) {
+                    rows.append(",_result,0,2018-06-27T05:56:40.001Z,1,free\n");
+                }
+
+                return createResponse(rows.toString());
+            }
+
+            return createResponse(data);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+import io.bonitoo.flux.option.FluxRequestHedging;
+
+import io.reactivex.Flowable;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (03/09/2018 11:10)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveHedgingTest extends AbstractFluxClientReactiveTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int slowRequest = -1;
+    private volatile CountDownLatch duplicate;
+
+    @BeforeEach
+    void dispatcher() {
+
+        fluxServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+
+                int index = requests.getAndIncrement();
+
+                // the slow response is sent together with the response of duplicate
+                CountDownLatch together = duplicate;
+                if (together != null && index == slowRequest) {
+                    together.await(2, TimeUnit.SECONDS);
+                } else if (together != null && index == slowRequest + 1) {
+                    together.countDown();
+                } else if (index == slowRequest) {
+                    // delay the headers of response
+                    Thread.sleep(2_000);
+                }
+
+                String data = "#datatype,string,long,dateTime:RFC3339,double,string\n"
+                        + ",result,table,_time,_value,_field\n"
+                        + ",_result,0,2018-06-27T05:56:40.001Z,1,free\n";
+
+                return createResponse(data);
+            }
+        });
+    }
+
+    @Test
+    void hedgeSlowRequest() {
+
+        FluxRequestHedging hedging = FluxRequestHedging.builder()
+                .hedgeRatio(0.5)
+                .minDelay(Duration.ofMillis(50))
+                .build();
+
+        Assertions.assertThat(query(hedging, 10)).hasSize(10);
+        Assertions.assertThat(hedging.getDelay()).isNotNull();
+        Assertions.assertThat(hedging.getHedges()).isEqualTo(0);
+
+        slowRequest = requests.get();
+
+        long started = System.currentTimeMillis();
+        Assertions.assertThat(query(hedging, 1)).hasSize(1);
+
+        // the hedged request wins
+        Assertions.assertThat(System.currentTimeMillis() - started).isLessThan(1_500);
+        Assertions.assertThat(hedging.getHedges()).isEqualTo(1);
+        Assertions.assertThat(requests.get()).isEqualTo(12);
+    }
+
+    @Test
+    void bothResponsesArrive() {
+
+        FluxRequestHedging hedging = FluxRequestHedging.builder()
+                .hedgeRatio(0.5)
+                .minDelay(Duration.ofMillis(50))
+                .build();
+
+        Assertions.assertThat(query(hedging, 10)).hasSize(10);
+
+        duplicate = new CountDownLatch(1);
+        slowRequest = requests.get();
+
+        // the response which lost is released
+        Assertions.assertThat(query(hedging, 1)).hasSize(1);
+        Assertions.assertThat(hedging.getHedges()).isEqualTo(1);
+
+        duplicate = null;
+        Assertions.assertThat(query(hedging, 5)).hasSize(5);
+        Assertions.assertThat(requests.get()).isEqualTo(17);
+    }
+
+    @Test
+    void notHedgedWithoutSamples() {
+
+        FluxRequestHedging hedging = FluxRequestHedging.builder()
+                .hedgeRatio(1)
+                .build();
+
+        slowRequest = 0;
+
+        Assertions.assertThat(query(hedging, 1)).hasSize(1);
+        Assertions.assertThat(hedging.getHedges()).isEqualTo(0);
+        Assertions.assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void hedgesAreLimitedByBudget() {
+
+        FluxRequestHedging hedging = FluxRequestHedging.builder()
+                .hedgeRatio(0.1)
+                .minDelay(Duration.ofMillis(50))
+                .build();
+
+        Assertions.assertThat(query(hedging, 10)).hasSize(10);
+
+        slowRequest = requests.get();
+        Assertions.assertThat(query(hedging, 1)).hasSize(1);
+        Assertions.assertThat(hedging.getHedges()).isEqualTo(1);
+
+        // the budget is spent
+        slowRequest = requests.get();
+        Assertions.assertThat(query(hedging, 1)).hasSize(1);
+        Assertions.assertThat(hedging.getHedges()).isEqualTo(1);
+        Assertions.assertThat(hedging.getRequests()).isEqualTo(12);
+    }
+
+    @Test
+    void percentileMustBeFraction() {
+
+        Assertions.assertThatThrownBy(() -> FluxRequestHedging.builder().percentile(1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a number between 0 and 1 for percentile");
+    }
+
+    @Nonnull
+    private List<FluxRecord> query(@Nonnull final FluxRequestHedging hedging, final int count) {
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .requestHedging(hedging)
+                .build();
+
+        return Flowable.range(0, count)
+                .concatMap(index -> fluxClient.flux(Flux.from("telegraf"), new HashMap<>(), FluxOptions.DEFAULTS,
+                        reactiveOptions))
+                .toList()
+                .blockingGet();
+    }
+}
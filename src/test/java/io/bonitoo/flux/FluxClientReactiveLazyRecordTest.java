@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.time.Instant;
+import java.util.List;
+
+import io.bonitoo.flux.dto.FluxLazyRecord;
+import io.bonitoo.flux.dto.FluxRecord;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (25/08/2018 11:10)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveLazyRecordTest extends AbstractFluxClientReactiveTest {
+
+    @Test
+    void lazyRecords() {
+
+        fluxServer.enqueue(createResponse());
+        fluxServer.enqueue(createResponse());
+
+        List<FluxLazyRecord> records = fluxClient.fluxLazy(Flux.from("flux_database")).toList().blockingGet();
+        List<FluxRecord> expected = fluxClient.flux(Flux.from("flux_database")).toList().blockingGet();
+
+        Assertions.assertThat(records).hasSize(6);
+
+        // the records are readable after the whole response is consumed
+        FluxLazyRecord record = records.get(4);
+        Assertions.assertThat(record.getTable()).isEqualTo(1);
+        Assertions.assertThat(record.getValue()).isEqualTo(12.83);
+        Assertions.assertThat(record.getTime()).isEqualTo(Instant.parse("2018-05-08T20:50:20Z"));
+        Assertions.assertThat(record.getValueByKey("host")).isEqualTo("B");
+        Assertions.assertThat(record.getValueByKey("not_exist")).isNull();
+        Assertions.assertThat(record.getMeasurement()).isNull();
+
+        for (int i = 0; i < records.size(); i++) {
+            Assertions.assertThat(records.get(i).getValues()).isEqualTo(expected.get(i).getValues());
+            Assertions.assertThat(records.get(i).toRecord().getValues()).isEqualTo(expected.get(i).getValues());
+        }
+    }
+
+    @Test
+    void decodeOnlyAccessedValues() {
+
+        String data = "#datatype,string,long,dateTime:RFC3339,double,string\n"
+                + "#group,false,false,false,false,true\n"
+                + "#default,_result,,,,\n"
+                + ",result,table,_time,_value,_field\n"
+                + ",,0,2018-06-27T05:56:40.001Z,not-a-number,usage\n";
+
+        fluxServer.enqueue(createResponse(data));
+
+        FluxLazyRecord record = fluxClient.fluxLazy("from(bucket:\"telegraf\")").blockingFirst();
+
+        Assertions.assertThat(record.getField()).isEqualTo("usage");
+        Assertions.assertThat(record.getValueByKey("result")).isEqualTo("_result");
+        Assertions.assertThatThrownBy(record::getValue).isInstanceOf(NumberFormatException.class);
+    }
+}
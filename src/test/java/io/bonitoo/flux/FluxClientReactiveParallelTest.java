@@ -0,0 +1,241 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import io.bonitoo.core.InfluxException;
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import io.reactivex.schedulers.Schedulers;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (25/08/2018 15:30)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveParallelTest extends AbstractFluxClientReactiveTest {
+
+    @Test
+    void parallelOrdered() {
+
+        String data = createTables(3, 500);
+
+        fluxServer.enqueue(createResponse(data));
+        fluxServer.enqueue(createResponse(data));
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .parallelism(4)
+                .parallelChunkSize(1024)
+                .parallelScheduler(Schedulers.computation())
+                .build();
+
+        List<FluxRecord> expected = fluxClient.flux(Flux.from("flux_database")).toList().blockingGet();
+        List<FluxRecord> records = fluxClient
+                .flux(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(records).hasSize(1500);
+        Assertions.assertThat(values(records)).isEqualTo(values(expected));
+        Assertions.assertThat(records.get(1499).getValueByKey("result")).isEqualTo("_result");
+        Assertions.assertThat(records.get(1499).getTable()).isEqualTo(2);
+    }
+
+    @Test
+    void parallelTablesWithoutTableColumn() {
+
+        StringBuilder data = new StringBuilder();
+        for (int table = 0; table < 3; table++) {
+
+            data.append(table > 0 ? "\n" : "")
+                    .append("#datatype,string,dateTime:RFC3339,double\n")
+                    .append(",result,_time,_value\n");
+
+            for (int row = 0; row < 200; row++) {
+                data.append(",_result,2018-06-27T05:56:40.001Z,").append(table).append("\n");
+            }
+        }
+
+        fluxServer.enqueue(createResponse(data.toString()));
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .parallelism(4)
+                .parallelChunkSize(512)
+                .build();
+
+        List<FluxRecord> records = fluxClient
+                .flux(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .toList()
+                .blockingGet();
+
+        // the index of table continues across the chunks
+        Assertions.assertThat(records).hasSize(600);
+        Assertions.assertThat(records).allSatisfy(record ->
+                Assertions.assertThat(record.getTable()).isEqualTo(((Double) record.getValue()).intValue()));
+    }
+
+    @Test
+    void parallelTablesUnderOneHeader() {
+
+        StringBuilder data = new StringBuilder();
+        for (int result = 0; result < 2; result++) {
+
+            data.append(result > 0 ? "\n" : "")
+                    .append("#datatype,string,long,dateTime:RFC3339,double\n")
+                    .append(",result,table,_time,_value\n");
+
+            // Flux restarts the table column for every result
+            for (int table = 0; table < 5; table++) {
+                for (int row = 0; row < 30; row++) {
+                    data.append(",_result,").append(table).append(",2018-06-27T05:56:40.001Z,")
+                            .append(result * 5 + table).append("\n");
+                }
+            }
+        }
+
+        fluxServer.enqueue(createResponse(data.toString()));
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .parallelism(4)
+                .parallelChunkSize(256)
+                .build();
+
+        List<FluxRecord> records = fluxClient
+                .flux(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .toList()
+                .blockingGet();
+
+        // the running index of table continues across the chunks and the results
+        Assertions.assertThat(records).hasSize(300);
+        Assertions.assertThat(records).allSatisfy(record ->
+                Assertions.assertThat(record.getTable()).isEqualTo(((Double) record.getValue()).intValue()));
+    }
+
+    @Test
+    void parallelUnordered() {
+
+        fluxServer.enqueue(createResponse(createTables(2, 300)));
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .parallelism(3)
+                .parallelChunkSize(512)
+                .parallelOrdered(false)
+                .build();
+
+        List<FluxRecord> records = fluxClient
+                .flux(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(records).hasSize(600);
+        Assertions.assertThat(values(records).stream().distinct().count()).isEqualTo(600);
+    }
+
+    @Test
+    void parallelBatches() {
+
+        fluxServer.enqueue(createResponse(createTables(2, 300)));
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .parallelism(2)
+                .parallelChunkSize(2048)
+                .build();
+
+        int count = fluxClient
+                .fluxBatches(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .map(batch -> batch.size())
+                .reduce(0, (sum, size) -> sum + size)
+                .blockingGet();
+
+        Assertions.assertThat(count).isEqualTo(600);
+    }
+
+    @Test
+    void parallelError() {
+
+        String data = createTables(1, 200) + "\n"
+                + "#datatype,string,string\n"
+                + "#group,true,true\n"
+                + "#default,,\n"
+                + ",error,reference\n"
+                + ",failed to create physical plan,897";
+
+        fluxServer.enqueue(createResponse(data));
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .parallelism(2)
+                .parallelChunkSize(256)
+                .build();
+
+        fluxClient
+                .flux(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .test()
+                .awaitDone(10, TimeUnit.SECONDS)
+                .assertError(InfluxException.class)
+                .assertErrorMessage("failed to create physical plan [reference: 897]");
+    }
+
+    @Test
+    void parallelismMustBePositive() {
+
+        Assertions.assertThatThrownBy(() -> FluxReactiveOptions.builder().parallelism(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a positive number for parallelism");
+    }
+
+    private String createTables(final int tables, final int rows) {
+
+        StringBuilder data = new StringBuilder();
+        for (int table = 0; table < tables; table++) {
+
+            if (table > 0) {
+                data.append("\n");
+            }
+
+            data.append("#datatype,string,long,dateTime:RFC3339,double,string\n")
+                    .append("#group,false,false,false,false,true\n")
+                    .append("#default,_result,,,,\n")
+                    .append(",result,table,_time,_value,_field\n");
+
+            for (int row = 0; row < rows; row++) {
+                data.append(",,").append(table).append(",2018-06-27T05:56:40.001Z,")
+                        .append(table * rows + row).append(",\"usage, \"\"cpu\"\"\"\n");
+            }
+        }
+
+        return data.toString();
+    }
+
+    private List<Object> values(final List<FluxRecord> records) {
+        return records.stream().map(FluxRecord::getValue).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.time.Instant;
+import java.util.HashMap;
+
+import io.bonitoo.core.InfluxException;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (27/08/2018 11:20)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactivePojoTest extends AbstractFluxClientReactiveTest {
+
+    @Test
+    void mapToAnnotatedPojo() {
+
+        String data = "#datatype,string,long,dateTime:RFC3339,string,boolean,double,string,long,long\n"
+                + "#group,false,false,false,true,true,false,false,false,false\n"
+                + "#default,_result,,,,,,,,\n"
+                + ",result,table,_time,location,production_usage,cpu_usage,server description,upTime,rackNumber\n"
+                + ",,0,2018-06-27T05:56:40.001Z,\"Area 1° 10' \"\"20\",false,50,Server no. 1,10000,1\n"
+                + ",,0,2018-06-27T05:56:40.002Z,\"Area 2° 20' \"\"40\",true,100,Server no. 2,20000,2\n";
+
+        fluxServer.enqueue(createResponse(data));
+
+        fluxClient
+                .flux(Flux.from("flux_database"), ServePerformance.class)
+                .test()
+                .assertValueCount(2)
+                .assertValueAt(0, ServePerformance.create(1))
+                .assertValueAt(1, ServePerformance.create(2));
+    }
+
+    @Test
+    void mapPrimitives() {
+
+        String data = "#datatype,string,long,dateTime:RFC3339,dateTime:RFC3339,long,double,boolean,long,string\n"
+                + "#group,false,false,false,false,false,false,false,false,true\n"
+                + "#default,_result,,,,,,,7,\n"
+                + ",result,table,_start,_time,_value,ratio,active,count,_measurement\n"
+                + ",,0,1970-01-01T00:00:00Z,1970-01-01T00:00:01.5Z,42,0.25,true,3,cpu\n"
+                + ",,0,1970-01-01T00:00:00Z,1970-01-01T00:00:02Z,-1,,false,,cpu\n";
+
+        fluxServer.enqueue(createResponse(data));
+
+        fluxClient
+                .flux(Flux.from("flux_database"), Primitives.class, new HashMap<>(), FluxOptions.DEFAULTS,
+                        FluxReactiveOptions.DEFAULTS)
+                .test()
+                .assertValueCount(2)
+                .assertValueAt(0, primitives -> {
+
+                    Assertions.assertThat(primitives.start).isEqualTo(Instant.EPOCH);
+                    Assertions.assertThat(primitives.time).isEqualTo(1_500_000_000L);
+                    Assertions.assertThat(primitives.value).isEqualTo(42L);
+                    Assertions.assertThat(primitives.ratio).isEqualTo(0.25);
+                    Assertions.assertThat(primitives.active).isTrue();
+                    Assertions.assertThat(primitives.count).isEqualTo(3);
+                    Assertions.assertThat(primitives.measurement).isEqualTo("cpu");
+
+                    return true;
+                })
+                .assertValueAt(1, primitives -> {
+
+                    Assertions.assertThat(primitives.value).isEqualTo(-1L);
+                    Assertions.assertThat(primitives.ratio).isEqualTo(0);
+                    Assertions.assertThat(primitives.active).isFalse();
+                    Assertions.assertThat(primitives.count).isEqualTo(7);
+
+                    return true;
+                });
+    }
+
+    @Test
+    void incompatibleType() {
+
+        String data = "#datatype,string,long,string\n"
+                + "#group,false,false,true\n"
+                + "#default,_result,,\n"
+                + ",result,table,_start\n"
+                + ",,0,yesterday\n";
+
+        fluxServer.enqueue(createResponse(data));
+
+        fluxClient
+                .flux("from(bucket:\"telegraf\")", Primitives.class)
+                .test()
+                .assertError(InfluxException.class)
+                .assertErrorMessage("The column of type 'STRING' cannot be mapped to the field 'start' "
+                        + "of type 'java.time.Instant'.");
+    }
+
+    public static class Primitives {
+
+        private Instant start;
+        private long time;
+        private long value;
+        private double ratio;
+        private boolean active;
+        private int count;
+        private String measurement;
+    }
+}
@@ -37,6 +37,7 @@ import io.bonitoo.flux.option.query.TaskOption;
 
 import io.reactivex.Flowable;
 import io.reactivex.observers.TestObserver;
+import io.reactivex.subscribers.TestSubscriber;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.RecordedRequest;
 import org.assertj.core.api.Assertions;
@@ -310,6 +311,106 @@ class FluxClientReactiveQueryTest extends AbstractFluxClientReactiveTest {
                 });
     }
 
+    @Test
+    void parsingHonoursRequestedRecords() {
+
+        fluxServer.enqueue(createResponse());
+
+        TestSubscriber<FluxRecord> subscriber = fluxClient
+                .flux(Flux.from("flux_database"))
+                .test(0);
+
+        subscriber
+                .assertValueCount(0)
+                .assertNotComplete();
+
+        subscriber.request(2);
+        subscriber
+                .assertValueCount(2)
+                .assertNotComplete();
+
+        subscriber.request(10);
+        subscriber
+                .assertValueCount(6)
+                .assertComplete();
+    }
+
+    @Test
+    void parsingCRLFAndQuotedLineBreaks() {
+
+        String data = "#datatype,string,long,string,long,boolean\r\n"
+                + "#group,false,false,true,false,false\r\n"
+                + "#default,_result,,,,\r\n"
+                + ",result,table,description,_value,production\r\n"
+                + ",,0,\"Server,\r\nno. \"\"1\"\"\",-9223372036854775808,TRUE\r\n"
+                + ",,0,,42,false\r\n";
+
+        fluxServer.enqueue(createResponse(data));
+
+        fluxClient
+                .flux(Flux.from("flux_database"))
+                .test()
+                .assertValueCount(2)
+                .assertValueAt(0, fluxRecord -> {
+
+                    Assertions.assertThat(fluxRecord.getValueByKey("description")).isEqualTo("Server,\r\nno. \"1\"");
+                    Assertions.assertThat(fluxRecord.getValue()).isEqualTo(Long.MIN_VALUE);
+                    Assertions.assertThat(fluxRecord.getValueByKey("production")).isEqualTo(true);
+                    Assertions.assertThat(fluxRecord.getValueByKey("result")).isEqualTo("_result");
+
+                    return true;
+                })
+                .assertValueAt(1, fluxRecord -> {
+
+                    Assertions.assertThat(fluxRecord.getValueByKey("description")).isNull();
+                    Assertions.assertThat(fluxRecord.getValue()).isEqualTo(42L);
+                    Assertions.assertThat(fluxRecord.getValueByKey("production")).isEqualTo(false);
+
+                    return true;
+                });
+    }
+
+    @Test
+    void parsingRepeatedTableLayouts() {
+
+        String header = "#datatype,string,long,dateTime:RFC3339,double,string\n"
+                + "#group,false,false,false,false,true\n";
+        String columns = ",result,table,_time,_value,_field\n";
+
+        String data = header + "#default,_result,,,,\n" + columns
+                + ",,0,2018-06-27T05:56:40.001Z,1,usage\n"
+                + "\n"
+                + header + columns
+                + ",,1,2018-06-27T05:56:40.001Z,2,usage\n"
+                + "\n"
+                + header + "#default,_result,,,,\n" + columns
+                + ",,2,2018-06-27T05:56:40.001Z,3,usage\n"
+                + "\n"
+                + header + "#default,_other,,,,\n" + columns
+                + ",,3,2018-06-27T05:56:40.001Z,,usage\n"
+                + "\n"
+                + "#datatype,string,long,dateTime:RFC3339,long,string\n"
+                + "#group,false,false,false,false,true\n"
+                + "#default,_result,,,,\n" + columns
+                + ",,4,2018-06-27T05:56:40.001Z,5,usage\n";
+
+        fluxServer.enqueue(createResponse(data));
+
+        fluxClient
+                .flux(Flux.from("flux_database"))
+                .test()
+                .assertValueCount(5)
+                .assertValueAt(0, record -> "_result".equals(record.getValueByKey("result"))
+                        && Double.valueOf(1).equals(record.getValue()))
+                .assertValueAt(1, record -> record.getValueByKey("result") == null
+                        && Double.valueOf(2).equals(record.getValue()))
+                .assertValueAt(2, record -> "_result".equals(record.getValueByKey("result")))
+                .assertValueAt(3, record -> "_other".equals(record.getValueByKey("result"))
+                        && record.getValue() == null)
+                .assertValueAt(4, record -> Long.valueOf(5).equals(record.getValue())
+                        && record.getTable() == 4);
+    }
+
     @Nonnull
     private MockResponse createMultiTableResponse() {
 
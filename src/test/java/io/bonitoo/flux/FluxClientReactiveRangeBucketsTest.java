@@ -0,0 +1,232 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.option.FluxLruResultCache;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (30/08/2018 11:25)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveRangeBucketsTest extends AbstractFluxClientReactiveTest {
+
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+
+    private FluxLruResultCache cache;
+    private FluxReactiveOptions reactiveOptions;
+    private volatile String data;
+    private volatile CountDownLatch concurrent;
+
+    @BeforeEach
+    void dispatcher() {
+
+        cache = new FluxLruResultCache(1024 * 1024, Duration.ofHours(1));
+        reactiveOptions = FluxReactiveOptions.builder()
+                .resultCache(cache)
+                .rangeBucket(Duration.ofHours(1))
+                .build();
+
+        fluxServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+
+                queries.add(request.getBody().readUtf8());
+
+                CountDownLatch requests = concurrent;
+                if (requests != null) {
+                    requests.countDown();
+                    requests.await(10, TimeUnit.SECONDS);
+                }
+
+                return data != null ? createResponse(data) : createResponse();
+            }
+        });
+    }
+
+    @Test
+    void closedRange() {
+
+        Flux flux = Flux.from("telegraf")
+                .range(Instant.parse("2018-08-01T00:30:00Z"), Instant.parse("2018-08-01T03:00:00Z"));
+
+        List<FluxRecord> records = query(flux.toString());
+
+        Assertions.assertThat(records).hasSize(18);
+        Assertions.assertThat(queries).hasSize(3);
+        Assertions.assertThat(queries).anySatisfy(query -> Assertions.assertThat(query)
+                .contains("range(start:2018-08-01T00:30:00Z, stop:2018-08-01T01:00:00Z)"));
+        Assertions.assertThat(queries).anySatisfy(query -> Assertions.assertThat(query)
+                .contains("range(start:2018-08-01T01:00:00Z, stop:2018-08-01T02:00:00Z)"));
+        Assertions.assertThat(queries).anySatisfy(query -> Assertions.assertThat(query)
+                .contains("range(start:2018-08-01T02:00:00Z, stop:2018-08-01T03:00:00Z)"));
+
+        // all buckets are cached
+        Assertions.assertThat(query(flux.toString())).hasSize(18);
+        Assertions.assertThat(queries).hasSize(3);
+        Assertions.assertThat(cache.getHits()).isEqualTo(3);
+    }
+
+    @Test
+    void relativeRange() {
+
+        List<FluxRecord> records = query("from(db:\"telegraf\") |> range(start:-3h)");
+
+        // head, closed buckets and tail
+        Assertions.assertThat(records.size()).isEqualTo(queries.size() * 6);
+        Assertions.assertThat(queries.size()).isBetween(3, 4);
+
+        // the open tail is not cached
+        Assertions.assertThat(queries).filteredOn(query -> !query.contains("stop:")).hasSize(1);
+        String tail = queries.stream().filter(query -> !query.contains("stop:")).findFirst().orElse("");
+
+        queries.clear();
+
+        // the partial head and the tail
+        query("from(db:\"telegraf\") |> range(start:-3h)");
+
+        Assertions.assertThat(queries.size()).isLessThan(3);
+        Assertions.assertThat(queries).contains(tail);
+    }
+
+    @Test
+    void bucketsAreFetchedConcurrently() {
+
+        // every request waits for the other two
+        concurrent = new CountDownLatch(3);
+
+        Flux flux = Flux.from("telegraf")
+                .range(Instant.parse("2018-08-01T00:00:00Z"), Instant.parse("2018-08-01T03:00:00Z"));
+
+        long started = System.currentTimeMillis();
+        List<FluxRecord> records = query(flux.toString());
+
+        Assertions.assertThat(records).hasSize(18);
+        Assertions.assertThat(System.currentTimeMillis() - started).isLessThan(5_000);
+    }
+
+    @Test
+    void stopAtNow() {
+
+        query("from(db:\"telegraf\") |> range(start:-3h, stop: now())");
+
+        // head, closed buckets and tail
+        Assertions.assertThat(queries.size()).isBetween(3, 4);
+        Assertions.assertThat(queries).allSatisfy(query -> Assertions.assertThat(query).doesNotContain("now()"));
+    }
+
+    @Test
+    void overflowingDurationIsNotSplit() {
+
+        Assertions.assertThat(query("from(db:\"telegraf\") |> range(start:-300000w)")).hasSize(6);
+        Assertions.assertThat(query("from(db:\"telegraf\") |> range(start:-99999999999999999999h)")).hasSize(6);
+
+        // the original queries
+        Assertions.assertThat(queries).hasSize(2);
+        Assertions.assertThat(queries.get(0)).contains("range(start:-300000w)");
+        Assertions.assertThat(queries.get(1)).contains("range(start:-99999999999999999999h)");
+    }
+
+    @Test
+    void bucketsAreMerged() {
+
+        data = "#datatype,string,long,dateTime:RFC3339,dateTime:RFC3339,dateTime:RFC3339,string,double\n"
+                + "#group,false,false,true,true,false,true,false\n"
+                + ",result,table,_start,_stop,_time,host,_value\n"
+                + ",_result,0,2018-08-01T00:30:00Z,2018-08-01T01:00:00Z,2018-08-01T00:40:00Z,A,1\n"
+                + ",_result,1,2018-08-01T00:30:00Z,2018-08-01T01:00:00Z,2018-08-01T00:40:00Z,B,2\n";
+
+        Flux flux = Flux.from("telegraf")
+                .range(Instant.parse("2018-08-01T00:30:00Z"), Instant.parse("2018-08-01T03:00:00Z"));
+
+        List<FluxRecord> records = query(flux.toString());
+
+        Assertions.assertThat(queries).hasSize(3);
+        Assertions.assertThat(records).hasSize(6);
+
+        // the bounds of whole range and the stable index of table
+        for (FluxRecord record : records) {
+            Assertions.assertThat(record.getStart()).isEqualTo(Instant.parse("2018-08-01T00:30:00Z"));
+            Assertions.assertThat(record.getStop()).isEqualTo(Instant.parse("2018-08-01T03:00:00Z"));
+            Assertions.assertThat(record.getTable()).isEqualTo("A".equals(record.getValueByKey("host")) ? 0 : 1);
+        }
+    }
+
+    @Test
+    void headOfRelativeRangeIsNotCached() {
+
+        query("from(db:\"telegraf\") |> range(start:-3h)");
+
+        // only the aligned closed buckets are looked up in the cache
+        Assertions.assertThat(cache.getMisses()).isEqualTo(queries.size() - 2);
+    }
+
+    @Test
+    void rangeBucketRequiresCache() {
+
+        Assertions.assertThatThrownBy(() -> FluxReactiveOptions.builder().rangeBucket(Duration.ofHours(1)).build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting the resultCache for rangeBucket");
+    }
+
+    @Test
+    void notSplitWithoutRange() {
+
+        Assertions.assertThat(query("from(db:\"telegraf\") |> last()")).hasSize(6);
+        Assertions.assertThat(query("from(db:\"telegraf\") |> last()")).hasSize(6);
+
+        Assertions.assertThat(queries).hasSize(1);
+    }
+
+    @Test
+    void rangeBucketMustBePositive() {
+
+        Assertions.assertThatThrownBy(() -> FluxReactiveOptions.builder().rangeBucket(Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a positive duration for rangeBucket");
+    }
+
+    @Nonnull
+    private List<FluxRecord> query(@Nonnull final String query) {
+        return fluxClient.flux(query, FluxOptions.DEFAULTS, reactiveOptions).toList().blockingGet();
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.option.FluxLruResultCache;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (29/08/2018 15:10)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveResultCacheTest extends AbstractFluxClientReactiveTest {
+
+    private FluxLruResultCache cache;
+
+    @BeforeEach
+    void cache() {
+        cache = new FluxLruResultCache(1024 * 1024, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void replayCachedResults() {
+
+        fluxServer.enqueue(createResponse());
+
+        List<FluxRecord> records = query("flux_database").toList().blockingGet();
+        List<FluxRecord> cached = query("flux_database").toList().blockingGet();
+
+        Assertions.assertThat(records).hasSize(6);
+        Assertions.assertThat(cached).hasSize(6);
+        Assertions.assertThat(cached.get(4).getValues()).isEqualTo(records.get(4).getValues());
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(1);
+        Assertions.assertThat(cache.getHits()).isEqualTo(1);
+        Assertions.assertThat(cache.getMisses()).isEqualTo(1);
+        Assertions.assertThat(cache.size()).isEqualTo(1);
+        Assertions.assertThat(cache.getHitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void keyedByQuery() {
+
+        fluxServer.enqueue(createResponse());
+        fluxServer.enqueue(createResponse());
+
+        query("flux_database").toList().blockingGet();
+        query("telegraf").toList().blockingGet();
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void replayWithBackpressure() {
+
+        fluxServer.enqueue(createResponse());
+
+        query("flux_database").toList().blockingGet();
+
+        TestSubscriber<FluxRecord> subscriber = query("flux_database").test(0);
+        subscriber.assertNoValues();
+
+        subscriber.request(2);
+        subscriber.assertValueCount(2).assertNotComplete();
+
+        subscriber.request(10);
+        subscriber.assertValueCount(6).assertComplete();
+    }
+
+    @Test
+    void timeToLive() throws InterruptedException {
+
+        cache = new FluxLruResultCache(1024 * 1024, Duration.ofMillis(50));
+
+        fluxServer.enqueue(createResponse());
+        fluxServer.enqueue(createResponse());
+
+        query("flux_database").toList().blockingGet();
+
+        Thread.sleep(100);
+
+        query("flux_database").toList().blockingGet();
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+        Assertions.assertThat(cache.getEvictions()).isEqualTo(1);
+        Assertions.assertThat(cache.getHits()).isEqualTo(0);
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+
+        long responseSize = createResponse().getBody().size();
+        cache = new FluxLruResultCache(2 * responseSize + 300, Duration.ofMinutes(1));
+
+        fluxServer.enqueue(createResponse());
+        fluxServer.enqueue(createResponse());
+        fluxServer.enqueue(createResponse());
+
+        query("db_a").toList().blockingGet();
+        query("db_b").toList().blockingGet();
+        // a is recently used
+        query("db_a").toList().blockingGet();
+        // evict b
+        query("db_c").toList().blockingGet();
+
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+        Assertions.assertThat(cache.getEvictions()).isEqualTo(1);
+        Assertions.assertThat(cache.getSizeInBytes()).isLessThanOrEqualTo(cache.getMaxSizeInBytes());
+
+        query("db_a").toList().blockingGet();
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void notCachedPartiallyReadResponse() {
+
+        fluxServer.enqueue(createResponse());
+        fluxServer.enqueue(createResponse());
+
+        Assertions.assertThat(query("flux_database").take(2).toList().blockingGet()).hasSize(2);
+        Assertions.assertThat(query("flux_database").toList().blockingGet()).hasSize(6);
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+        Assertions.assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void notCachedError() {
+
+        fluxServer.enqueue(createErrorResponse("Flux query is not valid"));
+        fluxServer.enqueue(createResponse());
+
+        query("flux_database").test().awaitTerminalEvent();
+
+        Assertions.assertThat(query("flux_database").toList().blockingGet()).hasSize(6);
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void notCachedLargeResponse() {
+
+        cache = new FluxLruResultCache(100, Duration.ofMinutes(1));
+
+        fluxServer.enqueue(createResponse());
+        fluxServer.enqueue(createResponse());
+
+        query("flux_database").toList().blockingGet();
+        query("flux_database").toList().blockingGet();
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+        Assertions.assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    void clear() {
+
+        fluxServer.enqueue(createResponse());
+
+        query("flux_database").toList().blockingGet();
+        query("flux_database").toList().blockingGet();
+
+        cache.clear();
+
+        Assertions.assertThat(cache.size()).isEqualTo(0);
+        Assertions.assertThat(cache.getSizeInBytes()).isEqualTo(0);
+        Assertions.assertThat(cache.getHits()).isEqualTo(0);
+        Assertions.assertThat(cache.getMisses()).isEqualTo(0);
+    }
+
+    @Test
+    void maxSizeMustBePositive() {
+
+        Assertions.assertThatThrownBy(() -> new FluxLruResultCache(0, Duration.ofMinutes(1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a positive number for maxSizeInBytes");
+
+        Assertions.assertThatThrownBy(() -> new FluxLruResultCache(1024, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a positive duration for timeToLive");
+    }
+
+    @Nonnull
+    private Flowable<FluxRecord> query(@Nonnull final String database) {
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .resultCache(cache)
+                .build();
+
+        return fluxClient.flux(Flux.from(database), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions);
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.option.FluxLruResultCache;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (02/09/2018 15:30)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveResumeTest extends AbstractFluxClientReactiveTest {
+
+    private static final String START = "2018-06-27T00:00:00Z";
+    private static final String STOP = "2018-06-28T00:00:00Z";
+
+    @Test
+    void resumeFromLastTime() throws InterruptedException {
+
+        fluxServer.enqueue(createTimesResponse(START, 1, 2, 3, 4, 5, 6)
+                .setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY));
+        fluxServer.enqueue(createTimesResponse("2018-06-27T05:56:41Z", 1, 2, 3, 4, 5, 6));
+
+        List<FluxRecord> records = query(FluxReactiveOptions.builder().resumeAttempts(1).build())
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(times(records)).containsExactly(1, 2, 3, 4, 5, 6);
+        Assertions.assertThat(records).allSatisfy(record -> {
+            Assertions.assertThat(record.getStart()).isEqualTo(Instant.parse(START));
+            Assertions.assertThat(record.getTable()).isEqualTo(0);
+        });
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+        fluxServer.takeRequest();
+
+        // the range is narrowed to the last emitted time
+        RecordedRequest resumed = fluxServer.takeRequest();
+        String body = resumed.getBody().readUtf8();
+        Assertions.assertThat(body).contains("range(start:2018-06-27T05:56:4");
+        Assertions.assertThat(body).contains("stop:" + STOP);
+        Assertions.assertThat(body).doesNotContain("range(start:" + START);
+    }
+
+    @Test
+    void skipRecordsAtLastTime() {
+
+        // two records at the same time
+        fluxServer.enqueue(createTimesResponse(START, 1, 2, 2, 3, 4, 5, 6, 7)
+                .setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY));
+        fluxServer.enqueue(createTimesResponse(START, 1, 2, 2, 3, 4, 5, 6, 7));
+
+        List<FluxRecord> records = query(FluxReactiveOptions.builder().resumeAttempts(1).build())
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(times(records)).containsExactly(1, 2, 2, 3, 4, 5, 6, 7);
+    }
+
+    @Test
+    void resumeTruncatedChunks() {
+
+        // the connection is closed between the chunks
+        String data = createTimesData(START, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        fluxServer.enqueue(createResponse(data)
+                .setChunkedBody(data, 10)
+                .setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY));
+        fluxServer.enqueue(createTimesResponse(START, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+
+        List<FluxRecord> records = query(FluxReactiveOptions.builder().resumeAttempts(1).build())
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(times(records)).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9);
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void resumeTablesWithOriginalRange() throws InterruptedException {
+
+        // the connection is closed before the used table
+        String data = createTablesData(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9}, new int[]{1, 2});
+        fluxServer.enqueue(createResponse(data).setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY));
+        fluxServer.enqueue(createResponse(data));
+
+        List<FluxRecord> records = query(FluxReactiveOptions.builder().resumeAttempts(1).build())
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(times(records)).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 1, 2);
+        Assertions.assertThat(records.subList(9, 11)).allSatisfy(record ->
+                Assertions.assertThat(record.getValueByKey("_field")).isEqualTo("used"));
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(2);
+        fluxServer.takeRequest();
+
+        // the tables which were not received yet can start before the last time
+        String body = fluxServer.takeRequest().getBody().readUtf8();
+        Assertions.assertThat(body).contains("range(start:" + START);
+    }
+
+    @Test
+    void notResumedServerError() {
+
+        fluxServer.enqueue(createErrorResponse("Flux query service disabled."));
+        fluxServer.enqueue(createTimesResponse(START, 1, 2));
+
+        TestSubscriber<FluxRecord> subscriber = query(FluxReactiveOptions.builder().resumeAttempts(3).build())
+                .test();
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertError(throwable -> throwable.getMessage().equals("Flux query service disabled."));
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void failAfterAttempts() {
+
+        for (int i = 0; i < 3; i++) {
+            fluxServer.enqueue(createTimesResponse(START, 1, 2, 3, 4, 5, 6)
+                    .setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY));
+        }
+
+        TestSubscriber<FluxRecord> subscriber = query(FluxReactiveOptions.builder().resumeAttempts(2).build())
+                .test();
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertNotComplete();
+        Assertions.assertThat(subscriber.errorCount()).isEqualTo(1);
+
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void resumeAttemptsMustBeNonNegative() {
+
+        Assertions.assertThatThrownBy(() -> FluxReactiveOptions.builder().resumeAttempts(-1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a non-negative number for resumeAttempts");
+    }
+
+    @Test
+    void bucketsAreNotResumed() {
+
+        FluxReactiveOptions.Builder builder = FluxReactiveOptions.builder()
+                .resumeAttempts(1)
+                .rangeBucket(Duration.ofHours(1))
+                .resultCache(new FluxLruResultCache(1024 * 1024, Duration.ofMinutes(5)));
+
+        Assertions.assertThatThrownBy(builder::build)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The resumeAttempts cannot be combined with the rangeBucket");
+    }
+
+    @Nonnull
+    private Flowable<FluxRecord> query(@Nonnull final FluxReactiveOptions reactiveOptions) {
+
+        Flux query = Flux.from("telegraf").range(Instant.parse(START), Instant.parse(STOP));
+
+        return fluxClient.flux(query, new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions);
+    }
+
+    @Nonnull
+    private List<Integer> times(@Nonnull final List<FluxRecord> records) {
+        long base = Instant.parse("2018-06-27T05:56:40Z").getEpochSecond();
+
+        return records.stream()
+                .map(record -> (int) (record.getTime().getEpochSecond() - base))
+                .collect(Collectors.toList());
+    }
+
+    @Nonnull
+    private MockResponse createTimesResponse(@Nonnull final String start, final int... seconds) {
+        return createResponse(createTimesData(start, seconds));
+    }
+
+    /**
+     * @param start   the start of range
+     * @param seconds the seconds of records after 05:56:40
+     */
+    @Nonnull
+    private String createTimesData(@Nonnull final String start, final int... seconds) {
+
+        StringBuilder data = new StringBuilder()
+                .append("#datatype,string,long,dateTime:RFC3339,dateTime:RFC3339,dateTime:RFC3339,double,string\n")
+                .append("#group,false,false,true,true,false,false,false\n")
+                .append("#default,_result,,,,,,\n")
+                .append(",result,table,_start,_stop,_time,_value,_field\n");
+
+        for (int second : seconds) {
+            data.append(",,0,").append(start).append(",").append(STOP).append(",2018-06-27T05:56:")
+                    .append(40 + second).append("Z,").append(second).append(",free\n");
+        }
+
+        return data.toString();
+    }
+
+    /**
+     * @param free the seconds of records of the free table after 05:56:40
+     * @param used the seconds of records of the used table after 05:56:40
+     */
+    @Nonnull
+    private String createTablesData(@Nonnull final int[] free, @Nonnull final int[] used) {
+
+        StringBuilder data = new StringBuilder()
+                .append("#datatype,string,long,dateTime:RFC3339,dateTime:RFC3339,dateTime:RFC3339,double,string\n")
+                .append("#group,false,false,true,true,false,false,true\n")
+                .append("#default,_result,,,,,,\n")
+                .append(",result,table,_start,_stop,_time,_value,_field\n");
+
+        for (int second : free) {
+            data.append(",,0,").append(START).append(",").append(STOP).append(",2018-06-27T05:56:")
+                    .append(40 + second).append("Z,").append(second).append(",free\n");
+        }
+        for (int second : used) {
+            data.append(",,1,").append(START).append(",").append(STOP).append(",2018-06-27T05:56:")
+                    .append(40 + second).append("Z,").append(second).append(",used\n");
+        }
+
+        return data.toString();
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.flux.option.FluxConnectionOptions;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (28/08/2018 13:40)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveSchedulersTest extends AbstractFluxClientReactiveTest {
+
+    @Test
+    void readBySubscribingThread() {
+
+        fluxServer.enqueue(createResponse());
+
+        List<String> threads = threads(fluxClient.flux(Flux.from("flux_database")));
+
+        Assertions.assertThat(threads).hasSize(6).containsOnly(Thread.currentThread().getName());
+    }
+
+    @Test
+    void ioScheduler() {
+
+        fluxServer.enqueue(createResponse());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "custom-io"));
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .ioScheduler(Schedulers.from(executor))
+                .build();
+
+        List<String> threads = threads(fluxClient
+                .flux(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions));
+
+        executor.shutdownNow();
+
+        Assertions.assertThat(threads).hasSize(6).containsOnly("custom-io");
+    }
+
+    @Test
+    void ioThreads() {
+
+        fluxServer.enqueue(createResponse());
+        fluxServer.enqueue(createResponse());
+
+        FluxConnectionOptions options = FluxConnectionOptions.builder()
+                .url(fluxServer.url("/").url().toString())
+                .orgID("0")
+                .build();
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .ioThreads(1)
+                .build();
+
+        FluxClientReactive client = FluxClientReactiveFactory.connect(options, reactiveOptions);
+
+        List<String> threads = threads(client.flux(Flux.from("flux_database")));
+        Assertions.assertThat(threads).hasSize(6).containsOnly("flux-io-1");
+
+        // the I/O threads are shared by the per query options
+        threads = threads(client.flux(Flux.from("flux_database"),
+                new HashMap<>(), FluxOptions.DEFAULTS, FluxReactiveOptions.DEFAULTS));
+        Assertions.assertThat(threads).hasSize(6).containsOnly("flux-io-1");
+
+        client.close();
+    }
+
+    @Test
+    void ioVirtualThreads() {
+
+        fluxServer.enqueue(createResponse());
+
+        FluxConnectionOptions options = FluxConnectionOptions.builder()
+                .url(fluxServer.url("/").url().toString())
+                .orgID("0")
+                .build();
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .ioVirtualThreads(true)
+                .ioThreads(1)
+                .build();
+
+        FluxClientReactive client = FluxClientReactiveFactory.connect(options, reactiveOptions);
+
+        List<Boolean> virtual = client.flux(Flux.from("flux_database"))
+                .map(record -> isVirtual(Thread.currentThread()))
+                .toList()
+                .blockingGet();
+
+        client.close();
+
+        // Java 21+ => virtual threads, older runtime => the pool of I/O threads
+        boolean supported = Stream.of(Executors.class.getMethods())
+                .anyMatch(method -> method.getName().equals("newVirtualThreadPerTaskExecutor"));
+
+        Assertions.assertThat(virtual).hasSize(6).containsOnly(supported);
+    }
+
+    @Test
+    void observeScheduler() {
+
+        fluxServer.enqueue(createResponse());
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .ioScheduler(Schedulers.io())
+                .observeScheduler(Schedulers.single())
+                .bufferSize(2)
+                .build();
+
+        List<String> threads = threads(fluxClient
+                .flux(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions));
+
+        Assertions.assertThat(threads).hasSize(6).allMatch(name -> name.startsWith("RxSingleScheduler"));
+    }
+
+    @Test
+    void ioThreadsMustBePositive() {
+
+        Assertions.assertThatThrownBy(() -> FluxReactiveOptions.builder().ioThreads(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a positive number for ioThreads");
+    }
+
+    private boolean isVirtual(@Nonnull final Thread thread) {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    @Nonnull
+    private List<String> threads(@Nonnull final Flowable<?> results) {
+
+        return results
+                .map(result -> Thread.currentThread().getName())
+                .toList()
+                .blockingGet();
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.option.FluxLruResultCache;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (31/08/2018 11:30)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveShardingTest extends AbstractFluxClientReactiveTest {
+
+    private static final Pattern RANGE = Pattern.compile("range\\(start:([^,]+), stop:([^)]+)\\)");
+
+    private static final Instant START = Instant.parse("2018-08-01T00:00:00Z");
+    private static final Instant STOP = Instant.parse("2018-08-01T04:00:00Z");
+
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void dispatcher() {
+
+        fluxServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+
+                String query = request.getBody().readUtf8();
+                queries.add(query);
+
+                Matcher matcher = RANGE.matcher(query);
+                if (!matcher.find()) {
+                    return createResponse();
+                }
+
+                MockResponse response = createShardResponse(matcher.group(1), matcher.group(2));
+
+                // the first shard is the slowest
+                if (START.toString().equals(matcher.group(1))) {
+                    response.setBodyDelay(200, TimeUnit.MILLISECONDS);
+                }
+
+                return response;
+            }
+        });
+    }
+
+    @Test
+    void shards() {
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .rangeShards(4)
+                .build();
+
+        List<FluxRecord> records = query(Flux.from("telegraf").range(START, STOP), reactiveOptions);
+
+        Assertions.assertThat(queries).hasSize(4);
+        Assertions.assertThat(records).hasSize(16);
+
+        List<FluxRecord> hostA = records.stream()
+                .filter(record -> "A".equals(record.getValueByKey("host")))
+                .collect(Collectors.toList());
+
+        // the stable table and the time order of series
+        Assertions.assertThat(hostA).hasSize(8).allMatch(record -> record.getTable() == 0);
+        Assertions.assertThat(hostA.stream().map(FluxRecord::getTime).collect(Collectors.toList())).isSorted();
+        Assertions.assertThat(hostA.get(0).getTime()).isEqualTo(START);
+        Assertions.assertThat(hostA.get(7).getTime()).isEqualTo(Instant.parse("2018-08-01T03:00:01Z"));
+
+        // the bounds of whole range
+        Assertions.assertThat(records).allMatch(record -> START.equals(record.getStart()));
+        Assertions.assertThat(records).allMatch(record -> STOP.equals(record.getStop()));
+
+        Assertions.assertThat(records)
+                .filteredOn(record -> "B".equals(record.getValueByKey("host")))
+                .allMatch(record -> record.getTable() == 1)
+                .allMatch(record -> Long.valueOf(1).equals(record.getValueByKey("table")));
+    }
+
+    @Test
+    void adaptiveShards() {
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .rangeShards(10)
+                .rangeShardMinWidth(Duration.ofMinutes(90))
+                .build();
+
+        List<FluxRecord> records = query(Flux.from("telegraf").range(START, STOP), reactiveOptions);
+
+        Assertions.assertThat(queries).hasSize(3);
+        Assertions.assertThat(records).hasSize(12);
+    }
+
+    @Test
+    void notShardedWithoutRange() {
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .rangeShards(4)
+                .build();
+
+        List<FluxRecord> records = query(Flux.from("telegraf"), reactiveOptions);
+
+        Assertions.assertThat(queries).hasSize(1);
+        Assertions.assertThat(records).hasSize(6);
+    }
+
+    @Test
+    void rangeShardsMustBePositive() {
+
+        Assertions.assertThatThrownBy(() -> FluxReactiveOptions.builder().rangeShards(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a positive number for rangeShards");
+    }
+
+    @Test
+    void rangeShardsAreNotResumed() {
+
+        Assertions.assertThatThrownBy(() -> FluxReactiveOptions.builder().rangeShards(4).resumeAttempts(1).build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The rangeShards cannot be combined with the resumeAttempts");
+    }
+
+    @Test
+    void rangeShardsAreNotBucketed() {
+
+        FluxReactiveOptions.Builder builder = FluxReactiveOptions.builder()
+                .rangeShards(4)
+                .rangeBucket(Duration.ofHours(1))
+                .resultCache(new FluxLruResultCache(1024 * 1024, Duration.ofMinutes(5)));
+
+        Assertions.assertThatThrownBy(builder::build)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The rangeShards cannot be combined with the rangeBucket");
+    }
+
+    @Nonnull
+    private List<FluxRecord> query(@Nonnull final Flux query, @Nonnull final FluxReactiveOptions reactiveOptions) {
+        return fluxClient
+                .flux(query, new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .toList()
+                .blockingGet();
+    }
+
+    @Nonnull
+    private MockResponse createShardResponse(@Nonnull final String start, @Nonnull final String stop) {
+
+        Instant time = Instant.parse(start);
+
+        StringBuilder data = new StringBuilder()
+                .append("#datatype,string,long,dateTime:RFC3339,dateTime:RFC3339,dateTime:RFC3339,double,string\n")
+                .append("#group,false,false,true,true,false,false,true\n")
+                .append("#default,_result,,,,,,\n")
+                .append(",result,table,_start,_stop,_time,_value,host\n");
+
+        String[] hosts = {"A", "B"};
+        for (int table = 0; table < hosts.length; table++) {
+            for (int second = 0; second < 2; second++) {
+                data.append(",,").append(table).append(",").append(start).append(",").append(stop).append(",")
+                        .append(time.plusSeconds(second)).append(",").append(second).append(",")
+                        .append(hosts[table]).append("\n");
+            }
+        }
+
+        return createResponse(data.toString());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.dto.FluxRecordBatch;
+import io.bonitoo.flux.option.FluxConnectionOptions;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+import io.bonitoo.flux.option.FluxStringPool;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (24/08/2018 16:05)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveStringPoolTest extends AbstractFluxClientReactiveTest {
+
+    @Test
+    void poolPerQuery() {
+
+        fluxServer.enqueue(createResponse());
+
+        FluxStringPool pool = new FluxStringPool(1_000);
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder().stringPool(pool).build();
+
+        List<FluxRecord> records = fluxClient
+                .flux(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(records).hasSize(6);
+        Assertions.assertThat(records.get(0).getValueByKey("region")).isEqualTo("east");
+        Assertions.assertThat(records.get(0).getValueByKey("region")).isSameAs(records.get(2).getValueByKey("region"));
+        Assertions.assertThat(records.get(1).getValueByKey("host")).isSameAs(records.get(4).getValueByKey("host"));
+        Assertions.assertThat(records.get(3).getValueByKey("region")).isEqualTo("west");
+
+        // result, region and host per record
+        Assertions.assertThat(pool.getMisses()).isEqualTo(6);
+        Assertions.assertThat(pool.getHits()).isEqualTo(12);
+        Assertions.assertThat(pool.getHitRate()).isEqualTo(12 / 18.0);
+        Assertions.assertThat(pool.size()).isEqualTo(6);
+    }
+
+    @Test
+    void poolPerClient() {
+
+        FluxConnectionOptions options = FluxConnectionOptions.builder()
+                .url(fluxServer.url("/").url().toString())
+                .orgID("0")
+                .build();
+
+        FluxStringPool pool = new FluxStringPool(1_000);
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder().stringPool(pool).build();
+
+        FluxClientReactive client = FluxClientReactiveFactory.connect(options, reactiveOptions);
+
+        fluxServer.enqueue(createResponse());
+        fluxServer.enqueue(createResponse());
+
+        FluxRecord record = client.flux(Flux.from("flux_database")).blockingFirst();
+        FluxRecordBatch batch = client.fluxBatches(Flux.from("flux_database")).blockingFirst();
+
+        Assertions.assertThat(batch.getColumn("region").getString(0)).isSameAs(record.getValueByKey("region"));
+        Assertions.assertThat(batch.getColumn("result").getString(0)).isSameAs(record.getValueByKey("result"));
+        Assertions.assertThat(pool.getHits()).isGreaterThan(pool.getMisses());
+
+        client.close();
+    }
+
+    @Test
+    void poolIsBounded() {
+
+        FluxStringPool pool = new FluxStringPool(2);
+
+        for (int i = 0; i < 100; i++) {
+            byte[] bytes = ("host-" + i).getBytes(StandardCharsets.UTF_8);
+            Assertions.assertThat(pool.intern(bytes, 0, bytes.length)).isEqualTo("host-" + i);
+        }
+
+        Assertions.assertThat(pool.size()).isLessThanOrEqualTo(2);
+        Assertions.assertThat(pool.getMisses()).isEqualTo(100);
+
+        byte[] bytes = "xhost-99x".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertThat(pool.intern(bytes, 1, 7)).isEqualTo("host-99");
+        Assertions.assertThat(pool.getHits()).isEqualTo(1);
+
+        pool.clear();
+
+        Assertions.assertThat(pool.size()).isEqualTo(0);
+        Assertions.assertThat(pool.getHitRate()).isEqualTo(0);
+    }
+
+    @Test
+    void maxSizeMustBePositive() {
+
+        Assertions.assertThatThrownBy(() -> new FluxStringPool(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a positive number for maxSize");
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import io.bonitoo.flux.dto.FluxTableKey;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (27/08/2018 16:10)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveTablesTest extends AbstractFluxClientReactiveTest {
+
+    private static final String TABLES = "#datatype,string,long,dateTime:RFC3339,string,string,double\n"
+            + "#group,false,false,false,true,false,false\n"
+            + "#default,_result,,,,,\n"
+            + ",result,table,_time,region,host,_value\n"
+            + ",,0,2018-05-08T20:50:00Z,east,A,15.43\n"
+            + ",,0,2018-05-08T20:50:20Z,east,B,59.25\n"
+            + ",,1,2018-05-08T20:50:00Z,west,A,62.73\n"
+            + ",,1,2018-05-08T20:50:20Z,west,B,12.83\n"
+            + ",,1,2018-05-08T20:50:40Z,west,C,51.62\n"
+            + "\n"
+            + "#datatype,string,long,dateTime:RFC3339,string,string,double\n"
+            + "#group,false,false,false,true,false,false\n"
+            + "#default,max,,,,,\n"
+            + ",result,table,_time,region,host,_value\n"
+            + ",,0,2018-05-08T20:50:20Z,east,B,59.25\n";
+
+    @Test
+    void tables() {
+
+        fluxServer.enqueue(createResponse(TABLES));
+
+        List<FluxTableKey> keys = new ArrayList<>();
+
+        fluxClient
+                .fluxTables(Flux.from("flux_database"))
+                .doOnNext(table -> keys.add(table.getKey()))
+                .concatMapSingle(table -> table.map(record -> record.getValueByKey("host")).toList())
+                .test()
+                .assertValueCount(3)
+                .assertValueAt(0, hosts -> hosts.equals(Arrays.asList("A", "B")))
+                .assertValueAt(1, hosts -> hosts.equals(Arrays.asList("A", "B", "C")))
+                .assertValueAt(2, hosts -> hosts.equals(Collections.singletonList("B")))
+                .assertComplete();
+
+        Assertions.assertThat(keys).hasSize(3);
+        Assertions.assertThat(keys.get(0).getTable()).isEqualTo(0);
+        Assertions.assertThat(keys.get(0).getGroupKey()).containsOnlyKeys("region");
+        Assertions.assertThat(keys.get(0).getValueByKey("region")).isEqualTo("east");
+        Assertions.assertThat(keys.get(1).getTable()).isEqualTo(1);
+        Assertions.assertThat(keys.get(1).getValueByKey("region")).isEqualTo("west");
+
+        // same group key for different results => the running index distinguishes the tables
+        Assertions.assertThat(keys.get(2).getTable()).isEqualTo(2);
+        Assertions.assertThat(keys.get(2).getGroupKey()).isEqualTo(keys.get(0).getGroupKey());
+        Assertions.assertThat(keys.get(2)).isNotEqualTo(keys.get(0));
+    }
+
+    @Test
+    void tableCompletesAtBoundary() {
+
+        fluxServer.enqueue(createResponse(TABLES));
+
+        List<String> signals = new ArrayList<>();
+
+        fluxClient
+                .fluxTables(Flux.from("flux_database"))
+                .flatMap(table -> table
+                        .doOnNext(record -> signals.add(table.getKey().getTable() + ":" + record.getValueByKey("host")))
+                        .doOnComplete(() -> signals.add(table.getKey().getTable() + ":complete")))
+                .test()
+                .assertValueCount(6)
+                .assertComplete();
+
+        Assertions.assertThat(signals).containsExactly(
+                "0:A", "0:B", "0:complete",
+                "1:A", "1:B", "1:C", "1:complete",
+                "2:B", "2:complete");
+    }
+
+    @Test
+    void restOfCanceledTableIsSkipped() {
+
+        fluxServer.enqueue(createResponse(TABLES));
+
+        fluxClient
+                .fluxTables(Flux.from("flux_database"))
+                .concatMapSingle(table -> table.firstOrError().map(record -> record.getValueByKey("host")))
+                .test()
+                .assertValues("A", "A", "B")
+                .assertComplete();
+    }
+
+    @Test
+    void dropStrategyNotSupported() {
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .overflowStrategy(FluxReactiveOptions.OverflowStrategy.DROP_OLDEST)
+                .build();
+
+        Assertions.assertThatThrownBy(() -> fluxClient
+                .fluxTables(Flux.from("flux_database"), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The DROP_OLDEST overflow strategy is not supported for tables");
+    }
+}
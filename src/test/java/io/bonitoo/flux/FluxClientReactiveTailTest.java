@@ -0,0 +1,242 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+
+import io.bonitoo.flux.dto.FluxRecord;
+import io.bonitoo.flux.option.FluxOptions;
+import io.bonitoo.flux.option.FluxReactiveOptions;
+
+import io.reactivex.subscribers.TestSubscriber;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (30/08/2018 16:10)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxClientReactiveTailTest extends AbstractFluxClientReactiveTest {
+
+    private static final Pattern RANGE_START = Pattern.compile("range\\(start:([^,)]+)");
+
+    private static final Flux QUERY = Flux.from("telegraf").range(Instant.parse("2018-08-30T10:00:00Z"));
+
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<String> polls = new ConcurrentLinkedQueue<>();
+    private volatile boolean rangeColumns;
+
+    @BeforeEach
+    void dispatcher() {
+
+        fluxServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+
+                String query = request.getBody().readUtf8();
+                queries.add(query);
+
+                String times = polls.size() > 1 ? polls.poll() : polls.peek();
+
+                if (rangeColumns) {
+                    return createRangeResponse(query, times);
+                }
+
+                return createTimesResponse(times);
+            }
+        });
+    }
+
+    @Test
+    void emitNewRecords() {
+
+        polls.add("10:00:01,10:00:02");
+        polls.add("10:00:02,10:00:03");
+        polls.add("10:00:03");
+        polls.add("10:00:03,10:00:04");
+
+        List<FluxRecord> records = fluxClient
+                .fluxTail(QUERY, Duration.ofMillis(50))
+                .take(4)
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(times(records)).containsExactly("10:00:01", "10:00:02", "10:00:03", "10:00:04");
+
+        Assertions.assertThat(queries.get(0)).contains("range(start:2018-08-30T10:00:00Z)");
+        Assertions.assertThat(queries.get(1)).contains("range(start:2018-08-30T10:00:02Z)");
+        Assertions.assertThat(queries.get(2)).contains("range(start:2018-08-30T10:00:03Z)");
+    }
+
+    @Test
+    void graceWindow() {
+
+        polls.add("10:00:01,10:00:05");
+        // late record in grace window, the old record is not emitted
+        polls.add("10:00:01,10:00:04,10:00:05,10:00:06");
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .tailGrace(Duration.ofSeconds(2))
+                .build();
+
+        List<FluxRecord> records = fluxClient
+                .fluxTail(QUERY, Duration.ofMillis(50), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .take(4)
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(times(records)).containsExactly("10:00:01", "10:00:05", "10:00:04", "10:00:06");
+        Assertions.assertThat(queries.get(1)).contains("range(start:2018-08-30T10:00:03Z)");
+    }
+
+    @Test
+    void boundsOfRangeAreNotIdentity() {
+
+        rangeColumns = true;
+
+        polls.add("10:00:01,10:00:02");
+        // the _start and _stop of records are changed by the advanced range
+        polls.add("10:00:01,10:00:02,10:00:03");
+
+        FluxReactiveOptions reactiveOptions = FluxReactiveOptions.builder()
+                .tailGrace(Duration.ofSeconds(2))
+                .build();
+
+        List<FluxRecord> records = fluxClient
+                .fluxTail(QUERY, Duration.ofMillis(50), new HashMap<>(), FluxOptions.DEFAULTS, reactiveOptions)
+                .take(3)
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(times(records)).containsExactly("10:00:01", "10:00:02", "10:00:03");
+        Assertions.assertThat(queries.get(1)).contains("range(start:2018-08-30T10:00:00Z)");
+    }
+
+    @Test
+    void stopOfRangeIsKept() {
+
+        polls.add("10:00:01,10:00:02");
+        polls.add("10:00:03");
+
+        Flux query = Flux.from("telegraf")
+                .range(Instant.parse("2018-08-30T10:00:00Z"), Instant.parse("2018-08-30T11:00:00Z"));
+
+        List<FluxRecord> records = fluxClient
+                .fluxTail(query, Duration.ofMillis(50))
+                .take(3)
+                .toList()
+                .blockingGet();
+
+        Assertions.assertThat(times(records)).containsExactly("10:00:01", "10:00:02", "10:00:03");
+        Assertions.assertThat(queries.get(1))
+                .contains("range(start:2018-08-30T10:00:02Z, stop:2018-08-30T11:00:00Z)");
+    }
+
+    @Test
+    void skipPollsIfSubscriberIsBehind() throws InterruptedException {
+
+        polls.add("10:00:01,10:00:02,10:00:03");
+
+        TestSubscriber<FluxRecord> subscriber = fluxClient
+                .fluxTail(QUERY, Duration.ofMillis(20))
+                .test(1);
+
+        Thread.sleep(300);
+
+        subscriber.assertValueCount(1);
+        Assertions.assertThat(fluxServer.getRequestCount()).isEqualTo(1);
+
+        subscriber.cancel();
+    }
+
+    @Test
+    void queryWithoutRange() {
+
+        Assertions.assertThatThrownBy(() -> fluxClient.fluxTail(Flux.from("telegraf"), Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Expecting the query with one range()");
+    }
+
+    @Test
+    void intervalMustBePositive() {
+
+        Assertions.assertThatThrownBy(() -> fluxClient.fluxTail(QUERY, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Expecting a positive duration for interval");
+    }
+
+    @Nonnull
+    private MockResponse createTimesResponse(@Nonnull final String times) {
+
+        StringBuilder data = new StringBuilder()
+                .append("#datatype,string,long,dateTime:RFC3339,double,string\n")
+                .append(",result,table,_time,_value,_field\n");
+
+        for (String time : times.split(",")) {
+            data.append(",_result,0,2018-08-30T").append(time).append("Z,1,usage\n");
+        }
+
+        return createResponse(data.toString());
+    }
+
+    @Nonnull
+    private MockResponse createRangeResponse(@Nonnull final String query, @Nonnull final String times) {
+
+        Matcher start = RANGE_START.matcher(query);
+        Assertions.assertThat(start.find()).isTrue();
+
+        // the stop of open range is the time of query
+        StringBuilder data = new StringBuilder()
+                .append("#datatype,string,long,dateTime:RFC3339,dateTime:RFC3339,dateTime:RFC3339,double,string\n")
+                .append(",result,table,_start,_stop,_time,_value,_field\n");
+
+        for (String time : times.split(",")) {
+            data.append(",_result,0,").append(start.group(1)).append(",").append(Instant.now())
+                    .append(",2018-08-30T").append(time).append("Z,1,usage\n");
+        }
+
+        return createResponse(data.toString());
+    }
+
+    @Nonnull
+    private List<String> times(@Nonnull final List<FluxRecord> records) {
+        return records.stream()
+                .map(record -> record.getTime().toString().substring(11, 19))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * The MIT License
+ * Copyright © 2018
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package io.bonitoo.flux.impl;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+/**
+ * @author Jakub Bednar (bednar@github) (24/08/2018 11:40)
+ */
+@RunWith(JUnitPlatform.class)
+class FluxTimeParserTest {
+
+    @Test
+    void withoutFraction() {
+
+        assertParsed("2018-06-27T05:56:40Z");
+        assertParsed("1970-01-01T00:00:00Z");
+        assertParsed("2262-04-11T23:47:16Z");
+    }
+
+    @Test
+    void outOfNanosRange() {
+
+        Assertions.assertThatThrownBy(() -> FluxTimeParser.parseEpochNanos("0001-01-01T00:00:00Z"))
+                .isInstanceOf(ArithmeticException.class);
+        Assertions.assertThatThrownBy(() -> FluxTimeParser.parseEpochNanos("9999-12-31T23:59:59Z"))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void fraction() {
+
+        String fraction = "123456789";
+        for (int digits = 1; digits <= fraction.length(); digits++) {
+            assertParsed("2018-06-27T05:56:40." + fraction.substring(0, digits) + "Z");
+        }
+
+        assertParsed("2018-06-27T05:56:40.000000001Z");
+        assertParsed("2018-06-27T05:56:40.900000000Z");
+        assertParsed("2018-06-27T05:56:40.0Z");
+    }
+
+    @Test
+    void beforeEpoch() {
+
+        assertParsed("1969-12-31T23:59:59.999999999Z");
+        assertParsed("1969-12-31T23:59:59.5Z");
+        assertParsed("1677-09-21T00:12:43.145224192Z");
+    }
+
+    @Test
+    void leapDates() {
+
+        assertParsed("2016-02-29T12:00:00Z");
+        assertParsed("2000-02-29T12:00:00Z");
+        assertParsed("2016-03-01T00:00:00Z");
+        assertParsed("2000-12-31T23:59:59.999Z");
+        assertParsed("2100-03-01T00:00:00Z");
+
+        // not a leap year => the date is invalid
+        assertInvalid("2100-02-29T12:00:00Z");
+        assertInvalid("1900-02-29T12:00:00Z");
+        assertInvalid("2018-02-29T12:00:00Z");
+    }
+
+    /**
+     * The offsets are parsed by the {@link Instant#parse(CharSequence)} of the current JDK.
+     */
+    @Test
+    void offset() {
+
+        assertParsed("2018-06-27T05:56:40+02:00");
+        assertParsed("2018-06-27T05:56:40.123-05:30");
+        assertParsed("2018-06-27T05:56:40.123456789+00:00");
+    }
+
+    @Test
+    void slowPath() {
+
+        // lower case separators
+        assertParsed("2018-06-27t05:56:40.123z");
+
+        // the dot without fraction
+        assertParsed("2018-06-27T05:56:40.Z");
+
+        // leap second
+        assertParsed("2016-12-31T23:59:60Z");
+
+        assertInvalid("2018-06-27T05:56:40.1234567891Z");
+        assertInvalid("2018-13-27T05:56:40Z");
+        assertInvalid("2018-06-31T05:56:40Z");
+        assertInvalid("2018-06-27T24:56:40Z");
+        assertInvalid("2018-06-27T05:56:4xZ");
+        assertInvalid("2018-06-27T05:56:40.12x4Z");
+    }
+
+    @Test
+    void cellOfRow() {
+
+        byte[] row = ",_result,2018-06-27T05:56:40.001Z,1\n".getBytes(StandardCharsets.US_ASCII);
+
+        long nanos = FluxTimeParser.parseEpochNanos(row, 9, 33);
+
+        Assertions.assertThat(nanos).isEqualTo(epochNanos(Instant.parse("2018-06-27T05:56:40.001Z")));
+    }
+
+    @Test
+    void randomInstants() {
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+
+            long seconds = random.nextInt(Integer.MAX_VALUE) - Integer.MAX_VALUE / 2;
+            int nanos = random.nextInt(1_000_000_000);
+
+            // the fraction of 0, 3, 6 or 9 digits
+            assertParsed(Instant.ofEpochSecond(seconds, nanos).toString());
+            assertParsed(Instant.ofEpochSecond(seconds, nanos / 1_000 * 1_000).toString());
+            assertParsed(Instant.ofEpochSecond(seconds, nanos / 1_000_000 * 1_000_000).toString());
+            assertParsed(Instant.ofEpochSecond(seconds).toString());
+        }
+    }
+
+    @Test
+    void instant() {
+
+        Instant instant = Instant.parse("1969-12-31T23:59:59.999999999Z");
+
+        Assertions.assertThat(FluxTimeParser.toEpochNanos(instant)).isEqualTo(-1);
+        Assertions.assertThat(FluxTimeParser.toInstant(-1)).isEqualTo(instant);
+    }
+
+    private void assertParsed(@Nonnull final String value) {
+
+        Instant expected;
+        try {
+            expected = Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            assertInvalid(value);
+            return;
+        }
+
+        Assertions.assertThat(FluxTimeParser.parseEpochNanos(value)).as(value).isEqualTo(epochNanos(expected));
+    }
+
+    private void assertInvalid(@Nonnull final String value) {
+
+        Assertions.assertThatThrownBy(() -> Instant.parse(value)).isInstanceOf(DateTimeParseException.class);
+        Assertions.assertThatThrownBy(() -> FluxTimeParser.parseEpochNanos(value))
+                .as(value)
+                .isInstanceOf(DateTimeParseException.class);
+    }
+
+    private long epochNanos(@Nonnull final Instant instant) {
+        return BigInteger.valueOf(instant.getEpochSecond())
+                .multiply(BigInteger.valueOf(TimeUnit.SECONDS.toNanos(1)))
+                .add(BigInteger.valueOf(instant.getNano()))
+                .longValueExact();
+    }
+}